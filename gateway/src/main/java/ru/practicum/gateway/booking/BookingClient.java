@@ -1,5 +1,6 @@
 package ru.practicum.gateway.booking;
 
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
@@ -9,8 +10,10 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.gateway.booking.dto.BookItemRequestDto;
 import ru.practicum.gateway.booking.dto.BookingState;
+import ru.practicum.gateway.booking.dto.BulkRespondDto;
 import ru.practicum.gateway.client.BaseClient;
 
+import java.io.IOException;
 import java.util.Map;
 
 @Service
@@ -53,10 +56,31 @@ public class BookingClient extends BaseClient {
         return patch("/" + bookingId + "?approved=" + approved, ownerId, bookingId);
     }
 
+    public ResponseEntity<Object> respondAll(BulkRespondDto dto, Boolean approved, Long ownerId) {
+        return patch("/bulk?approved={approved}", ownerId, Map.of("approved", approved), dto);
+    }
+
     public ResponseEntity<Object> getAllBookingsOfOwner(Long ownerId, BookingState state) {
         Map<String, Object> parameters = Map.of(
                 "state", state.name().toUpperCase()
         );
         return get("/owner", ownerId, parameters);
     }
-}
\ No newline at end of file
+
+    public void streamBookings(long userId, BookingState state, HttpServletResponse response) throws IOException {
+        stream("?state={state}&stream=true", userId, Map.of("state", state.name()), response);
+    }
+
+    public void streamBookingsOfOwner(long ownerId, BookingState state, HttpServletResponse response)
+            throws IOException {
+        stream("/owner?state={state}&stream=true", ownerId, Map.of("state", state.name()), response);
+    }
+
+    public ResponseEntity<Object> countBookings(long userId) {
+        return get("/counts", userId);
+    }
+
+    public ResponseEntity<Object> countBookingsOfOwner(long ownerId) {
+        return get("/owner/counts", ownerId);
+    }
+}
@@ -1,5 +1,6 @@
 package ru.practicum.gateway.booking;
 
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Positive;
 import jakarta.validation.constraints.PositiveOrZero;
@@ -11,6 +12,9 @@ import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.gateway.booking.dto.BookItemRequestDto;
 import ru.practicum.gateway.booking.dto.BookingState;
+import ru.practicum.gateway.booking.dto.BulkRespondDto;
+
+import java.io.IOException;
 
 
 @Controller
@@ -56,6 +60,46 @@ public class BookingController {
         return bookingClient.getAllBookingsOfOwner(ownerId, state);
     }
 
+    @GetMapping(params = "stream=true")
+    public void streamBookings(@RequestHeader("X-Sharer-User-Id") long userId,
+                               @RequestParam(name = "state", defaultValue = "ALL") String stateParam,
+                               HttpServletResponse response) throws IOException {
+        BookingState state = BookingState.from(stateParam)
+                .orElseThrow(() -> new IllegalArgumentException("Unknown state: " + stateParam));
+        log.info("Stream bookings with state {}, userId={}", stateParam, userId);
+        bookingClient.streamBookings(userId, state, response);
+    }
+
+    @GetMapping(path = "/owner", params = "stream=true")
+    public void streamForOwner(@RequestHeader("X-Sharer-User-Id") long ownerId,
+                               @RequestParam(name = "state", defaultValue = "ALL") String stateParam,
+                               HttpServletResponse response) throws IOException {
+        BookingState state = BookingState.from(stateParam)
+                .orElseThrow(() -> new IllegalArgumentException("Unknown state: " + stateParam));
+        log.info("Stream bookings of owner id={}, state={}", ownerId, state);
+        bookingClient.streamBookingsOfOwner(ownerId, state, response);
+    }
+
+    @GetMapping("/counts")
+    public ResponseEntity<Object> countBookings(@RequestHeader("X-Sharer-User-Id") long userId) {
+        log.info("Count bookings of user id={}", userId);
+        return bookingClient.countBookings(userId);
+    }
+
+    @GetMapping("/owner/counts")
+    public ResponseEntity<Object> countForOwner(@RequestHeader("X-Sharer-User-Id") long ownerId) {
+        log.info("Count bookings of owner id={}", ownerId);
+        return bookingClient.countBookingsOfOwner(ownerId);
+    }
+
+    @PatchMapping("/bulk")
+    public ResponseEntity<Object> respondToBookings(@RequestBody @Valid BulkRespondDto dto,
+                                                    @RequestParam(name = "approved") Boolean approved,
+                                                    @RequestHeader("X-Sharer-User-Id") Long ownerId) {
+        log.info("Bulk respond ownerId={}, isApproved={}, itemId={}", ownerId, approved, dto.getItemId());
+        return bookingClient.respondAll(dto, approved, ownerId);
+    }
+
     @PatchMapping("/{bookingId}")
     public ResponseEntity<Object> responseToBooking(@PathVariable Long bookingId,
                                                     @RequestParam(name = "approved") Boolean approved,
@@ -0,0 +1,29 @@
+package ru.practicum.gateway.booking.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkRespondDto {
+    @Size(max = 1000)
+    private List<@NotNull @Positive Long> bookingIds;
+    @Positive
+    private Long itemId;
+
+    @JsonIgnore
+    @AssertTrue(message = "нужно указать либо bookingIds, либо itemId")
+    public boolean isSingleTarget() {
+        boolean hasIds = bookingIds != null && !bookingIds.isEmpty();
+        return hasIds != (itemId != null);
+    }
+}
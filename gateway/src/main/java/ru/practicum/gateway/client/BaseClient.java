@@ -1,10 +1,13 @@
 package ru.practicum.gateway.client;
 
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.http.*;
 import org.springframework.lang.Nullable;
+import org.springframework.util.StreamUtils;
 import org.springframework.web.client.HttpStatusCodeException;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.Map;
 
@@ -63,6 +66,13 @@ public class BaseClient {
         return makeAndSendRequest(HttpMethod.PATCH, path, userId, parameters, body);
     }
 
+    /**
+     * PATCH с условием If-Match: сервер ответит 412, если версия записи уже другая.
+     */
+    protected <T> ResponseEntity<Object> patchIfMatch(String path, Long userId, T body, @Nullable String ifMatch) {
+        return makeAndSendRequest(HttpMethod.PATCH, path, userId, null, body, ifMatch);
+    }
+
     protected ResponseEntity<Object> delete(String path) {
         return delete(path, null, null);
     }
@@ -75,8 +85,33 @@ public class BaseClient {
         return makeAndSendRequest(HttpMethod.DELETE, path, userId, parameters, null);
     }
 
+    /**
+     * GET с потоковой выдачей: тело ответа сервера копируется в response по мере чтения,
+     * без разбора в Object. Ошибка сервера передается со своим статусом и телом.
+     */
+    protected void stream(String path, Long userId, Map<String, Object> parameters,
+                          HttpServletResponse response) throws IOException {
+        HttpHeaders headers = defaultHeaders(userId, null);
+        try {
+            rest.execute(path, HttpMethod.GET, request -> request.getHeaders().addAll(headers), serverResponse -> {
+                response.setStatus(serverResponse.getStatusCode().value());
+                response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+                StreamUtils.copy(serverResponse.getBody(), response.getOutputStream());
+                return null;
+            }, parameters);
+        } catch (HttpStatusCodeException e) {
+            response.setStatus(e.getStatusCode().value());
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getOutputStream().write(e.getResponseBodyAsByteArray());
+        }
+    }
+
     private <T> ResponseEntity<Object> makeAndSendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body) {
-        HttpEntity<T> requestEntity = new HttpEntity<>(body, defaultHeaders(userId));
+        return makeAndSendRequest(method, path, userId, parameters, body, null);
+    }
+
+    private <T> ResponseEntity<Object> makeAndSendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body, @Nullable String ifMatch) {
+        HttpEntity<T> requestEntity = new HttpEntity<>(body, defaultHeaders(userId, ifMatch));
 
         ResponseEntity<Object> shareitServerResponse;
         try {
@@ -91,13 +126,16 @@ public class BaseClient {
         return prepareGatewayResponse(shareitServerResponse);
     }
 
-    private HttpHeaders defaultHeaders(Long userId) {
+    private HttpHeaders defaultHeaders(Long userId, @Nullable String ifMatch) {
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_JSON);
         headers.setAccept(List.of(MediaType.APPLICATION_JSON));
         if (userId != null) {
             headers.set("X-Sharer-User-Id", String.valueOf(userId));
         }
+        if (ifMatch != null) {
+            headers.set(HttpHeaders.IF_MATCH, ifMatch);
+        }
         return headers;
     }
 
@@ -0,0 +1,20 @@
+package ru.practicum.gateway.dashboard;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping(path = "/dashboard")
+@RequiredArgsConstructor
+public class DashboardController {
+    private final DashboardClient dashboardClient;
+
+    @GetMapping("/owner")
+    public ResponseEntity<Object> getOwnerDashboard(@RequestHeader("X-Sharer-User-Id") long userId) {
+        return dashboardClient.getOwnerDashboard(userId);
+    }
+}
@@ -1,5 +1,6 @@
 package ru.practicum.gateway.item;
 
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
@@ -11,7 +12,11 @@ import ru.practicum.gateway.client.BaseClient;
 import ru.practicum.gateway.item.dto.CommentDto;
 import ru.practicum.gateway.item.dto.ItemDto;
 
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Service
 public class ItemClient extends BaseClient {
@@ -31,34 +36,119 @@ public class ItemClient extends BaseClient {
         return post("", userId, itemDto);
     }
 
-    public ResponseEntity<Object> updateItem(Long userId, Long itemId, ItemDto itemDto) {
+    public ResponseEntity<Object> updateItem(Long userId, Long itemId, ItemDto itemDto, String ifMatch) {
         String name = itemDto.getName();
         String description = itemDto.getDescription();
         Boolean available = itemDto.getAvailable();
 
         if ((name == null || name.isBlank())
                 && (description == null || description.isBlank())
-                && (available == null)) {
+                && (available == null)
+                && (itemDto.getTags() == null)) {
             throw new IllegalArgumentException("Требуется минимум один аргумент");
         }
 
-        return patch("/" + itemId, userId, itemDto);
+        return patchIfMatch("/" + itemId, userId, itemDto, ifMatch);
     }
 
     public ResponseEntity<Object> getItemById(Long itemId, Long userId) {
         return get("/" + itemId, userId);
     }
 
-    public ResponseEntity<Object> getAllItems(Long userId) {
-        return get("", userId);
+    public ResponseEntity<Object> getAllItems(Long userId, int from, Integer size) {
+        if (size == null) {
+            return get("?from={from}", userId, Map.of("from", from));
+        }
+        Map<String, Object> parameters = Map.of(
+                "from", from,
+                "size", size
+        );
+        return get("?from={from}&size={size}", userId, parameters);
+    }
+
+    public void streamAllItems(Long userId, HttpServletResponse response) throws IOException {
+        stream("?stream=true", userId, Map.of(), response);
+    }
+
+    public ResponseEntity<Object> getAvailability(Long itemId, LocalDate from, LocalDate to) {
+        StringBuilder path = new StringBuilder("/" + itemId + "/availability");
+        Map<String, Object> parameters = new HashMap<>();
+        if (from != null) {
+            parameters.put("from", from);
+            path.append("?from={from}");
+        }
+        if (to != null) {
+            parameters.put("to", to);
+            path.append(from != null ? "&" : "?").append("to={to}");
+        }
+        return get(path.toString(), null, parameters);
     }
 
-    public ResponseEntity<Object> search(String text) {
+    public ResponseEntity<Object> search(String text, LocalDate from, LocalDate to, String sort, boolean fuzzy) {
         if (text == null || text.isBlank()) return ResponseEntity.ok(List.of());
-        return get("/search?text=" + text.toLowerCase());
+        StringBuilder path = new StringBuilder("/search?text={text}");
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("text", text.toLowerCase());
+        if (from != null) {
+            parameters.put("from", from);
+            parameters.put("to", to);
+            path.append("&from={from}&to={to}");
+        }
+        if (sort != null) {
+            parameters.put("sort", sort);
+            path.append("&sort={sort}");
+        }
+        if (fuzzy) {
+            path.append("&fuzzy=true");
+        }
+        return get(path.toString(), null, parameters);
+    }
+
+    public ResponseEntity<Object> suggest(String prefix, int limit) {
+        if (prefix == null || prefix.isBlank()) return ResponseEntity.ok(List.of());
+        Map<String, Object> parameters = Map.of(
+                "prefix", prefix,
+                "limit", limit
+        );
+        return get("/suggest?prefix={prefix}&limit={limit}", null, parameters);
+    }
+
+    public ResponseEntity<Object> searchFaceted(String text, List<String> tags, LocalDate from, LocalDate to,
+                                                String sort) {
+        if (text == null || text.isBlank()) {
+            return ResponseEntity.ok(Map.of("items", List.of(), "facets", Map.of()));
+        }
+        StringBuilder path = new StringBuilder("/search/faceted?text={text}");
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("text", text.toLowerCase());
+        for (int i = 0; i < tags.size(); i++) {
+            parameters.put("tag" + i, tags.get(i));
+            path.append("&tags={tag").append(i).append("}");
+        }
+        if (from != null) {
+            parameters.put("from", from);
+            parameters.put("to", to);
+            path.append("&from={from}&to={to}");
+        }
+        if (sort != null) {
+            parameters.put("sort", sort);
+            path.append("&sort={sort}");
+        }
+        return get(path.toString(), null, parameters);
     }
 
     public ResponseEntity<Object> addComment(CommentDto commentDto, Long itemId, Long userId) {
         return post("/" + itemId + "/comment", userId, commentDto);
     }
+
+    public ResponseEntity<Object> getComments(Long itemId, Long afterId, int size) {
+        if (afterId == null) {
+            return get("/" + itemId + "/comments?size={size}", null, Map.of("size", size));
+        }
+        Map<String, Object> parameters = Map.of(
+                "size", size,
+                "afterId", afterId
+        );
+        return get("/" + itemId + "/comments?size={size}&afterId={afterId}", null, parameters);
+    }
 }
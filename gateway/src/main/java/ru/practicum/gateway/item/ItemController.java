@@ -1,16 +1,37 @@
 package ru.practicum.gateway.item;
 
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.gateway.item.dto.CommentDto;
 import ru.practicum.gateway.item.dto.ItemDto;
 
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
 @RestController
 @RequestMapping(path = "/items")
 @RequiredArgsConstructor
+@Validated
 public class ItemController {
+    private static final Set<String> SEARCH_SORTS = Set.of("VIEWS", "BOOKINGS");
+    private static final Pattern TAG = Pattern.compile("[\\p{L}\\p{N}-]{1,50}");
+    private static final int MAX_TAGS = 10;
+    private static final int MAX_SUGGESTIONS = 50;
+
     private final ItemClient itemClient;
 
     @PostMapping
@@ -22,8 +43,13 @@ public class ItemController {
     @PatchMapping("/{itemId}")
     public ResponseEntity<Object> updateItem(@RequestHeader("X-Sharer-User-Id") long userId,
                                              @PathVariable Long itemId,
+                                             @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
                                              @RequestBody ItemDto itemDto) {
-        return itemClient.updateItem(userId, itemId, itemDto);
+        String tagsError = itemDto.getTags() != null ? tagsError(itemDto.getTags()) : null;
+        if (tagsError != null) {
+            return ResponseEntity.badRequest().body(tagsError);
+        }
+        return itemClient.updateItem(userId, itemId, itemDto, ifMatch);
     }
 
     @GetMapping("/{itemId}")
@@ -33,13 +59,66 @@ public class ItemController {
     }
 
     @GetMapping
-    public ResponseEntity<Object> getAllItems(@RequestHeader("X-Sharer-User-Id") long userId) {
-        return itemClient.getAllItems(userId);
+    public ResponseEntity<Object> getAllItems(@RequestHeader("X-Sharer-User-Id") long userId,
+                                              @PositiveOrZero @RequestParam(defaultValue = "0") int from,
+                                              @Positive @RequestParam(required = false) Integer size) {
+        return itemClient.getAllItems(userId, from, size);
+    }
+
+    @GetMapping(params = "stream=true")
+    public void streamAllItems(@RequestHeader("X-Sharer-User-Id") long userId,
+                               HttpServletResponse response) throws IOException {
+        itemClient.streamAllItems(userId, response);
+    }
+
+    @GetMapping("/{itemId}/availability")
+    public ResponseEntity<Object> getAvailability(@PathVariable Long itemId,
+                                                  @RequestParam(required = false)
+                                                  @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                  @RequestParam(required = false)
+                                                  @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return itemClient.getAvailability(itemId, from, to);
     }
 
     @GetMapping("/search")
-    public ResponseEntity<Object> search(@RequestParam String text) {
-        return itemClient.search(text);
+    public ResponseEntity<Object> search(@RequestParam String text,
+                                         @RequestParam(required = false)
+                                         @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                         @RequestParam(required = false)
+                                         @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                         @RequestParam(required = false) String sort,
+                                         @RequestParam(defaultValue = "false") boolean fuzzy) {
+        String error = searchError(from, to, sort);
+        if (error != null) {
+            return ResponseEntity.badRequest().body(error);
+        }
+        return itemClient.search(text, from, to, sort, fuzzy);
+    }
+
+    @GetMapping("/suggest")
+    public ResponseEntity<Object> suggest(@RequestParam String prefix,
+                                          @Positive @Max(MAX_SUGGESTIONS) @RequestParam(defaultValue = "10") int limit) {
+        return itemClient.suggest(prefix, limit);
+    }
+
+    @GetMapping("/search/faceted")
+    public ResponseEntity<Object> searchFaceted(@RequestParam String text,
+                                                @RequestParam(required = false) List<String> tags,
+                                                @RequestParam(required = false)
+                                                @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                @RequestParam(required = false)
+                                                @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                @RequestParam(required = false) String sort) {
+        String error = searchError(from, to, sort);
+        if (error != null) {
+            return ResponseEntity.badRequest().body(error);
+        }
+        List<String> required = tags != null ? tags : List.of();
+        String tagsError = tagsError(required);
+        if (tagsError != null) {
+            return ResponseEntity.badRequest().body(tagsError);
+        }
+        return itemClient.searchFaceted(text, required, from, to, sort);
     }
 
     @PostMapping("/{itemId}/comment")
@@ -48,4 +127,39 @@ public class ItemController {
                                              @RequestHeader("X-Sharer-User-Id") Long userId) {
         return itemClient.addComment(commentDto, itemId, userId);
     }
+
+    @GetMapping("/{itemId}/comments")
+    public ResponseEntity<Object> getComments(@PathVariable Long itemId,
+                                              @RequestParam(required = false) Long afterId,
+                                              @Positive @RequestParam(defaultValue = "10") int size) {
+        return itemClient.getComments(itemId, afterId, size);
+    }
+
+    /**
+     * Связь двух параметров (период задается парой) одной аннотацией параметра не выразить,
+     * поэтому она проверяется здесь; как и start/end брони в BookingClient, ошибка отдается ответом 400.
+     */
+    @Nullable
+    private static String searchError(LocalDate from, LocalDate to, String sort) {
+        if ((from == null) != (to == null)) {
+            return "Период поиска задается парой from и to";
+        }
+        if (sort != null && !SEARCH_SORTS.contains(sort)) {
+            return "Неизвестный порядок сортировки: " + sort;
+        }
+        return null;
+    }
+
+    @Nullable
+    private static String tagsError(Collection<String> tags) {
+        if (tags.size() > MAX_TAGS) {
+            return "Не больше " + MAX_TAGS + " тегов";
+        }
+        for (String tag : tags) {
+            if (tag == null || !TAG.matcher(tag.trim()).matches()) {
+                return "Недопустимый тег: " + tag;
+            }
+        }
+        return null;
+    }
 }
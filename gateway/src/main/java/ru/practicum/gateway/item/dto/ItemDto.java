@@ -2,8 +2,12 @@ package ru.practicum.gateway.item.dto;
 
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
 import lombok.*;
 
+import java.util.Set;
+
 @Getter
 @Builder
 @Setter
@@ -18,4 +22,7 @@ public class ItemDto {
     private Boolean available;
 
     private Long requestId;
+
+    @Size(max = 10)
+    private Set<@NotBlank @Size(max = 50) @Pattern(regexp = "[\\p{L}\\p{N}-]+") String> tags;
 }
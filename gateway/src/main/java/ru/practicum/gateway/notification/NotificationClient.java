@@ -0,0 +1,86 @@
+package ru.practicum.gateway.notification;
+
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.ResponseErrorHandler;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+import ru.practicum.gateway.client.BaseClient;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * Проксирует SSE-поток сервера как есть: статус, Content-Type и тело копируются без разбора,
+ * каждый прочитанный кусок сразу сбрасывается клиенту.
+ */
+@Service
+public class NotificationClient extends BaseClient {
+    private static final String API_PREFIX = "/events";
+    private static final int BUFFER_SIZE = 8192;
+
+    @Autowired
+    public NotificationClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+        super(
+                builder
+                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
+                        .requestFactory(() -> new HttpComponentsClientHttpRequestFactory())
+                        .errorHandler(new PassThroughErrorHandler())
+                        .build()
+        );
+    }
+
+    public void subscribe(Long userId, @Nullable String lastEventId, HttpServletResponse response) {
+        rest.execute("", HttpMethod.GET,
+                request -> {
+                    request.getHeaders().setAccept(List.of(MediaType.TEXT_EVENT_STREAM, MediaType.APPLICATION_JSON));
+                    request.getHeaders().set("X-Sharer-User-Id", String.valueOf(userId));
+                    if (lastEventId != null) {
+                        request.getHeaders().set("Last-Event-ID", lastEventId);
+                    }
+                },
+                serverResponse -> {
+                    copy(serverResponse, response);
+                    return null;
+                });
+    }
+
+    private static void copy(ClientHttpResponse from, HttpServletResponse to) throws IOException {
+        to.setStatus(from.getStatusCode().value());
+        MediaType contentType = from.getHeaders().getContentType();
+        if (contentType != null) {
+            to.setContentType(contentType.toString());
+        }
+        to.flushBuffer();
+
+        byte[] buffer = new byte[BUFFER_SIZE];
+        try (InputStream in = from.getBody()) {
+            OutputStream out = to.getOutputStream();
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+                out.flush();
+            }
+        }
+    }
+
+    private static final class PassThroughErrorHandler implements ResponseErrorHandler {
+        @Override
+        public boolean hasError(ClientHttpResponse response) {
+            return false;
+        }
+
+        @Override
+        public void handleError(ClientHttpResponse response) {
+        }
+    }
+}
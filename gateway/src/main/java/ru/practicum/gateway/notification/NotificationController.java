@@ -0,0 +1,24 @@
+package ru.practicum.gateway.notification;
+
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+@RestController
+@RequestMapping(path = "/events")
+@RequiredArgsConstructor
+public class NotificationController {
+
+    private final NotificationClient notificationClient;
+
+    @GetMapping
+    public StreamingResponseBody subscribe(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                           @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+                                           HttpServletResponse response) {
+        return out -> notificationClient.subscribe(userId, lastEventId, response);
+    }
+}
@@ -0,0 +1,23 @@
+package ru.practicum.gateway.notification;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * SSE-подписка проксируется асинхронно: поток Tomcat сразу освобождается, а копирование потока
+ * сервера на все время соединения идет на виртуальном потоке. Срок жизни подписки задает сервер,
+ * поэтому у асинхронных запросов шлюза своего тайм-аута нет. Остальные запросы шлюза синхронные
+ * и идут на обычных потоках Tomcat.
+ */
+@Configuration
+public class NotificationStreamConfig implements WebMvcConfigurer {
+    private static final long NO_TIMEOUT = -1;
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(new VirtualThreadTaskExecutor("sse-proxy-"));
+        configurer.setDefaultTimeout(NO_TIMEOUT);
+    }
+}
@@ -1,5 +1,6 @@
 package ru.practicum.gateway.request;
 
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
@@ -10,6 +11,10 @@ import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.gateway.client.BaseClient;
 import ru.practicum.gateway.request.dto.ItemRequestDto;
 
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
 @Service
 public class ItemRequestClient extends BaseClient {
     private static final String API_PREFIX = "/requests";
@@ -32,11 +37,26 @@ public class ItemRequestClient extends BaseClient {
         return get("", userId);
     }
 
+    public void streamOwn(Long userId, HttpServletResponse response) throws IOException {
+        stream("?stream=true", userId, Map.of(), response);
+    }
+
+    public void streamAll(Long userId, HttpServletResponse response) throws IOException {
+        stream("/all?stream=true", userId, Map.of(), response);
+    }
+
     public ResponseEntity<Object> getById(Long userId, Long requestId) {
         return get("/" + requestId, userId);
     }
 
-    public ResponseEntity<Object> getAll(Long userId) {
-        return get("/all", userId);
+    public ResponseEntity<Object> getAll(Long userId, Integer from, Integer size, Long afterId) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("from", from);
+        parameters.put("size", size);
+        if (afterId == null) {
+            return get("/all?from={from}&size={size}", userId, parameters);
+        }
+        parameters.put("afterId", afterId);
+        return get("/all?from={from}&size={size}&afterId={afterId}", userId, parameters);
     }
 }
@@ -1,14 +1,21 @@
 package ru.practicum.gateway.request;
 
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.gateway.request.dto.ItemRequestDto;
 
+import java.io.IOException;
+
 @RestController
 @RequestMapping(path = "/requests")
 @RequiredArgsConstructor
+@Validated
 public class ItemRequestController {
 
     private final ItemRequestClient itemRequestClient;
@@ -25,8 +32,23 @@ public class ItemRequestController {
     }
 
     @GetMapping("/all")
-    public ResponseEntity<Object> getAll(@RequestHeader("X-Sharer-User-Id") Long userId) {
-        return itemRequestClient.getAll(userId);
+    public ResponseEntity<Object> getAll(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                         @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
+                                         @Positive @RequestParam(name = "size", defaultValue = "10") Integer size,
+                                         @RequestParam(name = "afterId", required = false) Long afterId) {
+        return itemRequestClient.getAll(userId, from, size, afterId);
+    }
+
+    @GetMapping(params = "stream=true")
+    public void streamOwn(@RequestHeader("X-Sharer-User-Id") Long userId,
+                          HttpServletResponse response) throws IOException {
+        itemRequestClient.streamOwn(userId, response);
+    }
+
+    @GetMapping(path = "/all", params = "stream=true")
+    public void streamAll(@RequestHeader("X-Sharer-User-Id") Long userId,
+                          HttpServletResponse response) throws IOException {
+        itemRequestClient.streamAll(userId, response);
     }
 
     @GetMapping("/{requestId}")
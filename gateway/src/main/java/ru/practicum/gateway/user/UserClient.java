@@ -28,7 +28,7 @@ public class UserClient extends BaseClient {
         return post("", userRequestDto);
     }
 
-    public ResponseEntity<Object> updateUserById(Long id, UserRequestDto userRequestDto) {
+    public ResponseEntity<Object> updateUserById(Long id, UserRequestDto userRequestDto, String ifMatch) {
         String name = userRequestDto.getName();
         String email = userRequestDto.getEmail();
 
@@ -38,7 +38,7 @@ public class UserClient extends BaseClient {
                     .body("Требуется минимум один аргумент: name или email");
         }
 
-        return patch("/" + id, id, userRequestDto);
+        return patchIfMatch("/" + id, id, userRequestDto, ifMatch);
     }
 
     public ResponseEntity<Object> getUserById(Long userId) {
@@ -2,6 +2,7 @@ package ru.practicum.gateway.user;
 
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.gateway.user.dto.UserRequestDto;
@@ -21,8 +22,10 @@ public class UserController {
     }
 
     @PatchMapping("/{id}")
-    public ResponseEntity<Object> update(@PathVariable long id, @RequestBody UserRequestDto userDto) {
-        return userClient.updateUserById(id, userDto);
+    public ResponseEntity<Object> update(@PathVariable long id,
+                                         @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                         @RequestBody UserRequestDto userDto) {
+        return userClient.updateUserById(id, userDto, ifMatch);
     }
 
     @GetMapping("/{id}")
@@ -1,11 +1,18 @@
 package ru.practicum.server.booking.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.server.booking.dto.BookingCountsDto;
 import ru.practicum.server.booking.dto.BookingDto;
 import ru.practicum.server.booking.dto.BookingRequest;
+import ru.practicum.server.booking.dto.BulkRespondRequest;
+import ru.practicum.server.booking.dto.BulkRespondResult;
 import ru.practicum.server.booking.service.BookingService;
+import ru.practicum.server.common.JsonStreamWriter;
 
+import java.io.IOException;
 import java.util.List;
 
 /**
@@ -16,6 +23,7 @@ import java.util.List;
 @RequestMapping(path = "/bookings")
 public class BookingController {
     private final BookingService bookingService;
+    private final ObjectMapper objectMapper;
 
     @PostMapping
     public BookingDto createBooking(@RequestBody BookingRequest bookingRequest,
@@ -30,6 +38,13 @@ public class BookingController {
         return bookingService.respond(bookingId, approved, ownerId);
     }
 
+    @PatchMapping("/bulk")
+    public List<BulkRespondResult> respondToBookings(@RequestBody BulkRespondRequest request,
+                                                     @RequestParam(name = "approved") Boolean approved,
+                                                     @RequestHeader("X-Sharer-User-Id") Long ownerId) {
+        return bookingService.respondAll(request, approved, ownerId);
+    }
+
     @GetMapping("/{bookingId}")
     public BookingDto getBookingByBooker(@PathVariable Long bookingId,
                                          @RequestHeader("X-Sharer-User-Id") Long bookerId) {
@@ -49,4 +64,32 @@ public class BookingController {
             @RequestParam(defaultValue = "ALL") String state) {
         return bookingService.getAllBookingsOfOwner(ownerId, state);
     }
+
+    @GetMapping("/counts")
+    public BookingCountsDto countBookingsOfUser(@RequestHeader("X-Sharer-User-Id") Long userId) {
+        return bookingService.countBookingsOfUser(userId);
+    }
+
+    @GetMapping("/owner/counts")
+    public BookingCountsDto countForOwner(@RequestHeader("X-Sharer-User-Id") Long ownerId) {
+        return bookingService.countBookingsOfOwner(ownerId);
+    }
+
+    @GetMapping(params = "stream=true")
+    public void streamAllBookingsOfUser(
+            @RequestHeader("X-Sharer-User-Id") Long userId,
+            @RequestParam(defaultValue = "ALL") String state,
+            HttpServletResponse response) throws IOException {
+        JsonStreamWriter.<BookingDto>writeArray(objectMapper, response,
+                sink -> bookingService.streamAllBookingsOfUser(userId, state, sink));
+    }
+
+    @GetMapping(path = "/owner", params = "stream=true")
+    public void streamForOwner(
+            @RequestHeader("X-Sharer-User-Id") Long ownerId,
+            @RequestParam(defaultValue = "ALL") String state,
+            HttpServletResponse response) throws IOException {
+        JsonStreamWriter.<BookingDto>writeArray(objectMapper, response,
+                sink -> bookingService.streamAllBookingsOfOwner(ownerId, state, sink));
+    }
 }
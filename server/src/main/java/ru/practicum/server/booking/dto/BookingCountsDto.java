@@ -0,0 +1,21 @@
+package ru.practicum.server.booking.dto;
+
+import lombok.*;
+
+/**
+ * Число броней пользователя в каждом из состояний выдачи /bookings?state=...
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BookingCountsDto {
+    private Long all;
+    private Long current;
+    private Long past;
+    private Long future;
+    private Long waiting;
+    private Long rejected;
+    private Long expired;
+}
@@ -0,0 +1,18 @@
+package ru.practicum.server.booking.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * Брони для массового ответа: явный список id или все WAITING-брони вещи itemId.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BulkRespondRequest {
+    private List<Long> bookingIds;
+    private Long itemId;
+}
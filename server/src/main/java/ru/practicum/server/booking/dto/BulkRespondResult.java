@@ -0,0 +1,22 @@
+package ru.practicum.server.booking.dto;
+
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BulkRespondResult {
+    private Long bookingId;
+    private Outcome outcome;
+
+    public enum Outcome {
+        APPROVED,
+        REJECTED,
+        NOT_FOUND,
+        NOT_OWNER,
+        NOT_WAITING,
+        OVERLAP
+    }
+}
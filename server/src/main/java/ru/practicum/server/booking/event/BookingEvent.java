@@ -0,0 +1,33 @@
+package ru.practicum.server.booking.event;
+
+import ru.practicum.server.booking.model.Booking;
+import ru.practicum.server.booking.model.BookingStatus;
+
+import java.time.LocalDateTime;
+
+public record BookingEvent(Type type,
+                           Long bookingId,
+                           Long itemId,
+                           Long ownerId,
+                           Long bookerId,
+                           LocalDateTime start,
+                           LocalDateTime end,
+                           BookingStatus status) {
+
+    public enum Type {
+        CREATED,
+        APPROVED,
+        REJECTED
+    }
+
+    public static BookingEvent of(Type type, Booking booking) {
+        return new BookingEvent(type,
+                booking.getId(),
+                booking.getItem().getId(),
+                booking.getItem().getOwner().getId(),
+                booking.getBooker().getId(),
+                booking.getStart(),
+                booking.getEnd(),
+                booking.getStatus());
+    }
+}
@@ -0,0 +1,9 @@
+package ru.practicum.server.booking.event;
+
+import java.util.List;
+
+/**
+ * Пачка броней, удаленных в обход JPA (UserDeletionPipeline); по ней брони убираются из календаря занятости.
+ */
+public record BookingsDeletedEvent(List<Long> bookingIds) {
+}
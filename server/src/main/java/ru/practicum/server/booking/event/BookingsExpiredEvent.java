@@ -0,0 +1,9 @@
+package ru.practicum.server.booking.event;
+
+import java.util.List;
+
+/**
+ * Пачка WAITING-броней, которые BookingExpiryJob перевел в EXPIRED.
+ */
+public record BookingsExpiredEvent(List<Long> bookingIds) {
+}
@@ -0,0 +1,57 @@
+package ru.practicum.server.booking.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import ru.practicum.server.item.model.Item;
+import ru.practicum.server.user.model.User;
+
+import java.time.LocalDateTime;
+
+/**
+ * Бронь, перенесенная из bookings в архив после окончания срока хранения в горячей таблице.
+ * Id сохраняется прежним.
+ */
+@Builder
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "bookings_archive")
+public class ArchivedBooking {
+
+    @Id
+    private Long id;
+
+    @Column(name = "start_at", nullable = false)
+    private LocalDateTime start;
+
+    @Column(name = "end_at", nullable = false)
+    private LocalDateTime end;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "item_id", nullable = false)
+    private Item item;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "booker_id", nullable = false)
+    private User booker;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private BookingStatus status;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+
+    public Booking toBooking() {
+        return Booking.builder()
+                .id(id)
+                .start(start)
+                .end(end)
+                .item(item)
+                .booker(booker)
+                .status(status)
+                .build();
+    }
+}
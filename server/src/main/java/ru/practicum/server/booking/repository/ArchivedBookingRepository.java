@@ -0,0 +1,82 @@
+package ru.practicum.server.booking.repository;
+
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import ru.practicum.server.booking.model.ArchivedBooking;
+import ru.practicum.server.booking.model.BookingStatus;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+import static ru.practicum.server.booking.repository.BookingRepository.STREAM_FETCH_SIZE;
+
+/**
+ * Архив броней. Все брони здесь уже закончились, поэтому для состояния PAST подходят все строки.
+ */
+public interface ArchivedBookingRepository extends JpaRepository<ArchivedBooking, Long> {
+
+    /**
+     * Копирует брони из горячей таблицы в архив; удалять их из bookings нужно в той же транзакции.
+     */
+    @Modifying
+    @Query(value = "insert into bookings_archive (id, start_at, end_at, item_id, booker_id, status, archived_at) "
+            + "select id, start_at, end_at, item_id, booker_id, status, current_timestamp "
+            + "from bookings where id in (:ids)", nativeQuery = true)
+    int copyFromBookings(@Param("ids") Collection<Long> ids);
+
+    boolean existsByBooker_IdAndItem_IdAndStatus(Long bookerId, Long itemId, BookingStatus status);
+
+    List<ArchivedBooking> findTop1ByItem_IdOrderByStartDesc(Long itemId);
+
+    /**
+     * Последняя бронь со статусом status по каждой из вещей.
+     */
+    @Query("select a from ArchivedBooking a where a.item.id in :itemIds and a.status = :status "
+            + "and a.start = (select max(a2.start) from ArchivedBooking a2 "
+            + "where a2.item.id = a.item.id and a2.status = :status)")
+    List<ArchivedBooking> findLatestByItemIdInAndStatus(@Param("itemIds") Collection<Long> itemIds,
+                                                        @Param("status") BookingStatus status);
+
+    @Query("select distinct a.booker.id as bookerId, a.item.id as itemId from ArchivedBooking a "
+            + "where a.status = :status")
+    List<BookerItem> findBookerItemsByStatus(@Param("status") BookingStatus status);
+
+    @Query("select a.status as status, count(a) as total from ArchivedBooking a "
+            + "where a.booker.id = :bookerId group by a.status")
+    List<StatusCount> countByBookerGroupByStatus(@Param("bookerId") Long bookerId);
+
+    @Query("select a.status as status, count(a) as total from ArchivedBooking a "
+            + "where a.item.owner.id = :ownerId group by a.status")
+    List<StatusCount> countByOwnerGroupByStatus(@Param("ownerId") Long ownerId);
+
+    // Booker
+
+    List<ArchivedBooking> findAllByBooker_IdOrderByStartDesc(Long bookerId);
+
+    List<ArchivedBooking> findAllByBooker_IdAndStatusOrderByStartDesc(Long bookerId, BookingStatus status);
+
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    Stream<ArchivedBooking> streamAllByBooker_IdOrderByStartDesc(Long bookerId);
+
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    Stream<ArchivedBooking> streamAllByBooker_IdAndStatusOrderByStartDesc(Long bookerId, BookingStatus status);
+
+    // Owner
+
+    List<ArchivedBooking> findAllByItem_Owner_IdOrderByStartDesc(Long ownerId);
+
+    List<ArchivedBooking> findAllByItem_Owner_IdAndStatusOrderByStartDesc(Long ownerId, BookingStatus status);
+
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    Stream<ArchivedBooking> streamAllByItem_Owner_IdOrderByStartDesc(Long ownerId);
+
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    Stream<ArchivedBooking> streamAllByItem_Owner_IdAndStatusOrderByStartDesc(Long ownerId, BookingStatus status);
+}
@@ -0,0 +1,7 @@
+package ru.practicum.server.booking.repository;
+
+public interface BookerItem {
+    Long getBookerId();
+
+    Long getItemId();
+}
@@ -1,13 +1,112 @@
 package ru.practicum.server.booking.repository;
 
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import ru.practicum.server.booking.dto.BookingCountsDto;
 import ru.practicum.server.booking.model.Booking;
 import ru.practicum.server.booking.model.BookingStatus;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 public interface BookingRepository extends JpaRepository<Booking, Long> {
+    String STREAM_FETCH_SIZE = "100";
+
+    /**
+     * Условный переход статуса одним UPDATE: срабатывает, только если бронь в одном из статусов sources
+     * и вещь принадлежит ownerId. Возвращает число измененных строк (0 или 1).
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Booking b set b.status = :target "
+            + "where b.id = :id and b.status in :sources "
+            + "and b.item.id in (select i.id from Item i where i.owner.id = :ownerId)")
+    int transition(@Param("id") Long id,
+                   @Param("ownerId") Long ownerId,
+                   @Param("sources") Collection<BookingStatus> sources,
+                   @Param("target") BookingStatus target);
+
+    /**
+     * Условный переход пачки броней без проверки владельца — для системных заданий.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Booking b set b.status = :target where b.id in :ids and b.status in :sources")
+    int transitionAll(@Param("ids") Collection<Long> ids,
+                      @Param("sources") Collection<BookingStatus> sources,
+                      @Param("target") BookingStatus target);
+
+    /**
+     * Тот же условный переход для пачки броней владельца: проверка владельца, как в transition, — в самом UPDATE.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Booking b set b.status = :target "
+            + "where b.id in :ids and b.status in :sources "
+            + "and b.item.id in (select i.id from Item i where i.owner.id = :ownerId)")
+    int transitionAllOfOwner(@Param("ids") Collection<Long> ids,
+                             @Param("ownerId") Long ownerId,
+                             @Param("sources") Collection<BookingStatus> sources,
+                             @Param("target") BookingStatus target);
+
+    @Query("select b.id from Booking b where b.status = :status and b.start < :startBefore order by b.start")
+    List<Long> findIdsByStatusAndStartBefore(@Param("status") BookingStatus status,
+                                             @Param("startBefore") LocalDateTime startBefore,
+                                             Pageable pageable);
+
+    @Query("select b.id from Booking b where b.end < :endBefore and b.status <> :status order by b.end")
+    List<Long> findIdsByEndBeforeAndStatusNot(@Param("endBefore") LocalDateTime endBefore,
+                                              @Param("status") BookingStatus status,
+                                              Pageable pageable);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from Booking b where b.id in :ids")
+    int deleteAllByIdIn(@Param("ids") Collection<Long> ids);
+
+    Optional<Booking> findFirstByStatusAndStartBeforeOrderByStartAsc(BookingStatus status, LocalDateTime startBefore);
+
+    @Query("select b from Booking b join fetch b.item where b.id in :ids")
+    List<Booking> findAllWithItemByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("select b from Booking b join fetch b.item i where i.id = :itemId and b.status = :status order by b.start")
+    List<Booking> findAllWithItemByItemIdAndStatus(@Param("itemId") Long itemId, @Param("status") BookingStatus status);
+
+    String COUNTS = "select new ru.practicum.server.booking.dto.BookingCountsDto(count(b), "
+            + "coalesce(sum(case when b.start < :now and b.end > :now then 1L else 0L end), 0L), "
+            + "coalesce(sum(case when b.end < :now then 1L else 0L end), 0L), "
+            + "coalesce(sum(case when b.start > :now then 1L else 0L end), 0L), "
+            + "coalesce(sum(case when b.status = ru.practicum.server.booking.model.BookingStatus.WAITING then 1L else 0L end), 0L), "
+            + "coalesce(sum(case when b.status = ru.practicum.server.booking.model.BookingStatus.REJECTED then 1L else 0L end), 0L), "
+            + "coalesce(sum(case when b.status = ru.practicum.server.booking.model.BookingStatus.EXPIRED then 1L else 0L end), 0L)) "
+            + "from Booking b ";
+
+    /**
+     * Все счетчики горячей таблицы одним проходом по броням арендатора.
+     */
+    @Query(COUNTS + "where b.booker.id = :bookerId")
+    BookingCountsDto countByBooker(@Param("bookerId") Long bookerId, @Param("now") LocalDateTime now);
+
+    @Query(COUNTS + "where b.item.owner.id = :ownerId")
+    BookingCountsDto countByOwner(@Param("ownerId") Long ownerId, @Param("now") LocalDateTime now);
+
+    @Query("select b from Booking b join fetch b.item where b.status in :statuses and b.end > :endAfter")
+    List<Booking> findAllWithItemByStatusInAndEndAfter(@Param("statuses") Collection<BookingStatus> statuses,
+                                                       @Param("endAfter") LocalDateTime endAfter);
+
+    @Query("select b.id from Booking b where b.id in :ids and b.status = :status")
+    List<Long> findIdsByIdInAndStatus(@Param("ids") Collection<Long> ids, @Param("status") BookingStatus status);
+
+    List<Booking> findAllByItem_IdInAndStatusAndStartBeforeAndEndAfter(Collection<Long> itemIds, BookingStatus status,
+                                                                       LocalDateTime startBefore, LocalDateTime endAfter);
+
     boolean existsByBooker_IdAndItem_IdAndStatusAndEndBefore(Long bookerId, Long itemId, BookingStatus status, LocalDateTime endBefore);
 
     List<Booking> findAllByBookerId(Long userId);
@@ -43,4 +142,47 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
     List<Booking> findAllByItem_Owner_IdAndStartAfterOrderByStartDesc(Long ownerId, LocalDateTime startAfter);
 
     List<Booking> findAllByItem_Owner_IdAndStatusOrderByStartDesc(Long ownerId, BookingStatus status);
+
+    // Streaming (курсор по результату, используется в потоковой выдаче списков)
+
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    Stream<Booking> streamAllByBookerIdOrderByStartDesc(Long userId);
+
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    Stream<Booking> streamAllByBookerIdAndStartBeforeAndEndAfterOrderByStartDesc(Long userId, LocalDateTime startBefore, LocalDateTime endAfter);
+
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    Stream<Booking> streamAllByBookerIdAndEndBeforeOrderByStartDesc(Long userId, LocalDateTime endBefore);
+
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    Stream<Booking> streamAllByBookerIdAndStartAfterOrderByStartDesc(Long userId, LocalDateTime startAfter);
+
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    Stream<Booking> streamAllByBookerIdAndStatusOrderByStartDesc(Long userId, BookingStatus status);
+
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    Stream<Booking> streamAllByItem_Owner_IdOrderByStartDesc(Long ownerId);
+
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    Stream<Booking> streamAllByItem_Owner_IdAndStartBeforeAndEndAfterOrderByStartDesc(Long ownerId, LocalDateTime startBefore, LocalDateTime endAfter);
+
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    Stream<Booking> streamAllByItem_Owner_IdAndEndBeforeOrderByStartDesc(Long ownerId, LocalDateTime endBefore);
+
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    Stream<Booking> streamAllByItem_Owner_IdAndStartAfterOrderByStartDesc(Long ownerId, LocalDateTime startAfter);
+
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    Stream<Booking> streamAllByItem_Owner_IdAndStatusOrderByStartDesc(Long ownerId, BookingStatus status);
+
+    @Query("select distinct b.booker.id as bookerId, b.item.id as itemId from Booking b "
+            + "where b.status = :status and b.end < :before")
+    List<BookerItem> findBookerItemsByStatusAndEndBefore(@Param("status") BookingStatus status,
+                                                         @Param("before") LocalDateTime before);
+
+    @Query("select distinct b.booker.id as bookerId, b.item.id as itemId from Booking b "
+            + "where b.status = :status and b.end >= :from and b.end < :before")
+    List<BookerItem> findBookerItemsByStatusAndEndBetween(@Param("status") BookingStatus status,
+                                                          @Param("from") LocalDateTime from,
+                                                          @Param("before") LocalDateTime before);
 }
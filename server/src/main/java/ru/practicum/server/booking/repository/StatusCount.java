@@ -0,0 +1,9 @@
+package ru.practicum.server.booking.repository;
+
+import ru.practicum.server.booking.model.BookingStatus;
+
+public interface StatusCount {
+    BookingStatus getStatus();
+
+    long getTotal();
+}
@@ -0,0 +1,409 @@
+package ru.practicum.server.booking.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.server.booking.event.BookingEvent;
+import ru.practicum.server.booking.event.BookingsDeletedEvent;
+import ru.practicum.server.booking.event.BookingsExpiredEvent;
+import ru.practicum.server.booking.model.Booking;
+import ru.practicum.server.booking.model.BookingStatus;
+import ru.practicum.server.booking.repository.BookingRepository;
+import ru.practicum.server.common.ItemBits;
+import ru.practicum.server.item.dto.AvailabilityDto;
+import ru.practicum.server.item.event.ItemsDeletedEvent;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Календарь занятости вещей с точностью до дня.
+ * Для каждой вещи хранятся два битмапа по дням (одобренные и ожидающие брони) блоками по 512 дней,
+ * плюс интервалы самих активных броней: при отмене или отклонении брони перекрашиваются только
+ * ее дни, с учетом других броней, которые их задевают. Индекс прогревается при создании бина
+ * незакончившимися WAITING/APPROVED бронями — до того, как веб-сервер и задания начнут менять брони,
+ * поэтому снимок не может затереть более позднее событие, — и дальше обновляется событиями после
+ * коммита, так что запрос календаря не ходит в bookings. Индекс локален для узла.
+ * Дополнительно для каждого дня из окна [сегодня, сегодня + day-index-days] хранится BitSet id вещей,
+ * занятых в этот день: поиск свободных на период вещей объединяет битмапы дней периода вместо
+ * запросов по каждой вещи. Окно ограничивает работу на бронь в несколько лет; дни вне окна
+ * и вещи с id вне int проверяются по календарям, целыми словами битмапов.
+ */
+@Slf4j
+@Component
+public class AvailabilityIndex {
+    private static final EnumSet<BookingStatus> ACTIVE = EnumSet.of(BookingStatus.WAITING, BookingStatus.APPROVED);
+
+    private final BookingRepository bookingRepository;
+    private final int dayIndexDays;
+
+    private final Map<Long, ItemCalendar> calendars = new ConcurrentHashMap<>();
+    private final Map<Long, Long> itemByBooking = new ConcurrentHashMap<>();
+    private final Map<Long, BitSet> itemsByDay = new ConcurrentHashMap<>();
+    private volatile long indexedFrom;
+    private volatile long indexedUntil;
+
+    public AvailabilityIndex(BookingRepository bookingRepository,
+                             @Value("${shareit.availability.day-index-days:400}") int dayIndexDays) {
+        this.bookingRepository = bookingRepository;
+        this.dayIndexDays = dayIndexDays;
+        this.indexedFrom = LocalDate.now().toEpochDay();
+        this.indexedUntil = indexedFrom + dayIndexDays;
+    }
+
+    @PostConstruct
+    public void warmUp() {
+        List<Booking> active = bookingRepository.findAllWithItemByStatusInAndEndAfter(
+                ACTIVE, LocalDate.now().atStartOfDay());
+        for (Booking booking : active) {
+            if (itemByBooking.putIfAbsent(booking.getId(), booking.getItem().getId()) == null) {
+                put(booking.getItem().getId(), booking.getId(),
+                        Slot.of(booking.getStart(), booking.getEnd(), booking.getStatus()));
+            }
+        }
+        log.info("Календарь занятости построен, вещей={}, броней={}", calendars.size(), itemByBooking.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBooking(BookingEvent event) {
+        if (ACTIVE.contains(event.status())) {
+            itemByBooking.put(event.bookingId(), event.itemId());
+            put(event.itemId(), event.bookingId(), Slot.of(event.start(), event.end(), event.status()));
+        } else {
+            remove(event.bookingId(), false);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onExpired(BookingsExpiredEvent event) {
+        event.bookingIds().forEach(id -> remove(id, true));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDeleted(BookingsDeletedEvent event) {
+        event.bookingIds().forEach(id -> remove(id, false));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemsDeleted(ItemsDeletedEvent event) {
+        for (Long itemId : event.itemIds()) {
+            ItemCalendar calendar = calendars.get(itemId);
+            if (calendar != null) {
+                calendar.bookingIds().forEach(id -> remove(id, false));
+            }
+        }
+    }
+
+    /**
+     * Отрезки одинакового состояния на днях [from, to].
+     */
+    public List<AvailabilityDto.Interval> intervals(long itemId, LocalDate from, LocalDate to) {
+        ItemCalendar calendar = calendars.get(itemId);
+        if (calendar == null) {
+            return List.of(new AvailabilityDto.Interval(from, to, AvailabilityDto.DayState.FREE));
+        }
+        return calendar.intervals(from.toEpochDay(), to.toEpochDay());
+    }
+
+    /**
+     * Вещи, у которых хотя бы один день периода [from, to] занят ожидающей или одобренной бронью.
+     * Индекс битмапа — id вещи; вещи с id вне int сюда не попадают, для них есть isOccupied.
+     */
+    public BitSet occupiedItems(LocalDate from, LocalDate to) {
+        long first = from.toEpochDay();
+        long last = to.toEpochDay();
+        long indexFirst = Math.max(first, indexedFrom);
+        long indexLast = Math.min(last, indexedUntil);
+        BitSet occupied = new BitSet();
+        for (long day = indexFirst; day <= indexLast; day++) {
+            itemsByDay.computeIfPresent(day, (k, items) -> {
+                occupied.or(items);
+                return items;
+            });
+        }
+        if (first < indexFirst || last > indexLast) {
+            calendars.forEach((itemId, calendar) -> {
+                if (ItemBits.fits(itemId) && !occupied.get((int) (long) itemId)
+                        && (first < indexFirst && calendar.occupied(first, Math.min(last, indexFirst - 1))
+                        || last > indexLast && calendar.occupied(Math.max(first, indexLast + 1), last))) {
+                    occupied.set((int) (long) itemId);
+                }
+            });
+        }
+        return occupied;
+    }
+
+    public boolean isOccupied(long itemId, LocalDate from, LocalDate to) {
+        ItemCalendar calendar = calendars.get(itemId);
+        return calendar != null && calendar.occupied(from.toEpochDay(), to.toEpochDay());
+    }
+
+    /**
+     * Забывает брони, которые уже закончились.
+     */
+    @Scheduled(cron = "${shareit.availability.prune-cron:0 0 3 * * *}")
+    public void prune() {
+        long today = LocalDate.now().toEpochDay();
+        long previousUntil = indexedUntil;
+        // Сначала сдвигаем окно: repaint после этой строки уже пишет новые дни сам.
+        indexedFrom = today;
+        indexedUntil = today + dayIndexDays;
+        for (Long itemId : calendars.keySet()) {
+            calendars.computeIfPresent(itemId, (k, calendar) -> {
+                calendar.pruneBefore(today).forEach(itemByBooking::remove);
+                calendar.indexDays(Math.max(today, previousUntil + 1), indexedUntil);
+                return calendar.isEmpty() ? null : calendar;
+            });
+        }
+        itemsByDay.keySet().removeIf(day -> day < today);
+    }
+
+    /**
+     * Календари меняются внутри compute, чтобы prune не выбросил календарь, в который сейчас пишут.
+     */
+    private void put(long itemId, long bookingId, Slot slot) {
+        calendars.compute(itemId, (k, calendar) -> {
+            ItemCalendar target = calendar != null ? calendar : new ItemCalendar(itemId);
+            target.put(bookingId, slot);
+            return target;
+        });
+    }
+
+    private void remove(long bookingId, boolean onlyPending) {
+        Long itemId = itemByBooking.get(bookingId);
+        if (itemId == null) {
+            return;
+        }
+        boolean[] removed = {true};
+        calendars.computeIfPresent(itemId, (k, calendar) -> {
+            removed[0] = calendar.remove(bookingId, onlyPending);
+            return calendar.isEmpty() ? null : calendar;
+        });
+        if (removed[0]) {
+            itemByBooking.remove(bookingId);
+        }
+    }
+
+    /**
+     * Дни брони в epoch day, обе границы включительно. Бронь, заканчивающаяся ровно в полночь,
+     * следующий день не занимает.
+     */
+    private record Slot(long first, long last, boolean approved) {
+        static Slot of(LocalDateTime start, LocalDateTime end, BookingStatus status) {
+            long first = start.toLocalDate().toEpochDay();
+            long last = Math.max(first, end.minusNanos(1).toLocalDate().toEpochDay());
+            return new Slot(first, last, status == BookingStatus.APPROVED);
+        }
+    }
+
+    /**
+     * Переносит состояние дней [first, last] календаря в itemsByDay, только в пределах окна.
+     */
+    private void markDays(long itemId, long first, long last, ItemCalendar calendar) {
+        if (!ItemBits.fits(itemId)) {
+            return;
+        }
+        int bit = (int) itemId;
+        for (long day = Math.max(first, indexedFrom); day <= Math.min(last, indexedUntil); day++) {
+            boolean occupied = calendar.state(day) != AvailabilityDto.DayState.FREE;
+            itemsByDay.compute(day, (k, items) -> {
+                if (occupied) {
+                    BitSet target = items != null ? items : new BitSet();
+                    target.set(bit);
+                    return target;
+                }
+                if (items == null) {
+                    return null;
+                }
+                items.clear(bit);
+                return items.isEmpty() ? null : items;
+            });
+        }
+    }
+
+    private final class ItemCalendar {
+        private final long itemId;
+        private final Map<Long, Slot> slots = new HashMap<>();
+        private final DayBitmap busy = new DayBitmap();
+        private final DayBitmap pending = new DayBitmap();
+
+        private ItemCalendar(long itemId) {
+            this.itemId = itemId;
+        }
+
+        synchronized void put(long bookingId, Slot slot) {
+            Slot old = slots.put(bookingId, slot);
+            if (old != null) {
+                repaint(old.first(), old.last());
+            }
+            repaint(slot.first(), slot.last());
+        }
+
+        /**
+         * false, если бронь осталась: onlyPending и она уже одобрена.
+         */
+        synchronized boolean remove(long bookingId, boolean onlyPending) {
+            Slot old = slots.get(bookingId);
+            if (old == null) {
+                return true;
+            }
+            if (onlyPending && old.approved()) {
+                return false;
+            }
+            slots.remove(bookingId);
+            repaint(old.first(), old.last());
+            return true;
+        }
+
+        synchronized List<Long> bookingIds() {
+            return List.copyOf(slots.keySet());
+        }
+
+        synchronized List<Long> pruneBefore(long day) {
+            List<Long> removed = new ArrayList<>();
+            slots.entrySet().removeIf(entry -> {
+                if (entry.getValue().last() < day) {
+                    removed.add(entry.getKey());
+                    return true;
+                }
+                return false;
+            });
+            busy.dropBlocksBefore(day);
+            pending.dropBlocksBefore(day);
+            return removed;
+        }
+
+        synchronized boolean occupied(long first, long last) {
+            return busy.any(first, last) || pending.any(first, last);
+        }
+
+        synchronized void indexDays(long first, long last) {
+            markDays(itemId, first, last, this);
+        }
+
+        synchronized boolean isEmpty() {
+            return slots.isEmpty();
+        }
+
+        synchronized List<AvailabilityDto.Interval> intervals(long from, long to) {
+            List<AvailabilityDto.Interval> result = new ArrayList<>();
+            long runStart = from;
+            AvailabilityDto.DayState runState = state(from);
+            for (long day = from + 1; day <= to; day++) {
+                AvailabilityDto.DayState state = state(day);
+                if (state != runState) {
+                    result.add(interval(runStart, day - 1, runState));
+                    runStart = day;
+                    runState = state;
+                }
+            }
+            result.add(interval(runStart, to, runState));
+            return result;
+        }
+
+        private AvailabilityDto.DayState state(long day) {
+            if (busy.get(day)) {
+                return AvailabilityDto.DayState.BUSY;
+            }
+            return pending.get(day) ? AvailabilityDto.DayState.PENDING : AvailabilityDto.DayState.FREE;
+        }
+
+        private void repaint(long first, long last) {
+            busy.clear(first, last);
+            pending.clear(first, last);
+            for (Slot slot : slots.values()) {
+                long from = Math.max(first, slot.first());
+                long to = Math.min(last, slot.last());
+                if (from <= to) {
+                    (slot.approved() ? busy : pending).set(from, to);
+                }
+            }
+            markDays(itemId, first, last, this);
+        }
+
+        private static AvailabilityDto.Interval interval(long from, long to, AvailabilityDto.DayState state) {
+            return new AvailabilityDto.Interval(LocalDate.ofEpochDay(from), LocalDate.ofEpochDay(to), state);
+        }
+    }
+
+    /**
+     * Битмап по epoch day: блоки по 512 дней (8 long) создаются по мере надобности.
+     */
+    private static final class DayBitmap {
+        private static final int BLOCK_SHIFT = 9;
+        private static final int BLOCK_WORDS = (1 << BLOCK_SHIFT) / Long.SIZE;
+
+        private final Map<Long, long[]> blocks = new HashMap<>();
+
+        boolean get(long day) {
+            long[] block = blocks.get(day >> BLOCK_SHIFT);
+            if (block == null) {
+                return false;
+            }
+            int bit = (int) (day & ((1 << BLOCK_SHIFT) - 1));
+            return (block[bit >>> 6] & (1L << bit)) != 0;
+        }
+
+        void set(long first, long last) {
+            forWords(first, last, true, (words, word, mask) -> {
+                words[word] |= mask;
+                return false;
+            });
+        }
+
+        void clear(long first, long last) {
+            forWords(first, last, false, (words, word, mask) -> {
+                words[word] &= ~mask;
+                return false;
+            });
+        }
+
+        boolean any(long first, long last) {
+            return forWords(first, last, false, (words, word, mask) -> (words[word] & mask) != 0);
+        }
+
+        /**
+         * Обходит дни [first, last] словами по 64 дня: op получает слово блока и маску дней
+         * диапазона в нем. Обход прекращается, когда op вернет true; отсутствующие блоки
+         * создаются только при create.
+         */
+        private boolean forWords(long first, long last, boolean create, WordOp op) {
+            for (long key = first >> BLOCK_SHIFT; key <= last >> BLOCK_SHIFT; key++) {
+                long[] words = create ? blocks.computeIfAbsent(key, k -> new long[BLOCK_WORDS]) : blocks.get(key);
+                if (words == null) {
+                    continue;
+                }
+                long base = key << BLOCK_SHIFT;
+                int from = (int) (Math.max(first, base) - base);
+                int to = (int) (Math.min(last, base + (1 << BLOCK_SHIFT) - 1) - base);
+                for (int word = from >>> 6; word <= to >>> 6; word++) {
+                    int low = word == from >>> 6 ? from & 63 : 0;
+                    int high = word == to >>> 6 ? to & 63 : 63;
+                    if (op.apply(words, word, (-1L >>> (63 - high)) & (-1L << low))) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        void dropBlocksBefore(long day) {
+            blocks.keySet().removeIf(key -> key < day >> BLOCK_SHIFT);
+        }
+
+        @FunctionalInterface
+        private interface WordOp {
+            boolean apply(long[] words, int word, long mask);
+        }
+    }
+}
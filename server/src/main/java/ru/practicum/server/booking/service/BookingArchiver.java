@@ -0,0 +1,95 @@
+package ru.practicum.server.booking.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.server.booking.model.BookingStatus;
+import ru.practicum.server.booking.repository.ArchivedBookingRepository;
+import ru.practicum.server.booking.repository.BookingRepository;
+import ru.practicum.server.common.AdvisoryLock;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Переносит брони, закончившиеся больше retention-days дней назад, из bookings в bookings_archive.
+ * Горячая таблица остается маленькой, и запросы CURRENT/FUTURE/WAITING не трогают историю.
+ * WAITING-брони не переносятся: их сначала переводит в EXPIRED BookingExpiryJob.
+ * Каждая пачка копируется и удаляется в одной транзакции под AdvisoryLock.
+ */
+@Slf4j
+@Component
+public class BookingArchiver {
+    private final BookingRepository bookingRepository;
+    private final ArchivedBookingRepository archivedBookingRepository;
+    private final AdvisoryLock advisoryLock;
+    private final TransactionTemplate transactionTemplate;
+    private final int retentionDays;
+    private final int batchSize;
+    private final int maxBatches;
+
+    public BookingArchiver(BookingRepository bookingRepository,
+                           ArchivedBookingRepository archivedBookingRepository,
+                           AdvisoryLock advisoryLock,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${shareit.bookings.archive.retention-days:180}") int retentionDays,
+                           @Value("${shareit.bookings.archive.batch-size:1000}") int batchSize,
+                           @Value("${shareit.bookings.archive.max-batches:50}") int maxBatches) {
+        this.bookingRepository = bookingRepository;
+        this.archivedBookingRepository = archivedBookingRepository;
+        this.advisoryLock = advisoryLock;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.retentionDays = retentionDays;
+        this.batchSize = batchSize;
+        this.maxBatches = maxBatches;
+    }
+
+    @Scheduled(initialDelayString = "${shareit.bookings.archive.interval:3600000}",
+            fixedDelayString = "${shareit.bookings.archive.interval:3600000}")
+    public void scheduledArchive() {
+        archive();
+    }
+
+    /**
+     * Один проход; возвращает число перенесенных броней.
+     */
+    public int archive() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(retentionDays);
+        int total = 0;
+        for (int batch = 0; batch < maxBatches; batch++) {
+            Integer moved = transactionTemplate.execute(status -> archiveBatch(cutoff));
+            if (moved == null) {
+                log.debug("Архивация броней пропущена: лок у другого узла");
+                break;
+            }
+            total += moved;
+            if (moved < batchSize) {
+                break;
+            }
+        }
+        if (total > 0) {
+            log.info("Перенесено в архив броней: {}", total);
+        }
+        return total;
+    }
+
+    /**
+     * null, если пачку обрабатывает другой узел.
+     */
+    private Integer archiveBatch(LocalDateTime cutoff) {
+        if (!advisoryLock.tryLock(AdvisoryLock.BOOKING_ARCHIVE)) {
+            return null;
+        }
+        List<Long> ids = bookingRepository.findIdsByEndBeforeAndStatusNot(
+                cutoff, BookingStatus.WAITING, PageRequest.of(0, batchSize));
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        archivedBookingRepository.copyFromBookings(ids);
+        return bookingRepository.deleteAllByIdIn(ids);
+    }
+}
@@ -0,0 +1,143 @@
+package ru.practicum.server.booking.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.server.booking.event.BookingsExpiredEvent;
+import ru.practicum.server.booking.model.BookingStatus;
+import ru.practicum.server.booking.repository.BookingRepository;
+import ru.practicum.server.common.AdvisoryLock;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Переводит WAITING-брони, чье начало уже прошло, в EXPIRED.
+ * Работает пачками по batch-size id в отдельных коротких транзакциях с паузой между ними, за один запуск
+ * обрабатывает не больше max-batches пачек. Выборка идет по индексу (status, start_at).
+ * Каждая пачка берет AdvisoryLock: если лок у другого узла, запуск завершается.
+ */
+@Slf4j
+@Component
+public class BookingExpiryJob {
+    private final BookingRepository bookingRepository;
+    private final AdvisoryLock advisoryLock;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int batchSize;
+    private final int maxBatches;
+    private final long pauseMillis;
+
+    private final Counter expired;
+    private final Timer runs;
+    private final AtomicLong lagSeconds = new AtomicLong();
+
+    public BookingExpiryJob(BookingRepository bookingRepository,
+                            AdvisoryLock advisoryLock,
+                            PlatformTransactionManager transactionManager,
+                            MeterRegistry meterRegistry,
+                            ApplicationEventPublisher eventPublisher,
+                            @Value("${shareit.bookings.expiry.batch-size:500}") int batchSize,
+                            @Value("${shareit.bookings.expiry.max-batches:20}") int maxBatches,
+                            @Value("${shareit.bookings.expiry.pause:50}") long pauseMillis) {
+        this.bookingRepository = bookingRepository;
+        this.advisoryLock = advisoryLock;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.batchSize = batchSize;
+        this.maxBatches = maxBatches;
+        this.pauseMillis = pauseMillis;
+
+        this.expired = Counter.builder("shareit.bookings.expired")
+                .description("WAITING-брони, переведенные в EXPIRED")
+                .register(meterRegistry);
+        this.runs = Timer.builder("shareit.bookings.expiry.run")
+                .description("Длительность одного запуска")
+                .register(meterRegistry);
+        Gauge.builder("shareit.bookings.expiry.lag", lagSeconds, AtomicLong::get)
+                .description("Сколько секунд назад должна была истечь самая старая WAITING-бронь")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(initialDelayString = "${shareit.bookings.expiry.interval:60000}",
+            fixedDelayString = "${shareit.bookings.expiry.interval:60000}")
+    public void scheduledSweep() {
+        runs.record(this::sweep);
+    }
+
+    /**
+     * Один проход; возвращает число истекших броней.
+     */
+    public int sweep() {
+        LocalDateTime now = LocalDateTime.now();
+        int total = 0;
+        for (int batch = 0; batch < maxBatches; batch++) {
+            Batch result = transactionTemplate.execute(status -> expireBatch(now));
+            if (result == null) {
+                log.debug("Истечение броней пропущено: лок у другого узла");
+                break;
+            }
+            total += result.updated();
+            if (result.selected() < batchSize || !pause()) {
+                break;
+            }
+        }
+        updateLag(now);
+        if (total > 0) {
+            log.info("Истекло WAITING-броней: {}", total);
+        }
+        return total;
+    }
+
+    /**
+     * null, если пачку обрабатывает другой узел.
+     */
+    private Batch expireBatch(LocalDateTime now) {
+        if (!advisoryLock.tryLock(AdvisoryLock.BOOKING_EXPIRY)) {
+            return null;
+        }
+        List<Long> ids = bookingRepository.findIdsByStatusAndStartBefore(
+                BookingStatus.WAITING, now, PageRequest.of(0, batchSize));
+        if (ids.isEmpty()) {
+            return new Batch(0, 0);
+        }
+        int updated = bookingRepository.transitionAll(
+                ids, BookingStateMachine.sourcesOf(BookingStatus.EXPIRED), BookingStatus.EXPIRED);
+        expired.increment(updated);
+        if (updated > 0) {
+            eventPublisher.publishEvent(new BookingsExpiredEvent(ids));
+        }
+        return new Batch(ids.size(), updated);
+    }
+
+    private void updateLag(LocalDateTime now) {
+        lagSeconds.set(bookingRepository.findFirstByStatusAndStartBeforeOrderByStartAsc(BookingStatus.WAITING, now)
+                .map(b -> Duration.between(b.getStart(), now).toSeconds())
+                .orElse(0L));
+    }
+
+    private boolean pause() {
+        try {
+            Thread.sleep(pauseMillis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private record Batch(int selected, int updated) {
+    }
+}
@@ -1,18 +1,38 @@
 package ru.practicum.server.booking.service;
 
+import ru.practicum.server.booking.dto.BookingCountsDto;
 import ru.practicum.server.booking.dto.BookingDto;
 import ru.practicum.server.booking.dto.BookingRequest;
+import ru.practicum.server.booking.dto.BulkRespondRequest;
+import ru.practicum.server.booking.dto.BulkRespondResult;
+import ru.practicum.server.user.model.User;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface BookingService {
     BookingDto addBooking(BookingRequest request, Long userId);
 
     BookingDto respond(Long bookingId, boolean approved, Long ownerId);
 
+    List<BulkRespondResult> respondAll(BulkRespondRequest request, boolean approved, Long ownerId);
+
     BookingDto getBookingByUser(Long bookingId, Long userId);
 
     List<BookingDto> getAllBookingsOfUser(Long userId, String state);
 
     List<BookingDto> getAllBookingsOfOwner(Long userId, String state);
+
+    /**
+     * То же для владельца, уже найденного вызывающим кодом: пользователь повторно не проверяется.
+     */
+    List<BookingDto> getAllBookingsOfOwner(User owner, String state);
+
+    BookingCountsDto countBookingsOfUser(Long userId);
+
+    BookingCountsDto countBookingsOfOwner(Long userId);
+
+    void streamAllBookingsOfUser(Long userId, String state, Consumer<BookingDto> sink);
+
+    void streamAllBookingsOfOwner(Long userId, String state, Consumer<BookingDto> sink);
 }
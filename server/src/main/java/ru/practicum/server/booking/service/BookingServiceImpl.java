@@ -1,14 +1,25 @@
 package ru.practicum.server.booking.service;
 
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.server.booking.dto.BookingCountsDto;
 import ru.practicum.server.booking.dto.BookingDto;
 import ru.practicum.server.booking.dto.BookingRequest;
+import ru.practicum.server.booking.dto.BulkRespondRequest;
+import ru.practicum.server.booking.dto.BulkRespondResult;
+import ru.practicum.server.booking.event.BookingEvent;
 import ru.practicum.server.booking.mapper.BookingMapper;
 import ru.practicum.server.booking.model.Booking;
 import ru.practicum.server.booking.model.BookingStatus;
+import ru.practicum.server.booking.model.ArchivedBooking;
+import ru.practicum.server.booking.repository.ArchivedBookingRepository;
 import ru.practicum.server.booking.repository.BookingRepository;
+import ru.practicum.server.booking.repository.StatusCount;
 import ru.practicum.server.exception.ForbiddenException;
 import ru.practicum.server.exception.NotAvailable;
 import ru.practicum.server.exception.NotFoundException;
@@ -22,30 +33,43 @@ import ru.practicum.server.user.model.User;
 import ru.practicum.server.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
-import java.util.List;
-import java.util.Objects;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class BookingServiceImpl implements BookingService {
+    private static final int STREAM_CLEAR_INTERVAL = 100;
+    private static final int BULK_CHUNK_SIZE = 500;
+
     private final BookingRepository bookingRepository;
+    private final ArchivedBookingRepository archivedBookingRepository;
     private final UserRepository userRepository;
     private final ItemRepository itemRepository;
     private final BookingMapper bookingMapper;
     private final ItemMapper itemMapper;
     private final UserMapper userMapper;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @PersistenceContext
+    private EntityManager entityManager;
 
     @Override
     public BookingDto addBooking(BookingRequest bookingRequest, Long userId) {
         User booker = getUserOrThrow(userId);
         Item item = getItemOrThrow(bookingRequest.getItemId());
+        if (itemRepository.isOwnerDeleted(item.getId())) {
+            throw new NotFoundException("Вещь с id=" + item.getId() + " удаляется вместе с владельцем");
+        }
 
         if (item.getAvailable()) {
             Booking booking = bookingMapper.buildEntity(bookingRequest, item, booker);
             booking = bookingRepository.save(booking);
 
             bookingRepository.save(booking);
+            eventPublisher.publishEvent(BookingEvent.of(BookingEvent.Type.CREATED, booking));
             log.info("Бронь добавлена");
             return toDto(booking);
         }
@@ -54,33 +78,168 @@ public class BookingServiceImpl implements BookingService {
     }
 
     @Override
+    @Transactional
     public BookingDto respond(Long bookingId, boolean approve, Long ownerId) {
+        BookingStatus target = approve ? BookingStatus.APPROVED : BookingStatus.REJECTED;
+        int updated = bookingRepository.transition(
+                bookingId, ownerId, BookingStateMachine.sourcesOf(target), target);
         Booking booking = getBookingOrThrow(bookingId);
 
-        if (!booking.getItem().getOwner().getId().equals(ownerId)) {
-            throw new ForbiddenException("Вы не владелец");
+        if (updated == 0) {
+            if (!booking.getItem().getOwner().getId().equals(ownerId)) {
+                throw new ForbiddenException("Вы не владелец");
+            }
+            throw new ForbiddenException("Статус заказа уже подтвержден");
         }
 
-        getUserOrThrow(booking.getBooker().getId());
-        if (!booking.getStatus().equals(BookingStatus.WAITING)) {
-            throw new ForbiddenException("Статус заказа уже подтвержден");
+        eventPublisher.publishEvent(BookingEvent.of(
+                approve ? BookingEvent.Type.APPROVED : BookingEvent.Type.REJECTED, booking));
+        log.info("Бронь подтверждена");
+        return toDto(booking);
+    }
+
+
+    /**
+     * Отвечает на пачку броней в одной транзакции. Проверки владельца и статуса делаются по одной выборке,
+     * пересечения одобряемых броней — вместе, по вещам: с уже одобренными и друг с другом в порядке start.
+     * Прошедшие проверку брони переводятся одним UPDATE на каждые BULK_CHUNK_SIZE id.
+     */
+    @Override
+    @Transactional
+    public List<BulkRespondResult> respondAll(BulkRespondRequest request, boolean approve, Long ownerId) {
+        BookingStatus target = approve ? BookingStatus.APPROVED : BookingStatus.REJECTED;
+        Set<BookingStatus> sources = BookingStateMachine.sourcesOf(target);
+
+        List<Long> ids;
+        Map<Long, Booking> found = new LinkedHashMap<>();
+        if (request.getItemId() != null) {
+            Item item = getItemOrThrow(request.getItemId());
+            if (!item.getOwner().getId().equals(ownerId)) {
+                throw new ForbiddenException("Вы не владелец");
+            }
+            bookingRepository.findAllWithItemByItemIdAndStatus(item.getId(), BookingStatus.WAITING)
+                    .forEach(b -> found.put(b.getId(), b));
+            ids = new ArrayList<>(found.keySet());
+        } else {
+            ids = request.getBookingIds() == null ? List.of() : request.getBookingIds().stream().distinct().toList();
+            for (List<Long> chunk : chunks(ids)) {
+                bookingRepository.findAllWithItemByIdIn(chunk).forEach(b -> found.put(b.getId(), b));
+            }
+        }
+
+        Map<Long, BulkRespondResult.Outcome> outcomes = new LinkedHashMap<>();
+        List<Booking> accepted = new ArrayList<>();
+        for (Long id : ids) {
+            Booking booking = found.get(id);
+            if (booking == null) {
+                outcomes.put(id, BulkRespondResult.Outcome.NOT_FOUND);
+            } else if (!booking.getItem().getOwner().getId().equals(ownerId)) {
+                outcomes.put(id, BulkRespondResult.Outcome.NOT_OWNER);
+            } else if (!BookingStateMachine.canTransition(booking.getStatus(), target)) {
+                outcomes.put(id, BulkRespondResult.Outcome.NOT_WAITING);
+            } else {
+                outcomes.put(id, null);
+                accepted.add(booking);
+            }
         }
 
         if (approve) {
-            booking.setStatus(BookingStatus.APPROVED);
-        } else {
-            booking.setStatus(BookingStatus.REJECTED);
+            accepted = withoutOverlaps(accepted, outcomes);
         }
-        bookingRepository.save(booking);
-        log.info("Бронь подтверждена");
-        return toDto(booking);
+
+        List<Long> acceptedIds = accepted.stream().map(Booking::getId).toList();
+        int updated = 0;
+        for (List<Long> chunk : chunks(acceptedIds)) {
+            updated += bookingRepository.transitionAllOfOwner(chunk, ownerId, sources, target);
+        }
+        Set<Long> applied = new HashSet<>(acceptedIds);
+        if (updated < acceptedIds.size()) {
+            // кто-то успел ответить раньше: переведенными считаем только брони, которые теперь в target
+            applied.clear();
+            for (List<Long> chunk : chunks(acceptedIds)) {
+                applied.addAll(bookingRepository.findIdsByIdInAndStatus(chunk, target));
+            }
+        }
+
+        BulkRespondResult.Outcome success = approve ? BulkRespondResult.Outcome.APPROVED : BulkRespondResult.Outcome.REJECTED;
+        BookingEvent.Type type = approve ? BookingEvent.Type.APPROVED : BookingEvent.Type.REJECTED;
+        for (Booking booking : accepted) {
+            if (applied.contains(booking.getId())) {
+                booking.setStatus(target);
+                outcomes.put(booking.getId(), success);
+                eventPublisher.publishEvent(BookingEvent.of(type, booking));
+            } else {
+                outcomes.put(booking.getId(), BulkRespondResult.Outcome.NOT_WAITING);
+            }
+        }
+        log.info("Массовый ответ владельца id={}: запрошено={}, изменено={}", ownerId, ids.size(), applied.size());
+
+        return outcomes.entrySet().stream()
+                .map(e -> new BulkRespondResult(e.getKey(), e.getValue()))
+                .toList();
+    }
+
+    /**
+     * Оставляет брони, которые не пересекаются с уже одобренными и с ранее принятыми из этой же пачки.
+     * Уже одобренные брони по всем затронутым вещам читаются одним запросом.
+     */
+    private List<Booking> withoutOverlaps(List<Booking> candidates, Map<Long, BulkRespondResult.Outcome> outcomes) {
+        if (candidates.isEmpty()) {
+            return candidates;
+        }
+        Set<Long> itemIds = new HashSet<>();
+        LocalDateTime from = null;
+        LocalDateTime to = null;
+        for (Booking b : candidates) {
+            itemIds.add(b.getItem().getId());
+            from = from == null || b.getStart().isBefore(from) ? b.getStart() : from;
+            to = to == null || b.getEnd().isAfter(to) ? b.getEnd() : to;
+        }
+
+        // Уже одобренные брони могут пересекаться между собой и начинаться одновременно,
+        // поэтому кандидат сверяется с каждым занятым интервалом вещи, а не с соседями по start.
+        Map<Long, List<Interval>> busy = new HashMap<>();
+        for (Booking b : bookingRepository.findAllByItem_IdInAndStatusAndStartBeforeAndEndAfter(
+                itemIds, BookingStatus.APPROVED, to, from)) {
+            busy.computeIfAbsent(b.getItem().getId(), k -> new ArrayList<>()).add(new Interval(b.getStart(), b.getEnd()));
+        }
+
+        List<Booking> sorted = new ArrayList<>(candidates);
+        sorted.sort(Comparator.comparing(Booking::getStart).thenComparing(Booking::getId));
+        List<Booking> accepted = new ArrayList<>();
+        for (Booking b : sorted) {
+            List<Interval> intervals = busy.computeIfAbsent(b.getItem().getId(), k -> new ArrayList<>());
+            Interval candidate = new Interval(b.getStart(), b.getEnd());
+            if (intervals.stream().anyMatch(candidate::overlaps)) {
+                outcomes.put(b.getId(), BulkRespondResult.Outcome.OVERLAP);
+            } else {
+                intervals.add(candidate);
+                accepted.add(b);
+            }
+        }
+        return accepted;
     }
 
+    private record Interval(LocalDateTime start, LocalDateTime end) {
+        boolean overlaps(Interval other) {
+            return start.isBefore(other.end) && end.isAfter(other.start);
+        }
+    }
+
+    private static List<List<Long>> chunks(List<Long> ids) {
+        List<List<Long>> chunks = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i += BULK_CHUNK_SIZE) {
+            chunks.add(ids.subList(i, Math.min(i + BULK_CHUNK_SIZE, ids.size())));
+        }
+        return chunks;
+    }
 
     @Override
     public BookingDto getBookingByUser(Long bookingId, Long userId) {
         getUserOrThrow(userId);
-        Booking booking = getBookingOrThrow(bookingId);
+        Booking booking = bookingRepository.findById(bookingId)
+                .or(() -> archivedBookingRepository.findById(bookingId).map(ArchivedBooking::toBooking))
+                .orElseThrow(() -> new NotFoundException("Бронь с id=" + bookingId + "не найдена"));
         Long bookerId = booking.getBooker().getId();
         Long ownerId = booking.getItem().getOwner().getId();
 
@@ -103,13 +262,18 @@ public class BookingServiceImpl implements BookingService {
         switch (state) {
             case "CURRENT" ->
                     bookings = bookingRepository.findAllByBookerIdAndStartBeforeAndEndAfterOrderByStartDesc(userId, now, now);
-            case "PAST" -> bookings = bookingRepository.findAllByBookerIdAndEndBeforeOrderByStartDesc(userId, now);
+            case "PAST" -> bookings = withArchive(bookingRepository.findAllByBookerIdAndEndBeforeOrderByStartDesc(userId, now),
+                    archivedBookingRepository.findAllByBooker_IdOrderByStartDesc(userId));
             case "FUTURE" -> bookings = bookingRepository.findAllByBookerIdAndStartAfterOrderByStartDesc(userId, now);
             case "WAITING" ->
                     bookings = bookingRepository.findAllByBookerIdAndStatusOrderByStartDesc(userId, BookingStatus.WAITING);
-            case "REJECTED" ->
-                    bookings = bookingRepository.findAllByBookerIdAndStatusOrderByStartDesc(userId, BookingStatus.REJECTED);
-            default -> bookings = bookingRepository.findAllByBookerIdOrderByStartDesc(userId);
+            case "REJECTED", "EXPIRED" -> {
+                BookingStatus status = BookingStatus.valueOf(state);
+                bookings = withArchive(bookingRepository.findAllByBookerIdAndStatusOrderByStartDesc(userId, status),
+                        archivedBookingRepository.findAllByBooker_IdAndStatusOrderByStartDesc(userId, status));
+            }
+            default -> bookings = withArchive(bookingRepository.findAllByBookerIdOrderByStartDesc(userId),
+                    archivedBookingRepository.findAllByBooker_IdOrderByStartDesc(userId));
         }
 
         return bookings.stream()
@@ -119,7 +283,12 @@ public class BookingServiceImpl implements BookingService {
 
     @Override
     public List<BookingDto> getAllBookingsOfOwner(Long userId, String state) {
-        getUserOrThrow(userId);
+        return getAllBookingsOfOwner(getUserOrThrow(userId), state);
+    }
+
+    @Override
+    public List<BookingDto> getAllBookingsOfOwner(User owner, String state) {
+        Long userId = owner.getId();
         log.info("Брони владельца c id={} получены, state={}", userId, state);
         LocalDateTime now = LocalDateTime.now();
 
@@ -127,20 +296,131 @@ public class BookingServiceImpl implements BookingService {
         switch (state) {
             case "CURRENT" ->
                     bookings = bookingRepository.findAllByItem_Owner_IdAndStartBeforeAndEndAfterOrderByStartDesc(userId, now, now);
-            case "PAST" -> bookings = bookingRepository.findAllByItem_Owner_IdAndEndBeforeOrderByStartDesc(userId, now);
+            case "PAST" -> bookings = withArchive(bookingRepository.findAllByItem_Owner_IdAndEndBeforeOrderByStartDesc(userId, now),
+                    archivedBookingRepository.findAllByItem_Owner_IdOrderByStartDesc(userId));
             case "FUTURE" ->
                     bookings = bookingRepository.findAllByItem_Owner_IdAndStartAfterOrderByStartDesc(userId, now);
             case "WAITING" ->
                     bookings = bookingRepository.findAllByItem_Owner_IdAndStatusOrderByStartDesc(userId, BookingStatus.WAITING);
-            case "REJECTED" ->
-                    bookings = bookingRepository.findAllByItem_Owner_IdAndStatusOrderByStartDesc(userId, BookingStatus.REJECTED);
-            default -> bookings = bookingRepository.findAllByItem_Owner_IdOrderByStartDesc(userId);
+            case "REJECTED", "EXPIRED" -> {
+                BookingStatus status = BookingStatus.valueOf(state);
+                bookings = withArchive(bookingRepository.findAllByItem_Owner_IdAndStatusOrderByStartDesc(userId, status),
+                        archivedBookingRepository.findAllByItem_Owner_IdAndStatusOrderByStartDesc(userId, status));
+            }
+            default -> bookings = withArchive(bookingRepository.findAllByItem_Owner_IdOrderByStartDesc(userId),
+                    archivedBookingRepository.findAllByItem_Owner_IdOrderByStartDesc(userId));
         }
         return bookings.stream()
                 .map(this::toDto)
                 .toList();
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public void streamAllBookingsOfUser(Long userId, String state, Consumer<BookingDto> sink) {
+        getUserOrThrow(userId);
+        log.info("Потоковая выдача броней пользователя с id={}, state={}", userId, state);
+        LocalDateTime now = LocalDateTime.now();
+        state = (state == null ? "ALL" : state.toUpperCase());
+
+        Stream<Booking> bookings = switch (state) {
+            case "CURRENT" -> bookingRepository.streamAllByBookerIdAndStartBeforeAndEndAfterOrderByStartDesc(userId, now, now);
+            case "PAST" -> withArchive(bookingRepository.streamAllByBookerIdAndEndBeforeOrderByStartDesc(userId, now),
+                    archivedBookingRepository.streamAllByBooker_IdOrderByStartDesc(userId));
+            case "FUTURE" -> bookingRepository.streamAllByBookerIdAndStartAfterOrderByStartDesc(userId, now);
+            case "WAITING" -> bookingRepository.streamAllByBookerIdAndStatusOrderByStartDesc(userId, BookingStatus.WAITING);
+            case "REJECTED", "EXPIRED" -> withArchive(
+                    bookingRepository.streamAllByBookerIdAndStatusOrderByStartDesc(userId, BookingStatus.valueOf(state)),
+                    archivedBookingRepository.streamAllByBooker_IdAndStatusOrderByStartDesc(userId, BookingStatus.valueOf(state)));
+            default -> withArchive(bookingRepository.streamAllByBookerIdOrderByStartDesc(userId),
+                    archivedBookingRepository.streamAllByBooker_IdOrderByStartDesc(userId));
+        };
+        emit(bookings, sink);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamAllBookingsOfOwner(Long userId, String state, Consumer<BookingDto> sink) {
+        getUserOrThrow(userId);
+        log.info("Потоковая выдача броней владельца c id={}, state={}", userId, state);
+        LocalDateTime now = LocalDateTime.now();
+
+        Stream<Booking> bookings = switch (state) {
+            case "CURRENT" -> bookingRepository.streamAllByItem_Owner_IdAndStartBeforeAndEndAfterOrderByStartDesc(userId, now, now);
+            case "PAST" -> withArchive(bookingRepository.streamAllByItem_Owner_IdAndEndBeforeOrderByStartDesc(userId, now),
+                    archivedBookingRepository.streamAllByItem_Owner_IdOrderByStartDesc(userId));
+            case "FUTURE" -> bookingRepository.streamAllByItem_Owner_IdAndStartAfterOrderByStartDesc(userId, now);
+            case "WAITING" -> bookingRepository.streamAllByItem_Owner_IdAndStatusOrderByStartDesc(userId, BookingStatus.WAITING);
+            case "REJECTED", "EXPIRED" -> withArchive(
+                    bookingRepository.streamAllByItem_Owner_IdAndStatusOrderByStartDesc(userId, BookingStatus.valueOf(state)),
+                    archivedBookingRepository.streamAllByItem_Owner_IdAndStatusOrderByStartDesc(userId, BookingStatus.valueOf(state)));
+            default -> withArchive(bookingRepository.streamAllByItem_Owner_IdOrderByStartDesc(userId),
+                    archivedBookingRepository.streamAllByItem_Owner_IdOrderByStartDesc(userId));
+        };
+        emit(bookings, sink);
+    }
+
+    /**
+     * Маппит и отдает брони по одной; контекст персистентности периодически очищается,
+     * чтобы уже выданные сущности не накапливались в памяти.
+     */
+    private void emit(Stream<Booking> bookings, Consumer<BookingDto> sink) {
+        try (bookings) {
+            int[] emitted = {0};
+            bookings.forEach(b -> {
+                sink.accept(toDto(b));
+                if (++emitted[0] % STREAM_CLEAR_INTERVAL == 0) {
+                    entityManager.clear();
+                }
+            });
+        }
+    }
+
+    @Override
+    public BookingCountsDto countBookingsOfUser(Long userId) {
+        getUserOrThrow(userId);
+        log.info("Счетчики броней пользователя с id={}", userId);
+        return withArchive(bookingRepository.countByBooker(userId, LocalDateTime.now()),
+                archivedBookingRepository.countByBookerGroupByStatus(userId));
+    }
+
+    @Override
+    public BookingCountsDto countBookingsOfOwner(Long userId) {
+        getUserOrThrow(userId);
+        log.info("Счетчики броней владельца с id={}", userId);
+        return withArchive(bookingRepository.countByOwner(userId, LocalDateTime.now()),
+                archivedBookingRepository.countByOwnerGroupByStatus(userId));
+    }
+
+    /**
+     * Архивные брони уже закончились: все они попадают в ALL и PAST, а REJECTED и EXPIRED — по статусу.
+     */
+    private static BookingCountsDto withArchive(BookingCountsDto hot, List<StatusCount> archived) {
+        for (StatusCount count : archived) {
+            hot.setAll(hot.getAll() + count.getTotal());
+            hot.setPast(hot.getPast() + count.getTotal());
+            switch (count.getStatus()) {
+                case REJECTED -> hot.setRejected(hot.getRejected() + count.getTotal());
+                case EXPIRED -> hot.setExpired(hot.getExpired() + count.getTotal());
+                default -> {
+                }
+            }
+        }
+        return hot;
+    }
+
+    /**
+     * CURRENT, FUTURE и WAITING читают только горячую таблицу; состояния, куда попадают
+     * закончившиеся брони, дополняются архивом с сохранением порядка start DESC.
+     */
+    private static List<Booking> withArchive(List<Booking> hot, List<ArchivedBooking> archived) {
+        return BookingStreams.mergeByStartDesc(hot, archived.stream().map(ArchivedBooking::toBooking).toList());
+    }
+
+    private static Stream<Booking> withArchive(Stream<Booking> hot, Stream<ArchivedBooking> archived) {
+        return BookingStreams.mergeByStartDesc(hot, archived.map(ArchivedBooking::toBooking));
+    }
+
     private User getUserOrThrow(long id) {
         return userRepository.findById(id).orElseThrow(
                 () -> new NotFoundException("Пользователь с id=" + id + " не найден")
@@ -0,0 +1,41 @@
+package ru.practicum.server.booking.service;
+
+import ru.practicum.server.booking.model.BookingStatus;
+
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Допустимые переходы статуса брони. Источники перехода подставляются в WHERE условного UPDATE,
+ * поэтому недопустимый переход отсекается самой базой без предварительного SELECT.
+ */
+public final class BookingStateMachine {
+    private static final Map<BookingStatus, EnumSet<BookingStatus>> SOURCES = new EnumMap<>(BookingStatus.class);
+
+    static {
+        SOURCES.put(BookingStatus.WAITING, EnumSet.noneOf(BookingStatus.class));
+        SOURCES.put(BookingStatus.APPROVED, EnumSet.of(BookingStatus.WAITING));
+        SOURCES.put(BookingStatus.REJECTED, EnumSet.of(BookingStatus.WAITING));
+        SOURCES.put(BookingStatus.CANCELED, EnumSet.of(BookingStatus.WAITING, BookingStatus.APPROVED));
+        SOURCES.put(BookingStatus.EXPIRED, EnumSet.of(BookingStatus.WAITING));
+    }
+
+    private BookingStateMachine() {
+    }
+
+    /**
+     * Статусы, из которых можно перейти в target.
+     */
+    public static Set<BookingStatus> sourcesOf(BookingStatus target) {
+        return EnumSet.copyOf(SOURCES.get(target));
+    }
+
+    /**
+     * Проверка перехода для уже прочитанной брони; в UPDATE то же правило задает sourcesOf.
+     */
+    public static boolean canTransition(BookingStatus from, BookingStatus to) {
+        return SOURCES.get(to).contains(from);
+    }
+}
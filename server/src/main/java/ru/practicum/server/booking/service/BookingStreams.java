@@ -0,0 +1,73 @@
+package ru.practicum.server.booking.service;
+
+import ru.practicum.server.booking.model.Booking;
+
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Слияние уже отсортированных по start DESC броней из горячей таблицы и архива.
+ */
+public final class BookingStreams {
+    private static final Comparator<Booking> START_DESC = Comparator.comparing(Booking::getStart).reversed();
+
+    private BookingStreams() {
+    }
+
+    public static List<Booking> mergeByStartDesc(List<Booking> hot, List<Booking> archived) {
+        if (archived.isEmpty()) {
+            return hot;
+        }
+        List<Booking> merged = new ArrayList<>(hot.size() + archived.size());
+        int i = 0;
+        int j = 0;
+        while (i < hot.size() && j < archived.size()) {
+            merged.add(START_DESC.compare(hot.get(i), archived.get(j)) <= 0 ? hot.get(i++) : archived.get(j++));
+        }
+        merged.addAll(hot.subList(i, hot.size()));
+        merged.addAll(archived.subList(j, archived.size()));
+        return merged;
+    }
+
+    /**
+     * Ленивое слияние: из каждого потока читается не больше одной строки вперед.
+     * Закрытие результата закрывает оба исходных потока.
+     */
+    public static Stream<Booking> mergeByStartDesc(Stream<Booking> hot, Stream<Booking> archived) {
+        Iterator<Booking> left = hot.iterator();
+        Iterator<Booking> right = archived.iterator();
+        Spliterator<Booking> merged = new Spliterators.AbstractSpliterator<>(Long.MAX_VALUE, Spliterator.ORDERED) {
+            private Booking nextLeft;
+            private Booking nextRight;
+
+            @Override
+            public boolean tryAdvance(Consumer<? super Booking> action) {
+                if (nextLeft == null && left.hasNext()) {
+                    nextLeft = left.next();
+                }
+                if (nextRight == null && right.hasNext()) {
+                    nextRight = right.next();
+                }
+                if (nextLeft == null && nextRight == null) {
+                    return false;
+                }
+                if (nextRight == null || nextLeft != null && START_DESC.compare(nextLeft, nextRight) <= 0) {
+                    action.accept(nextLeft);
+                    nextLeft = null;
+                } else {
+                    action.accept(nextRight);
+                    nextRight = null;
+                }
+                return true;
+            }
+        };
+        return StreamSupport.stream(merged, false)
+                .onClose(() -> {
+                    try (hot) {
+                        archived.close();
+                    }
+                });
+    }
+}
@@ -0,0 +1,29 @@
+package ru.practicum.server.common;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Выбор ведущего узла для фоновых задач через pg_try_advisory_xact_lock.
+ * Лок держится до конца текущей транзакции, поэтому вызывать нужно внутри нее.
+ * На других СУБД (H2 в тестах) узел считается единственным и лок всегда получен.
+ */
+@Component
+@RequiredArgsConstructor
+public class AdvisoryLock {
+    public static final long BOOKING_EXPIRY = 0x5348415245L;
+    public static final long BOOKING_ARCHIVE = 0x5348415246L;
+    public static final long USER_DELETION = 0x5348415247L;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Database database;
+
+    public boolean tryLock(long key) {
+        if (!database.isPostgres()) {
+            return true;
+        }
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "select pg_try_advisory_xact_lock(?)", Boolean.class, key));
+    }
+}
@@ -0,0 +1,35 @@
+package ru.practicum.server.common;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Общий на узел лимит соединений, которые запросы берут сверх своего: разделы экрана владельца,
+ * параллельные запросы карточки вещи. Каждое такое соединение занимает разрешение на время своей транзакции.
+ * Разрешений — доля shareit.db.fan-out-share от пула Hikari (spring.datasource.hikari.maximum-pool-size),
+ * остаток пула всегда доступен обычным запросам.
+ */
+@Component
+public class ConnectionLimiter {
+    private final Semaphore permits;
+
+    public ConnectionLimiter(@Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize,
+                             @Value("${shareit.db.fan-out-share:0.5}") double share) {
+        this.permits = new Semaphore(Math.max(1, (int) (poolSize * share)));
+    }
+
+    public boolean tryAcquire() {
+        return permits.tryAcquire();
+    }
+
+    public boolean tryAcquire(long timeout, TimeUnit unit) throws InterruptedException {
+        return permits.tryAcquire(timeout, unit);
+    }
+
+    public void release() {
+        permits.release();
+    }
+}
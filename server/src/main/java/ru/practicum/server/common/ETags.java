@@ -0,0 +1,34 @@
+package ru.practicum.server.common;
+
+import ru.practicum.server.exception.ForbiddenException;
+
+/**
+ * ETag сущности — ее номер версии в кавычках. If-Match принимается в том же виде
+ * (слабый префикс W/ допускается); "*" и отсутствие заголовка означают "любая версия".
+ */
+public final class ETags {
+    private ETags() {
+    }
+
+    public static String of(Long version) {
+        return "\"" + (version != null ? version : 0) + "\"";
+    }
+
+    public static Long parse(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String value = ifMatch.trim();
+        if (value.startsWith("W/")) {
+            value = value.substring(2);
+        }
+        if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+            value = value.substring(1, value.length() - 1);
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new ForbiddenException("Некорректный заголовок If-Match: " + ifMatch);
+        }
+    }
+}
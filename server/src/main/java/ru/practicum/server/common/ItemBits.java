@@ -0,0 +1,15 @@
+package ru.practicum.server.common;
+
+/**
+ * Битмапы и int-списки вещей адресуются int-номером, равным id. Вещь с id, который в int
+ * не помещается, в такие индексы не попадает — для нее нужен обходной путь без индекса.
+ */
+public final class ItemBits {
+
+    private ItemBits() {
+    }
+
+    public static boolean fits(long itemId) {
+        return itemId >= 0 && itemId <= Integer.MAX_VALUE;
+    }
+}
@@ -0,0 +1,69 @@
+package ru.practicum.server.common;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+/**
+ * Пишет JSON-массив в ответ по одному элементу, не собирая весь список в памяти.
+ * Открывающая скобка пишется только при первом элементе, поэтому исключения из проверок
+ * до начала выдачи (например, пользователь не найден) обрабатываются ErrorHandler как обычно.
+ * Генератор закрывается и при ошибке источника; начатый массив тогда остается незакрытым.
+ */
+public final class JsonStreamWriter {
+
+    private JsonStreamWriter() {
+    }
+
+    public static <T> void writeArray(ObjectMapper objectMapper,
+                                      HttpServletResponse response,
+                                      Consumer<Consumer<T>> source) throws IOException {
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        // Поток ответа закрывает контейнер: если ошибка случится до первого элемента,
+        // ErrorHandler еще должен успеть записать в него обычный ответ.
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(response.getOutputStream())
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        boolean[] started = {false};
+        boolean completed = false;
+        try {
+            source.accept(value -> {
+                try {
+                    if (!started[0]) {
+                        generator.writeStartArray();
+                        started[0] = true;
+                    }
+                    writer.writeValue(generator, value);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+
+            if (!started[0]) {
+                generator.writeStartArray();
+            }
+            generator.writeEndArray();
+            completed = true;
+        } finally {
+            if (!completed) {
+                // Оборванный массив не закрываем скобкой, чтобы клиент не принял его за полный,
+                // а если вывод не начат — не сбрасываем поток, иначе ответ уйдет со статусом 200.
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT);
+                if (!started[0]) {
+                    generator.disable(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM);
+                }
+            }
+            generator.close();
+        }
+    }
+}
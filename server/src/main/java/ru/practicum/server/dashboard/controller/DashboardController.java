@@ -0,0 +1,21 @@
+package ru.practicum.server.dashboard.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import ru.practicum.server.dashboard.dto.OwnerDashboardDto;
+import ru.practicum.server.dashboard.service.DashboardService;
+
+@RestController
+@RequestMapping(path = "/dashboard")
+@RequiredArgsConstructor
+public class DashboardController {
+    private final DashboardService service;
+
+    @GetMapping("/owner")
+    public OwnerDashboardDto getOwnerDashboard(@RequestHeader("X-Sharer-User-Id") Long userId) {
+        return service.getOwnerDashboard(userId);
+    }
+}
@@ -0,0 +1,33 @@
+package ru.practicum.server.dashboard.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import ru.practicum.server.booking.dto.BookingDto;
+import ru.practicum.server.item.dto.ItemDto;
+import ru.practicum.server.request.dto.ItemRequestResponseDto;
+
+import java.util.List;
+
+/**
+ * Данные экрана владельца. Раздел, не собранный за отведенное время, равен null и перечислен в incomplete.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OwnerDashboardDto {
+    private List<ItemDto> items;
+    private List<BookingDto> waitingBookings;
+    private List<BookingDto> currentBookings;
+    private List<ItemRequestResponseDto> requests;
+    private List<Section> incomplete;
+
+    public enum Section {
+        ITEMS,
+        WAITING_BOOKINGS,
+        CURRENT_BOOKINGS,
+        REQUESTS
+    }
+}
@@ -0,0 +1,7 @@
+package ru.practicum.server.dashboard.service;
+
+import ru.practicum.server.dashboard.dto.OwnerDashboardDto;
+
+public interface DashboardService {
+    OwnerDashboardDto getOwnerDashboard(Long userId);
+}
@@ -0,0 +1,128 @@
+package ru.practicum.server.dashboard.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.server.booking.service.BookingService;
+import ru.practicum.server.common.ConnectionLimiter;
+import ru.practicum.server.dashboard.dto.OwnerDashboardDto;
+import ru.practicum.server.dashboard.dto.OwnerDashboardDto.Section;
+import ru.practicum.server.exception.NotFoundException;
+import ru.practicum.server.item.service.ItemService;
+import ru.practicum.server.request.service.ItemRequestService;
+import ru.practicum.server.user.model.User;
+import ru.practicum.server.user.repository.UserRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Собирает экран владельца одним вызовом. Пользователь проверяется один раз, дальше разделы
+ * запрашиваются параллельно на виртуальных потоках, каждый в своей read-only транзакции
+ * (и, значит, на своем соединении из пула). Соединение раздел берет только с разрешения
+ * ConnectionLimiter, общего для всех вызовов, поэтому одновременные экраны не выбирают весь пул.
+ * На каждый раздел отводится budget миллисекунд от начала сборки, включая ожидание разрешения:
+ * не успевший или упавший раздел отменяется и попадает в incomplete, остальные отдаются как есть.
+ * Тот же бюджет (с округлением вверх до секунды) задан таймаутом транзакции, чтобы отмененный
+ * раздел не продолжал запрос в базе.
+ */
+@Slf4j
+@Service
+public class DashboardServiceImpl implements DashboardService {
+    private final UserRepository userRepository;
+    private final ItemService itemService;
+    private final BookingService bookingService;
+    private final ItemRequestService itemRequestService;
+    private final ConnectionLimiter connectionLimiter;
+    private final TransactionTemplate readOnly;
+    private final long budgetMillis;
+    private final int requestsSize;
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public DashboardServiceImpl(UserRepository userRepository,
+                                ItemService itemService,
+                                BookingService bookingService,
+                                ItemRequestService itemRequestService,
+                                ConnectionLimiter connectionLimiter,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${shareit.dashboard.budget:500}") long budgetMillis,
+                                @Value("${shareit.dashboard.requests-size:10}") int requestsSize) {
+        this.userRepository = userRepository;
+        this.itemService = itemService;
+        this.bookingService = bookingService;
+        this.itemRequestService = itemRequestService;
+        this.connectionLimiter = connectionLimiter;
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+        this.readOnly.setTimeout((int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(budgetMillis + 999)));
+        this.budgetMillis = budgetMillis;
+        this.requestsSize = requestsSize;
+    }
+
+    @Override
+    public OwnerDashboardDto getOwnerDashboard(Long userId) {
+        User owner = userRepository.findById(userId).orElseThrow(
+                () -> new NotFoundException("Пользователь с id=" + userId + " не найден"));
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(budgetMillis);
+
+        var items = submit(deadline, () -> itemService.getAllItems(userId));
+        var waiting = submit(deadline, () -> bookingService.getAllBookingsOfOwner(owner, "WAITING"));
+        var current = submit(deadline, () -> bookingService.getAllBookingsOfOwner(owner, "CURRENT"));
+        var requests = submit(deadline, () -> itemRequestService.getAll(owner, 0, requestsSize, null));
+
+        List<Section> incomplete = new ArrayList<>();
+        OwnerDashboardDto dto = OwnerDashboardDto.builder()
+                .items(await(items, deadline, Section.ITEMS, incomplete))
+                .waitingBookings(await(waiting, deadline, Section.WAITING_BOOKINGS, incomplete))
+                .currentBookings(await(current, deadline, Section.CURRENT_BOOKINGS, incomplete))
+                .requests(await(requests, deadline, Section.REQUESTS, incomplete))
+                .incomplete(incomplete)
+                .build();
+        log.info("Собран экран владельца id={}, неполные разделы: {}", userId, incomplete);
+        return dto;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private <T> Future<T> submit(long deadline, Supplier<T> query) {
+        return executor.submit(() -> {
+            if (!connectionLimiter.tryAcquire(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                throw new IllegalStateException("Нет свободного соединения для раздела");
+            }
+            try {
+                return readOnly.execute(status -> query.get());
+            } finally {
+                connectionLimiter.release();
+            }
+        });
+    }
+
+    private <T> T await(Future<T> future, long deadline, Section section, List<Section> incomplete) {
+        try {
+            return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            log.warn("Раздел {} не уложился в {} мс", section, budgetMillis);
+        } catch (ExecutionException e) {
+            log.warn("Раздел {} не собран", section, e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        future.cancel(true);
+        incomplete.add(section);
+        return null;
+    }
+}
@@ -1,6 +1,7 @@
 package ru.practicum.server.exception;
 
 import org.springframework.http.HttpStatus;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
@@ -30,4 +31,16 @@ public class ErrorHandler {
     public ErrorResponse handleNotAvailableException(NotAvailable e) {
         return new ErrorResponse("Уже занято", e.getMessage());
     }
+
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+    public ErrorResponse handleVersionConflict(VersionConflict e) {
+        return new ErrorResponse("Версия изменилась", e.getMessage());
+    }
+
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+    public ErrorResponse handleOptimisticLock(ObjectOptimisticLockingFailureException e) {
+        return new ErrorResponse("Версия изменилась", "Запись изменена другим запросом, перечитайте ее");
+    }
 }
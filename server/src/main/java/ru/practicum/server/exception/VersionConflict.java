@@ -0,0 +1,7 @@
+package ru.practicum.server.exception;
+
+public class VersionConflict extends RuntimeException {
+    public VersionConflict(String message) {
+        super(message);
+    }
+}
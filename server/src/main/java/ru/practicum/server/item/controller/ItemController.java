@@ -1,11 +1,24 @@
 package ru.practicum.server.item.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.server.common.ETags;
+import ru.practicum.server.common.JsonStreamWriter;
+import ru.practicum.server.item.dto.AvailabilityDto;
 import ru.practicum.server.item.dto.CommentDto;
 import ru.practicum.server.item.dto.ItemDto;
+import ru.practicum.server.item.dto.ItemSearchDto;
+import ru.practicum.server.item.dto.ItemSort;
+import ru.practicum.server.item.dto.ItemSuggestionDto;
 import ru.practicum.server.item.service.ItemService;
 
+import java.io.IOException;
+import java.time.LocalDate;
 import java.util.List;
 
 /**
@@ -16,6 +29,7 @@ import java.util.List;
 @RequiredArgsConstructor
 public class ItemController {
     private final ItemService itemService;
+    private final ObjectMapper objectMapper;
 
     @PostMapping
     public ItemDto addItem(@RequestBody ItemDto itemDto,
@@ -24,27 +38,80 @@ public class ItemController {
     }
 
     @PatchMapping("/{itemId}")
-    public ItemDto updateItem(@RequestHeader("X-Sharer-User-Id") long userId,
-                              @PathVariable Long itemId,
-                              @RequestBody ItemDto itemDto) {
-        return itemService.updateItem(userId, itemId, itemDto);
+    public ResponseEntity<ItemDto> updateItem(@RequestHeader("X-Sharer-User-Id") long userId,
+                                              @PathVariable Long itemId,
+                                              @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                              @RequestBody ItemDto itemDto) {
+        ItemDto updated = itemService.updateItem(userId, itemId, itemDto, ETags.parse(ifMatch));
+        return ResponseEntity.ok().eTag(ETags.of(updated.getVersion())).body(updated);
     }
 
     @GetMapping("/{itemId}")
-    public ItemDto getItemById(@PathVariable Long itemId,
-                               @RequestHeader("X-Sharer-User-Id") long userId) {
-        return itemService.getItemById(itemId, userId);
+    public ResponseEntity<ItemDto> getItemById(@PathVariable Long itemId,
+                                               @RequestHeader("X-Sharer-User-Id") long userId) {
+        ItemDto item = itemService.getItemById(itemId, userId);
+        return ResponseEntity.ok().eTag(ETags.of(item.getVersion())).body(item);
     }
 
 
     @GetMapping
-    public List<ItemDto> getAllItems(@RequestHeader("X-Sharer-User-Id") long userId) {
-        return itemService.getAllItems(userId);
+    public List<ItemDto> getAllItems(@RequestHeader("X-Sharer-User-Id") long userId,
+                                     @RequestParam(defaultValue = "0") int from,
+                                     @RequestParam(required = false) Integer size) {
+        return itemService.getAllItems(userId, from, size);
+    }
+
+    @GetMapping(params = "stream=true")
+    public void streamAllItems(@RequestHeader("X-Sharer-User-Id") long userId,
+                               HttpServletResponse response) throws IOException {
+        JsonStreamWriter.<ItemDto>writeArray(objectMapper, response,
+                sink -> itemService.streamAllItems(userId, sink));
+    }
+
+    @GetMapping("/{itemId}/availability")
+    public AvailabilityDto getAvailability(@PathVariable Long itemId,
+                                           @RequestParam(required = false)
+                                           @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                           @RequestParam(required = false)
+                                           @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return itemService.getAvailability(itemId, from, to);
     }
 
     @GetMapping("/search")
-    public List<ItemDto> search(@RequestParam(name = "text") String text) {
-        return itemService.search(text.toLowerCase());
+    public List<ItemDto> search(@RequestParam(name = "text") String text,
+                                @RequestParam(required = false) ItemSort sort,
+                                @RequestParam(defaultValue = "false") boolean fuzzy) {
+        return fuzzy
+                ? itemService.searchFuzzy(text.toLowerCase(), null, null, sort)
+                : itemService.search(text.toLowerCase(), null, null, sort);
+    }
+
+    @GetMapping(path = "/search", params = {"from", "to"})
+    public List<ItemDto> searchAvailable(@RequestParam(name = "text") String text,
+                                         @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                         @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                         @RequestParam(required = false) ItemSort sort,
+                                         @RequestParam(defaultValue = "false") boolean fuzzy) {
+        return fuzzy
+                ? itemService.searchFuzzy(text.toLowerCase(), from, to, sort)
+                : itemService.search(text.toLowerCase(), from, to, sort);
+    }
+
+    @GetMapping("/suggest")
+    public List<ItemSuggestionDto> suggest(@RequestParam String prefix,
+                                           @RequestParam(defaultValue = "10") int limit) {
+        return itemService.suggest(prefix, limit);
+    }
+
+    @GetMapping("/search/faceted")
+    public ItemSearchDto searchFaceted(@RequestParam(name = "text") String text,
+                                       @RequestParam(required = false) List<String> tags,
+                                       @RequestParam(required = false)
+                                       @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                       @RequestParam(required = false)
+                                       @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                       @RequestParam(required = false) ItemSort sort) {
+        return itemService.searchFaceted(text.toLowerCase(), tags, from, to, sort);
     }
 
     @PostMapping("/{itemId}/comment")
@@ -53,4 +120,11 @@ public class ItemController {
                                  @RequestHeader("X-Sharer-User-Id") Long userId) {
         return itemService.addComment(commentDto, itemId, userId);
     }
+
+    @GetMapping("/{itemId}/comments")
+    public List<CommentDto> getComments(@PathVariable Long itemId,
+                                        @RequestParam(required = false) Long afterId,
+                                        @RequestParam(defaultValue = "10") int size) {
+        return itemService.getComments(itemId, afterId, size);
+    }
 }
@@ -0,0 +1,45 @@
+package ru.practicum.server.item.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AvailabilityDto {
+    private Long itemId;
+    private LocalDate from;
+    private LocalDate to;
+    private List<Interval> intervals;
+
+    /**
+     * Непрерывный отрезок дней [start, end] с одинаковым состоянием, обе границы включительно.
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Interval {
+        private LocalDate start;
+        private LocalDate end;
+        private DayState state;
+    }
+
+    public enum DayState {
+        FREE,
+        /**
+         * Есть бронь, ожидающая решения владельца.
+         */
+        PENDING,
+        /**
+         * Есть одобренная бронь.
+         */
+        BUSY
+    }
+}
@@ -3,6 +3,7 @@ package ru.practicum.server.item.dto;
 import lombok.*;
 
 import java.util.List;
+import java.util.Set;
 
 /**
  * TODO Sprint add-controllers.
@@ -19,8 +20,13 @@ public class ItemDto {
     private String description;
     private Boolean available;
     private Long requestId;
+    private Set<String> tags;
+    private Long version;
 
     private BookingShort lastBooking;
     private BookingShort nextBooking;
     private List<CommentDto> comments;
+    private Long commentsCount;
+    private Long viewsCount;
+    private Long bookingsCount;
 }
@@ -0,0 +1,21 @@
+package ru.practicum.server.item.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Выдача поиска с фасетами: сколько найденных вещей несет каждый тег.
+ */
+@Getter
+@Builder
+@ToString
+@AllArgsConstructor
+public class ItemSearchDto {
+    private List<ItemDto> items;
+    private Map<String, Integer> facets;
+}
@@ -0,0 +1,9 @@
+package ru.practicum.server.item.dto;
+
+/**
+ * Порядок выдачи поиска: по просмотрам или по числу броней, от больших к меньшим.
+ */
+public enum ItemSort {
+    VIEWS,
+    BOOKINGS
+}
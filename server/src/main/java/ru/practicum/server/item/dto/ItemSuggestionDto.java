@@ -0,0 +1,16 @@
+package ru.practicum.server.item.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter
+@Builder
+@ToString
+@AllArgsConstructor
+public class ItemSuggestionDto {
+    private Long id;
+    private String name;
+    private Boolean available;
+}
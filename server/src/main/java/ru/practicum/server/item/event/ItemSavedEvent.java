@@ -0,0 +1,10 @@
+package ru.practicum.server.item.event;
+
+import ru.practicum.server.item.model.Item;
+
+/**
+ * Публикуется после сохранения вещи (создание или обновление) — по нему обновляются
+ * производные in-memory структуры, например лента запросов.
+ */
+public record ItemSavedEvent(Item item, boolean created) {
+}
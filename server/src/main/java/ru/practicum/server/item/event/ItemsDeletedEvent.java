@@ -0,0 +1,10 @@
+package ru.practicum.server.item.event;
+
+import java.util.List;
+
+/**
+ * Публикуется после пакетного удаления вещей в обход JPA — по нему вещи убираются
+ * из in-memory индексов.
+ */
+public record ItemsDeletedEvent(List<Long> itemIds) {
+}
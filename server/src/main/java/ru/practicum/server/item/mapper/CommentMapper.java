@@ -14,7 +14,7 @@ public class CommentMapper {
         return CommentDto.builder()
                 .id(comment.getId())
                 .text(comment.getText())
-                .authorName(comment.getAuthor().getName())
+                .authorName(comment.getAuthorName() != null ? comment.getAuthorName() : comment.getAuthor().getName())
                 .created(comment.getCreated())
                 .build();
     }
@@ -25,6 +25,7 @@ public class CommentMapper {
                 .text(dto.getText())
                 .item(item)
                 .author(author)
+                .authorName(author.getName())
                 .created(dto.getCreated() != null ? dto.getCreated() : java.time.LocalDateTime.now())
                 .build();
     }
@@ -5,6 +5,11 @@ import ru.practicum.server.item.dto.ItemDto;
 import ru.practicum.server.item.model.Item;
 import ru.practicum.server.user.model.User;
 
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.TreeSet;
+
 @Component
 public class ItemMapper {
     public ItemDto itemToDto(Item item) {
@@ -14,6 +19,8 @@ public class ItemMapper {
                 .description(item.getDescription())
                 .available(item.getAvailable())
                 .requestId(item.getItemRequest() != null ? item.getItemRequest().getId() : null)
+                .tags(new TreeSet<>(item.getTags()))
+                .version(item.getVersion())
                 .build();
     }
 
@@ -24,6 +31,18 @@ public class ItemMapper {
                 .description(dto.getDescription())
                 .available(dto.getAvailable())
                 .owner(owner)
+                .tags(normalizeTags(dto.getTags()))
                 .build();
     }
+
+    public Set<String> normalizeTags(Collection<String> tags) {
+        Set<String> result = new HashSet<>();
+        if (tags != null) {
+            tags.stream()
+                    .filter(tag -> tag != null && !tag.isBlank())
+                    .map(tag -> tag.trim().toLowerCase())
+                    .forEach(result::add);
+        }
+        return result;
+    }
 }
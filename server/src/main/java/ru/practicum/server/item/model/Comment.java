@@ -14,8 +14,13 @@ import java.time.LocalDateTime;
 @Getter
 @Table(name = "comments")
 public class Comment {
+    /**
+     * Id выдаются блоками из comments_seq (pooled-lo) — из той же последовательности берет id
+     * и отложенная запись комментариев, см. CommentIdPool.
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "comments_seq")
+    @SequenceGenerator(name = "comments_seq", sequenceName = "comments_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -29,6 +34,12 @@ public class Comment {
     @JoinColumn(name = "author_id", nullable = false)
     private User author;
 
+    /**
+     * Имя автора на момент отзыва: списки комментариев не ходят в users.
+     */
+    @Column(name = "author_name")
+    private String authorName;
+
     @Column(name = "created_at", nullable = false)
     @Builder.Default
     private LocalDateTime created = LocalDateTime.now();
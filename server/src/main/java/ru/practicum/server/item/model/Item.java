@@ -2,9 +2,14 @@ package ru.practicum.server.item.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.DynamicUpdate;
 import ru.practicum.server.request.model.ItemRequest;
 import ru.practicum.server.user.model.User;
 
+import java.util.HashSet;
+import java.util.Set;
+
 /**
  * TODO Sprint add-controllers.
  */
@@ -13,6 +18,7 @@ import ru.practicum.server.user.model.User;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
+@DynamicUpdate
 @Setter
 @Getter
 @Table(name = "items")
@@ -38,4 +44,21 @@ public class Item {
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "item_request_id")
     private ItemRequest itemRequest;
+
+    /**
+     * Теги в нижнем регистре. Нужны почти везде, где отдается вещь, поэтому грузятся сразу,
+     * для списков — пачками одним запросом на пачку.
+     */
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "item_tags", joinColumns = @JoinColumn(name = "item_id"))
+    @Column(name = "tag", length = 50)
+    @BatchSize(size = 100)
+    @Builder.Default
+    private Set<String> tags = new HashSet<>();
+
+    /**
+     * Номер версии для оптимистической блокировки; наружу отдается как ETag.
+     */
+    @Version
+    private Long version;
 }
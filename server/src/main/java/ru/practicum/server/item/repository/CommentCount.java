@@ -0,0 +1,7 @@
+package ru.practicum.server.item.repository;
+
+public interface CommentCount {
+    Long getItemId();
+
+    long getTotal();
+}
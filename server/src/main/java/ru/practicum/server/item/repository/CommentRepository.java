@@ -1,12 +1,49 @@
 package ru.practicum.server.item.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import ru.practicum.server.item.model.Comment;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface CommentRepository extends JpaRepository<Comment, Long> {
-    List<Comment> findAllByItem_IdOrderByCreatedDesc(Long itemId);
+    /**
+     * Сколько последних комментариев отдается вместе с вещью; остальные — через /items/{id}/comments.
+     */
+    int PREVIEW_SIZE = 10;
 
-    List<Comment> findAllByItem_IdIn(List<Long> itemIds);
+    List<Comment> findByItem_IdOrderByCreatedDescIdDesc(Long itemId, Pageable pageable);
+
+    /**
+     * Keyset-страница комментариев вещи: всё, что строго раньше (created, id) последнего показанного.
+     */
+    @Query("select c from Comment c "
+            + "where c.item.id = :itemId "
+            + "and (c.created < :created or (c.created = :created and c.id < :id)) "
+            + "order by c.created desc, c.id desc")
+    List<Comment> findByItemIdBefore(@Param("itemId") Long itemId,
+                                     @Param("created") LocalDateTime created,
+                                     @Param("id") Long id,
+                                     Pageable pageable);
+
+    /**
+     * Не больше limit последних комментариев каждой из вещей.
+     */
+    @Query(value = "select t.id, t.text, t.item_id, t.author_id, t.author_name, t.created_at "
+            + "from (select c.*, row_number() over (partition by c.item_id "
+            + "                                     order by c.created_at desc, c.id desc) as rn "
+            + "      from comments c where c.item_id in (:itemIds)) t "
+            + "where t.rn <= :limit "
+            + "order by t.item_id, t.created_at desc, t.id desc", nativeQuery = true)
+    List<Comment> findLatestByItemIdIn(@Param("itemIds") Collection<Long> itemIds, @Param("limit") int limit);
+
+    long countByItem_Id(Long itemId);
+
+    @Query("select c.item.id as itemId, count(c) as total from Comment c "
+            + "where c.item.id in :itemIds group by c.item.id")
+    List<CommentCount> countByItemIdIn(@Param("itemIds") Collection<Long> itemIds);
 }
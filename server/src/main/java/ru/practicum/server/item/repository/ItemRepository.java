@@ -1,18 +1,41 @@
 package ru.practicum.server.item.repository;
 
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import ru.practicum.server.item.model.Item;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 public interface ItemRepository extends JpaRepository<Item, Long> {
     List<Item> findAllByOwnerId(Long id);
 
+    /**
+     * Вещи владельца по id, начиная с позиции offset: from из запроса — смещение, а не начало страницы.
+     */
+    @Query(value = "select * from items where owner_id = :ownerId order by id limit :limit offset :offset",
+            nativeQuery = true)
+    List<Item> findAllByOwnerIdFrom(@Param("ownerId") Long ownerId, @Param("offset") int offset, @Param("limit") int limit);
+
     List<Item> findByDescriptionContainingIgnoreCaseOrNameContainingIgnoreCaseAndAvailableTrue(String description, String name);
 
     List<Item> findAllByItemRequestId(Long itemRequestId);
 
     List<Item> findAllByItemRequestIdIn(Collection<Long> itemRequestIds);
 
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "100"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    Stream<Item> streamAllByOwnerIdOrderByIdAsc(Long ownerId);
+
+    /**
+     * Владелец вещи помечен удаленным: вещь еще лежит в таблице, но ждет UserDeletionPipeline.
+     */
+    @Query("select count(i) > 0 from Item i where i.id = :id and i.owner.deletedAt is not null")
+    boolean isOwnerDeleted(@Param("id") Long id);
 }
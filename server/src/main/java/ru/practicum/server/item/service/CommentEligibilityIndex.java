@@ -0,0 +1,148 @@
+package ru.practicum.server.item.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.practicum.server.booking.model.BookingStatus;
+import ru.practicum.server.booking.repository.ArchivedBookingRepository;
+import ru.practicum.server.booking.repository.BookerItem;
+import ru.practicum.server.booking.repository.BookingRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Пары (арендатор, вещь) с завершенной одобренной бронью — кто уже может оставить отзыв.
+ * Пара кодируется одним long (id арендатора в старших 32 битах, id вещи в младших) и хранится
+ * в хэш-таблице с открытой адресацией без упаковки в Long. Индекс прогревается при старте
+ * из bookings и bookings_archive и раз в refresh-interval дополняется бронями, закончившимися
+ * с прошлого прохода. Закончившаяся одобренная бронь остается такой навсегда, поэтому индекс
+ * только растет. Промах не означает отказ: ItemServiceImpl тогда спрашивает базу и
+ * запоминает положительный ответ. Индекс локален для узла.
+ */
+@Slf4j
+@Component
+public class CommentEligibilityIndex {
+    private final BookingRepository bookingRepository;
+    private final ArchivedBookingRepository archivedBookingRepository;
+
+    private final LongHashSet pairs = new LongHashSet();
+    private volatile LocalDateTime refreshedUntil;
+
+    public CommentEligibilityIndex(BookingRepository bookingRepository,
+                                   ArchivedBookingRepository archivedBookingRepository) {
+        this.bookingRepository = bookingRepository;
+        this.archivedBookingRepository = archivedBookingRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        LocalDateTime now = LocalDateTime.now();
+        addAll(archivedBookingRepository.findBookerItemsByStatus(BookingStatus.APPROVED));
+        addAll(bookingRepository.findBookerItemsByStatusAndEndBefore(BookingStatus.APPROVED, now));
+        refreshedUntil = now;
+        log.info("Индекс права на отзыв построен, пар={}", pairs.size());
+    }
+
+    /**
+     * Добавляет брони, закончившиеся после прошлого прохода.
+     */
+    @Scheduled(initialDelayString = "${shareit.comments.eligibility.refresh-interval:60000}",
+            fixedDelayString = "${shareit.comments.eligibility.refresh-interval:60000}")
+    public void refresh() {
+        LocalDateTime from = refreshedUntil;
+        if (from == null) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        addAll(bookingRepository.findBookerItemsByStatusAndEndBetween(BookingStatus.APPROVED, from, now));
+        refreshedUntil = now;
+    }
+
+    public boolean contains(long bookerId, long itemId) {
+        long key = key(bookerId, itemId);
+        return key != 0 && pairs.contains(key);
+    }
+
+    public void add(long bookerId, long itemId) {
+        long key = key(bookerId, itemId);
+        if (key != 0) {
+            pairs.add(key);
+        }
+    }
+
+    private void addAll(List<BookerItem> found) {
+        found.forEach(pair -> add(pair.getBookerId(), pair.getItemId()));
+    }
+
+    /**
+     * 0 — пара не помещается в long, такие id индекс не хранит.
+     */
+    private static long key(long bookerId, long itemId) {
+        if (bookerId <= 0 || itemId <= 0 || bookerId > 0xFFFFFFFFL || itemId > 0xFFFFFFFFL) {
+            return 0;
+        }
+        return bookerId << 32 | itemId;
+    }
+
+    /**
+     * Множество ненулевых long на открытой адресации с линейным пробированием; 0 — пустая ячейка.
+     */
+    private static final class LongHashSet {
+        private long[] table = new long[1 << 10];
+        private int size;
+
+        synchronized boolean contains(long key) {
+            int mask = table.length - 1;
+            for (int i = index(key, mask); ; i = (i + 1) & mask) {
+                long current = table[i];
+                if (current == key) {
+                    return true;
+                }
+                if (current == 0) {
+                    return false;
+                }
+            }
+        }
+
+        synchronized void add(long key) {
+            if (insert(table, key)) {
+                size++;
+                if (size * 2 > table.length) {
+                    long[] grown = new long[table.length * 2];
+                    for (long old : table) {
+                        if (old != 0) {
+                            insert(grown, old);
+                        }
+                    }
+                    table = grown;
+                }
+            }
+        }
+
+        synchronized int size() {
+            return size;
+        }
+
+        private static boolean insert(long[] target, long key) {
+            int mask = target.length - 1;
+            for (int i = index(key, mask); ; i = (i + 1) & mask) {
+                long current = target[i];
+                if (current == key) {
+                    return false;
+                }
+                if (current == 0) {
+                    target[i] = key;
+                    return true;
+                }
+            }
+        }
+
+        private static int index(long key, int mask) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32)) & mask;
+        }
+    }
+}
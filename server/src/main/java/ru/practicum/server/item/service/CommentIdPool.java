@@ -0,0 +1,53 @@
+package ru.practicum.server.item.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import ru.practicum.server.common.Database;
+
+/**
+ * Id комментариев для отложенной записи. Берутся из comments_seq так же, как их берет Hibernate
+ * для Comment (pooled-lo): одно обращение к последовательности резервирует ALLOCATION_SIZE id
+ * подряд, так что блоки узла и блоки Hibernate не пересекаются.
+ */
+@Component
+@RequiredArgsConstructor
+public class CommentIdPool {
+    public static final int ALLOCATION_SIZE = 50;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Database database;
+
+    private long next;
+    private long limit;
+
+    /**
+     * Раньше id выдавала identity-колонка: новая последовательность на базе с комментариями
+     * один раз переносится за max(id). На H2 схема всегда свежая.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void alignWithExistingRows() {
+        if (!database.isPostgres()) {
+            return;
+        }
+        jdbcTemplate.queryForList("select setval('comments_seq', (select max(id) + 1 from comments), false) "
+                + "where not (select is_called from comments_seq) "
+                + "and exists (select 1 from comments)");
+    }
+
+    public synchronized long nextId() {
+        if (next == limit) {
+            Long lo = jdbcTemplate.queryForObject(database.isPostgres()
+                    ? "select nextval('comments_seq')"
+                    : "select next value for comments_seq", Long.class);
+            if (lo == null) {
+                throw new IllegalStateException("Последовательность comments_seq не вернула значение");
+            }
+            next = lo;
+            limit = lo + ALLOCATION_SIZE;
+        }
+        return next++;
+    }
+}
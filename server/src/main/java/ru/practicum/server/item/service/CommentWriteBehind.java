@@ -0,0 +1,290 @@
+package ru.practicum.server.item.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.server.item.dto.CommentDto;
+import ru.practicum.server.item.model.Comment;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Stream;
+
+/**
+ * Отложенная запись комментариев (shareit.comments.write-behind.enabled).
+ * Проверенный комментарий получает id из CommentIdPool, кладется в ограниченную очередь и сразу
+ * возвращается клиенту; фоновый поток раз в flush-interval пишет очередь в comments пачками
+ * JDBC batch по batch-size строк, каждую пачку — одной транзакцией. Пока строка не записана,
+ * комментарий виден в карточке вещи через pending. Вставка идемпотентна по id, поэтому пачку
+ * после ошибки можно просто повторить. Если очередь полна, offer возвращает false и комментарий
+ * пишется обычным путем. При остановке очередь дописывается в базу, а если база недоступна —
+ * в spool-file, который перечитывается при следующем старте. Если и тогда база недоступна, файл
+ * остается на месте, а поток записи повторяет его чтение раз в flush-interval, пока не получится.
+ */
+@Slf4j
+@Component
+public class CommentWriteBehind {
+    private static final String INSERT = "insert into comments (id, text, item_id, author_id, author_name, created_at) "
+            + "select ?, ?, ?, ?, ?, ? where not exists (select 1 from comments where id = ?) "
+            // Вещь или автор могли быть удалены UserDeletionPipeline, пока комментарий ждал в очереди.
+            + "and exists (select 1 from items i join users o on o.id = i.owner_id where i.id = ? and o.deleted_at is null) "
+            + "and exists (select 1 from users where id = ? and deleted_at is null)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CommentIdPool idPool;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int batchSize;
+    private final long flushIntervalMillis;
+    private final Path spoolFile;
+
+    private final BlockingQueue<Pending> queue;
+    private final Map<Long, ConcurrentSkipListMap<Long, Pending>> pendingByItem = new ConcurrentHashMap<>();
+    private final List<Pending> inFlight = new ArrayList<>();
+    private volatile Thread writer;
+    private volatile boolean spoolReplayed;
+
+    public CommentWriteBehind(JdbcTemplate jdbcTemplate,
+                              CommentIdPool idPool,
+                              ObjectMapper objectMapper,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${shareit.comments.write-behind.enabled:false}") boolean enabled,
+                              @Value("${shareit.comments.write-behind.capacity:10000}") int capacity,
+                              @Value("${shareit.comments.write-behind.batch-size:500}") int batchSize,
+                              @Value("${shareit.comments.write-behind.flush-interval:100}") long flushIntervalMillis,
+                              @Value("${shareit.comments.write-behind.spool-file:comments-spool.jsonl}") String spoolFile) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.idPool = idPool;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.spoolFile = Path.of(spoolFile);
+        this.queue = new ArrayBlockingQueue<>(capacity);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Дописывает в базу то, что не успело уйти при прошлой остановке, и запускает поток записи.
+     * Поток нужен и при выключенном режиме, если spool-file пока не удалось дописать.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        spoolReplayed = replaySpool();
+        if (!enabled && spoolReplayed) {
+            return;
+        }
+        writer = Thread.ofPlatform().name("comment-writer").daemon().start(this::writeLoop);
+        if (enabled) {
+            log.info("Отложенная запись комментариев включена");
+        }
+    }
+
+    /**
+     * Назначает комментарию id и ставит его в очередь; false — режим выключен или очередь полна.
+     */
+    public boolean offer(Comment comment) {
+        if (!enabled || queue.remainingCapacity() == 0) {
+            return false;
+        }
+        comment.setId(idPool.nextId());
+        Pending pending = new Pending(comment.getId(), comment.getItem().getId(), comment.getAuthor().getId(),
+                comment.getAuthorName(), comment.getText(), comment.getCreated());
+        pendingByItem.compute(pending.itemId(), (itemId, byId) -> {
+            ConcurrentSkipListMap<Long, Pending> result = byId != null ? byId : new ConcurrentSkipListMap<>();
+            result.put(pending.id(), pending);
+            return result;
+        });
+        if (!queue.offer(pending)) {
+            forget(pending);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Еще не записанные комментарии вещи, от новых к старым.
+     */
+    public List<CommentDto> pending(long itemId) {
+        Map<Long, Pending> byId = pendingByItem.get(itemId);
+        if (byId == null) {
+            return List.of();
+        }
+        return byId.values().stream()
+                .sorted(Comparator.comparing(Pending::created).thenComparing(Pending::id).reversed())
+                .map(Pending::toDto)
+                .toList();
+    }
+
+    /**
+     * Пишет все, что сейчас в очереди.
+     */
+    public void flush() {
+        while (flushBatch()) {
+            log.debug("Пачка отложенных комментариев записана");
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        Thread current = writer;
+        if (current != null) {
+            current.interrupt();
+            try {
+                current.join(flushIntervalMillis * 10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        try {
+            flush();
+        } catch (DataAccessException e) {
+            log.error("Не удалось дописать комментарии при остановке, сохраняем в {}", spoolFile, e);
+            spool();
+        }
+    }
+
+    private void writeLoop() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                if (!spoolReplayed) {
+                    spoolReplayed = replaySpool();
+                    if (!spoolReplayed) {
+                        Thread.sleep(flushIntervalMillis);
+                        continue;
+                    }
+                    if (!enabled) {
+                        return;
+                    }
+                }
+                if (!flushBatch()) {
+                    Thread.sleep(flushIntervalMillis);
+                }
+            } catch (InterruptedException e) {
+                return;
+            } catch (DataAccessException e) {
+                log.warn("Пачка комментариев не записана, повтор через {} мс", flushIntervalMillis, e);
+                try {
+                    Thread.sleep(flushIntervalMillis);
+                } catch (InterruptedException ie) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Неудачная пачка остается в inFlight и повторяется следующим вызовом.
+     */
+    private synchronized boolean flushBatch() {
+        if (inFlight.isEmpty()) {
+            queue.drainTo(inFlight, batchSize);
+        }
+        if (inFlight.isEmpty()) {
+            return false;
+        }
+        write(inFlight);
+        inFlight.forEach(this::forget);
+        inFlight.clear();
+        return true;
+    }
+
+    private void write(List<Pending> batch) {
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT, batch, batch.size(),
+                (ps, p) -> {
+                    ps.setLong(1, p.id());
+                    ps.setString(2, p.text());
+                    ps.setLong(3, p.itemId());
+                    ps.setLong(4, p.authorId());
+                    ps.setString(5, p.authorName());
+                    ps.setObject(6, p.created());
+                    ps.setLong(7, p.id());
+                    ps.setLong(8, p.itemId());
+                    ps.setLong(9, p.authorId());
+                }));
+    }
+
+    private void forget(Pending pending) {
+        pendingByItem.computeIfPresent(pending.itemId(), (itemId, byId) -> {
+            byId.remove(pending.id());
+            return byId.isEmpty() ? null : byId;
+        });
+    }
+
+    private synchronized void spool() {
+        List<Pending> rest = new ArrayList<>(inFlight);
+        queue.drainTo(rest);
+        try (BufferedWriter out = Files.newBufferedWriter(spoolFile,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            for (Pending pending : rest) {
+                out.write(objectMapper.writeValueAsString(pending));
+                out.newLine();
+            }
+        } catch (IOException e) {
+            log.error("Потеряно комментариев: {}", rest.size(), e);
+        }
+    }
+
+    /**
+     * false — база недоступна, файл оставлен для повтора; ошибка чтения файла повтором не лечится и дает true.
+     */
+    private boolean replaySpool() {
+        if (!Files.exists(spoolFile)) {
+            return true;
+        }
+        try (Stream<String> lines = Files.lines(spoolFile)) {
+            List<Pending> spooled = lines.filter(line -> !line.isBlank())
+                    .map(line -> {
+                        try {
+                            return objectMapper.readValue(line, Pending.class);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    })
+                    .toList();
+            for (int from = 0; from < spooled.size(); from += batchSize) {
+                write(spooled.subList(from, Math.min(spooled.size(), from + batchSize)));
+            }
+            Files.delete(spoolFile);
+            log.info("Дописаны комментарии из {}: {}", spoolFile, spooled.size());
+        } catch (IOException | UncheckedIOException e) {
+            log.error("Не удалось прочитать {}", spoolFile, e);
+        } catch (DataAccessException e) {
+            log.warn("Комментарии из {} не дописаны, повтор через {} мс", spoolFile, flushIntervalMillis, e);
+            return false;
+        }
+        return true;
+    }
+
+    record Pending(long id, long itemId, long authorId, String authorName, String text, LocalDateTime created) {
+        CommentDto toDto() {
+            return CommentDto.builder().id(id).text(text).authorName(authorName).created(created).build();
+        }
+    }
+}
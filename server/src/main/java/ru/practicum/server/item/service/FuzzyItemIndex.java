@@ -0,0 +1,336 @@
+package ru.practicum.server.item.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.server.common.ItemBits;
+import ru.practicum.server.item.event.ItemSavedEvent;
+import ru.practicum.server.item.event.ItemsDeletedEvent;
+import ru.practicum.server.item.model.Item;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Поиск с опечатками по словам названия и описания вещей.
+ * Каждое различное слово получает int-номер; на пары (длина слова, триграмма) с границами "$слово$"
+ * заведены списки номеров слов, на длины — списки всех слов этой длины, на слова — списки id вещей,
+ * все в int[] без упаковки. Кандидаты для слова запроса берутся только из длин в пределах maxEdits.
+ * Среди них нужны слова, делящие с запросом не меньше |триграммы| - 3 * maxEdits триграмм; у коротких
+ * слов этот порог не больше единицы и ничего не отсекает (а при нуле пропустил бы слова без общих
+ * триграмм), поэтому для них перебираются все слова подходящих длин. Каждый кандидат проверяется
+ * расстоянием Левенштейна с отсечкой по maxEdits. Вещь подходит, если
+ * для каждого слова запроса в ней нашлось близкое слово; ранг — сумма расстояний.
+ * Словарь только растет: слово остается в нем и без вещей. Вещи с id вне int не индексируются
+ * и находятся только точным поиском. Индекс локален для узла.
+ */
+@Slf4j
+@Component
+public class FuzzyItemIndex {
+    public static final int MAX_EDITS = 2;
+    private static final int SHORT_WORD = 4;
+    private static final int MIN_FUZZY_WORD = 3;
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Integer> wordIds = new HashMap<>();
+    private final List<String> words = new ArrayList<>();
+    private final List<IntList> itemsByWord = new ArrayList<>();
+    private final Map<Long, IntList> wordsByTrigram = new HashMap<>();
+    private final List<IntList> wordsByLength = new ArrayList<>();
+    private final Map<Integer, int[]> wordsByItem = new HashMap<>();
+
+    public FuzzyItemIndex(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        jdbcTemplate.query("select id, name, description from items", rs -> {
+            put(rs.getLong("id"), Arrays.asList(rs.getString("name"), rs.getString("description")));
+        });
+        log.info("Индекс нечеткого поиска построен, вещей={}, слов={}", wordsByItem.size(), words.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemSaved(ItemSavedEvent event) {
+        Item item = event.item();
+        put(item.getId(), Arrays.asList(item.getName(), item.getDescription()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemsDeleted(ItemsDeletedEvent event) {
+        event.itemIds().forEach(this::remove);
+    }
+
+    public void remove(long itemId) {
+        put(itemId, List.of());
+    }
+
+    /**
+     * Вещи, близкие к тексту запроса, по возрастанию суммы правок, не больше limit.
+     */
+    public List<Match> find(String text, int limit) {
+        List<Match> all = find(text);
+        return all.subList(0, Math.min(all.size(), limit));
+    }
+
+    /**
+     * Все вещи, близкие к тексту запроса, по возрастанию суммы правок.
+     */
+    public List<Match> find(String text) {
+        List<String> query = new ArrayList<>(new LinkedHashSet<>(words(text)));
+        if (query.isEmpty()) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            Map<Integer, Integer> distances = null;
+            for (String word : query) {
+                Map<Integer, Integer> matched = itemsNear(word);
+                if (distances == null) {
+                    distances = matched;
+                } else {
+                    Map<Integer, Integer> both = new HashMap<>();
+                    for (Map.Entry<Integer, Integer> entry : distances.entrySet()) {
+                        Integer d = matched.get(entry.getKey());
+                        if (d != null) {
+                            both.put(entry.getKey(), entry.getValue() + d);
+                        }
+                    }
+                    distances = both;
+                }
+                if (distances.isEmpty()) {
+                    return List.of();
+                }
+            }
+            return distances.entrySet().stream()
+                    .map(entry -> new Match(entry.getKey(), entry.getValue()))
+                    .sorted(Comparator.comparingInt(Match::distance).thenComparingLong(Match::itemId))
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Вещь → наименьшее число правок, с которым в ней нашлось слово.
+     */
+    private Map<Integer, Integer> itemsNear(String word) {
+        Map<Integer, Integer> result = new HashMap<>();
+        if (word.length() < MIN_FUZZY_WORD) {
+            Integer id = wordIds.get(word);
+            if (id != null) {
+                addItems(result, id, 0);
+            }
+            return result;
+        }
+        int maxEdits = word.length() <= SHORT_WORD ? 1 : MAX_EDITS;
+        long[] grams = trigrams(word);
+        int required = grams.length - 3 * maxEdits;
+        int minLength = Math.max(1, word.length() - maxEdits);
+        int maxLength = Math.min(wordsByLength.size() - 1, word.length() + maxEdits);
+
+        if (required <= 1) {
+            for (int length = minLength; length <= maxLength; length++) {
+                IntList bucket = wordsByLength.get(length);
+                for (int i = 0; i < bucket.size; i++) {
+                    int distance = distance(word, words.get(bucket.values[i]), maxEdits);
+                    if (distance <= maxEdits) {
+                        addItems(result, bucket.values[i], distance);
+                    }
+                }
+            }
+            return result;
+        }
+
+        int total = 0;
+        List<IntList> postings = new ArrayList<>();
+        for (int length = minLength; length <= maxLength; length++) {
+            for (long gram : grams) {
+                IntList posting = wordsByTrigram.get(key(length, gram));
+                if (posting != null) {
+                    postings.add(posting);
+                    total += posting.size;
+                }
+            }
+        }
+        int[] all = new int[total];
+        int at = 0;
+        for (IntList posting : postings) {
+            System.arraycopy(posting.values, 0, all, at, posting.size);
+            at += posting.size;
+        }
+        Arrays.sort(all);
+
+        for (int i = 0; i < all.length; ) {
+            int candidate = all[i];
+            int shared = 0;
+            while (i < all.length && all[i] == candidate) {
+                shared++;
+                i++;
+            }
+            if (shared < required) {
+                continue;
+            }
+            int distance = distance(word, words.get(candidate), maxEdits);
+            if (distance <= maxEdits) {
+                addItems(result, candidate, distance);
+            }
+        }
+        return result;
+    }
+
+    private void addItems(Map<Integer, Integer> result, int wordId, int distance) {
+        IntList items = itemsByWord.get(wordId);
+        for (int i = 0; i < items.size; i++) {
+            result.merge(items.values[i], distance, Math::min);
+        }
+    }
+
+    private void put(long itemId, List<String> texts) {
+        if (!ItemBits.fits(itemId)) {
+            return;
+        }
+        int item = (int) itemId;
+        lock.writeLock().lock();
+        try {
+            int[] previous = wordsByItem.remove(item);
+            if (previous != null) {
+                for (int wordId : previous) {
+                    itemsByWord.get(wordId).remove(item);
+                }
+            }
+            Set<String> itemWords = new LinkedHashSet<>();
+            texts.forEach(text -> itemWords.addAll(words(text)));
+            int[] current = itemWords.stream().mapToInt(this::wordId).toArray();
+            for (int wordId : current) {
+                itemsByWord.get(wordId).add(item);
+            }
+            if (current.length > 0) {
+                wordsByItem.put(item, current);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private int wordId(String word) {
+        Integer known = wordIds.get(word);
+        if (known != null) {
+            return known;
+        }
+        int id = words.size();
+        wordIds.put(word, id);
+        words.add(word);
+        itemsByWord.add(new IntList());
+        while (wordsByLength.size() <= word.length()) {
+            wordsByLength.add(new IntList());
+        }
+        wordsByLength.get(word.length()).add(id);
+        // Номера слов растут, поэтому списки триграмм остаются отсортированными.
+        for (long gram : trigrams(word)) {
+            wordsByTrigram.computeIfAbsent(key(word.length(), gram), k -> new IntList()).add(id);
+        }
+        return id;
+    }
+
+    /**
+     * Триграмма занимает 48 младших бит, длина слова — старшие.
+     */
+    private static long key(int length, long gram) {
+        return (long) length << 48 | gram;
+    }
+
+    private static long[] trigrams(String word) {
+        String padded = "$" + word + "$";
+        Set<Long> grams = new LinkedHashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            grams.add((long) padded.charAt(i) << 32 | (long) padded.charAt(i + 1) << 16 | padded.charAt(i + 2));
+        }
+        return grams.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    /**
+     * Расстояние Левенштейна; если оно точно больше max, возвращает max + 1.
+     */
+    private static int distance(String a, String b, int max) {
+        int[] prev = new int[b.length() + 1];
+        int[] curr = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            prev[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            curr[0] = i;
+            int rowMin = curr[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                curr[j] = Math.min(Math.min(curr[j - 1] + 1, prev[j] + 1), prev[j - 1] + cost);
+                rowMin = Math.min(rowMin, curr[j]);
+            }
+            if (rowMin > max) {
+                return max + 1;
+            }
+            int[] swap = prev;
+            prev = curr;
+            curr = swap;
+        }
+        return Math.min(prev[b.length()], max + 1);
+    }
+
+    private static List<String> words(String text) {
+        List<String> result = new ArrayList<>();
+        if (text == null) {
+            return result;
+        }
+        for (String word : SEPARATORS.split(text.toLowerCase(Locale.ROOT).replace('ё', 'е'))) {
+            if (!word.isEmpty()) {
+                result.add(word);
+            }
+        }
+        return result;
+    }
+
+    public record Match(long itemId, int distance) {
+    }
+
+    /**
+     * Растущий int[]; add дописывает в конец, remove сдвигает хвост.
+     */
+    private static final class IntList {
+        private int[] values = new int[4];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        void remove(int value) {
+            for (int i = 0; i < size; i++) {
+                if (values[i] == value) {
+                    System.arraycopy(values, i + 1, values, i, size - i - 1);
+                    size--;
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package ru.practicum.server.item.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.server.booking.repository.ArchivedBookingRepository;
+import ru.practicum.server.booking.repository.BookingRepository;
+import ru.practicum.server.common.ConnectionLimiter;
+import ru.practicum.server.exception.NotFoundException;
+import ru.practicum.server.item.dto.BookingShort;
+import ru.practicum.server.item.dto.CommentDto;
+import ru.practicum.server.item.mapper.CommentMapper;
+import ru.practicum.server.item.model.Item;
+import ru.practicum.server.item.repository.CommentRepository;
+import ru.practicum.server.item.repository.ItemRepository;
+import ru.practicum.server.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Параллельная загрузка карточки вещи: проверка пользователя, вещь, последние комментарии и их число,
+ * последняя и следующая брони
+ * запрашиваются одновременно, каждый запрос на виртуальном потоке в своей read-only транзакции и на своем
+ * соединении из пула. Время ответа — примерно самый медленный из запросов, а не их сумма.
+ * Брони читаются до того, как стало известно, владелец ли запрашивающий, и для чужих вещей просто отбрасываются.
+ * Одна карточка выполняет одновременно не больше shareit.items.detail-max-queries запросов: столько минус один
+ * уходят на виртуальные потоки, остальные выполняются в вызывающем потоке по очереди. Каждый вынесенный запрос
+ * берет разрешение ConnectionLimiter, общего для узла; если разрешений нет, запрос тоже выполняется в вызывающем
+ * потоке, не дожидаясь их. Под нагрузкой карточка деградирует до последовательного чтения, а не встает в очередь.
+ * Когда ответ уже ясен (например, NotFoundException), незавершенные запросы отменяются с прерыванием потока.
+ * Включается свойством shareit.items.concurrent-detail, по умолчанию ItemServiceImpl читает все последовательно.
+ */
+@Component
+public class ItemDetailLoader {
+    private final UserRepository userRepository;
+    private final ItemRepository itemRepository;
+    private final CommentRepository commentRepository;
+    private final BookingRepository bookingRepository;
+    private final ArchivedBookingRepository archivedBookingRepository;
+    private final CommentMapper commentMapper;
+    private final TransactionTemplate readOnly;
+    private final ConnectionLimiter connectionLimiter;
+    private final boolean enabled;
+    private final int maxQueries;
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public ItemDetailLoader(UserRepository userRepository,
+                            ItemRepository itemRepository,
+                            CommentRepository commentRepository,
+                            BookingRepository bookingRepository,
+                            ArchivedBookingRepository archivedBookingRepository,
+                            CommentMapper commentMapper,
+                            ConnectionLimiter connectionLimiter,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${shareit.items.concurrent-detail:false}") boolean enabled,
+                            @Value("${shareit.items.detail-max-queries:4}") int maxQueries) {
+        this.userRepository = userRepository;
+        this.itemRepository = itemRepository;
+        this.commentRepository = commentRepository;
+        this.bookingRepository = bookingRepository;
+        this.archivedBookingRepository = archivedBookingRepository;
+        this.commentMapper = commentMapper;
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+        this.connectionLimiter = connectionLimiter;
+        this.enabled = enabled;
+        this.maxQueries = maxQueries;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Detail load(long itemId, long requesterId) {
+        LocalDateTime now = LocalDateTime.now();
+        Fan fan = new Fan(maxQueries - 1);
+
+        Future<Boolean> userExists = fan.submit(() -> userRepository.existsById(requesterId));
+        Future<Item> item = fan.submit(() -> itemRepository.findById(itemId).orElse(null));
+        Future<List<CommentDto>> comments = fan.submit(() -> commentRepository
+                .findByItem_IdOrderByCreatedDescIdDesc(itemId, PageRequest.of(0, CommentRepository.PREVIEW_SIZE))
+                .stream()
+                .map(commentMapper::buildDto)
+                .toList());
+        Future<Long> commentsCount = fan.submit(() -> commentRepository.countByItem_Id(itemId));
+        Future<BookingShort> last = fan.submit(() -> bookingRepository
+                .findTop1ByItem_IdAndStartLessThanEqualOrderByStartDesc(itemId, now).stream()
+                .findFirst()
+                .map(b -> new BookingShort(b.getId(), b.getBooker().getId()))
+                .or(() -> archivedBookingRepository.findTop1ByItem_IdOrderByStartDesc(itemId).stream()
+                        .findFirst()
+                        .map(b -> new BookingShort(b.getId(), b.getBooker().getId())))
+                .orElse(null));
+        Future<BookingShort> next = fan.submit(() -> bookingRepository
+                .findTop1ByItem_IdAndStartAfterOrderByStartAsc(itemId, now).stream()
+                .findFirst()
+                .map(b -> new BookingShort(b.getId(), b.getBooker().getId()))
+                .orElse(null));
+
+        try {
+            if (!await(userExists)) {
+                throw new NotFoundException("Пользователь с id=" + requesterId + " не найден");
+            }
+            Item found = await(item);
+            if (found == null) {
+                throw new NotFoundException("Вещь с id=" + itemId + "не найдена");
+            }
+            return new Detail(found, await(comments), await(commentsCount), await(last), await(next));
+        } finally {
+            List.of(userExists, item, comments, commentsCount, last, next).forEach(future -> future.cancel(true));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private <T> T execute(Supplier<T> query) {
+        return readOnly.execute(status -> query.get());
+    }
+
+    private static <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Загрузка карточки вещи прервана", e);
+        }
+    }
+
+    /**
+     * Раздача запросов одной карточки: первые forks уходят на виртуальные потоки, пока есть разрешения.
+     */
+    private class Fan {
+        private int forks;
+
+        Fan(int forks) {
+            this.forks = forks;
+        }
+
+        <T> Future<T> submit(Supplier<T> query) {
+            if (forks > 0 && connectionLimiter.tryAcquire()) {
+                forks--;
+                AtomicBoolean started = new AtomicBoolean();
+                FutureTask<T> task = new FutureTask<>(() -> {
+                    if (!started.compareAndSet(false, true)) {
+                        throw new CancellationException();
+                    }
+                    try {
+                        return execute(query);
+                    } finally {
+                        connectionLimiter.release();
+                    }
+                }) {
+                    @Override
+                    protected void done() {
+                        // Отменен до старта: разрешение взято в submit, и кроме этого места его никто не вернет.
+                        if (started.compareAndSet(false, true)) {
+                            connectionLimiter.release();
+                        }
+                    }
+                };
+                executor.execute(task);
+                return task;
+            }
+            try {
+                return CompletableFuture.completedFuture(execute(query));
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+    }
+
+    public record Detail(Item item, List<CommentDto> comments, long commentsCount, BookingShort last, BookingShort next) {
+    }
+}
@@ -1,20 +1,56 @@
 package ru.practicum.server.item.service;
 
+import ru.practicum.server.item.dto.AvailabilityDto;
 import ru.practicum.server.item.dto.CommentDto;
 import ru.practicum.server.item.dto.ItemDto;
+import ru.practicum.server.item.dto.ItemSearchDto;
+import ru.practicum.server.item.dto.ItemSort;
+import ru.practicum.server.item.dto.ItemSuggestionDto;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface ItemService {
     ItemDto addItem(long ownerId, ItemDto itemDto);
 
     ItemDto updateItem(Long userId, Long itemId, ItemDto itemDto);
 
+    /**
+     * expectedVersion — версия из If-Match; null — без проверки.
+     */
+    ItemDto updateItem(Long userId, Long itemId, ItemDto itemDto, Long expectedVersion);
+
     ItemDto getItemById(Long id, Long requesterId);
 
     List<ItemDto> getAllItems(Long userId);
 
+    /**
+     * Вещи владельца по id начиная с позиции from (смещение, не номер страницы); size == null — все до конца.
+     */
+    List<ItemDto> getAllItems(Long userId, int from, Integer size);
+
+    void streamAllItems(Long userId, Consumer<ItemDto> sink);
+
     List<ItemDto> search(String text);
 
+    List<ItemDto> search(String text, LocalDate from, LocalDate to);
+
+    List<ItemDto> search(String text, LocalDate from, LocalDate to, ItemSort sort);
+
+    List<ItemDto> searchFuzzy(String text, LocalDate from, LocalDate to, ItemSort sort);
+
+    List<ItemSuggestionDto> suggest(String prefix, int limit);
+
+    ItemSearchDto searchFaceted(String text, Collection<String> tags, LocalDate from, LocalDate to, ItemSort sort);
+
     CommentDto addComment(CommentDto commentDto, Long itemId, Long userId);
+
+    /**
+     * Комментарии вещи от новых к старым; afterId — последний комментарий предыдущей страницы.
+     */
+    List<CommentDto> getComments(Long itemId, Long afterId, int size);
+
+    AvailabilityDto getAvailability(Long itemId, LocalDate from, LocalDate to);
 }
@@ -1,16 +1,30 @@
 package ru.practicum.server.item.service;
 
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.server.booking.model.Booking;
 import ru.practicum.server.booking.model.BookingStatus;
+import ru.practicum.server.booking.repository.ArchivedBookingRepository;
 import ru.practicum.server.booking.repository.BookingRepository;
+import ru.practicum.server.booking.service.AvailabilityIndex;
+import ru.practicum.server.common.ItemBits;
 import ru.practicum.server.exception.ForbiddenException;
 import ru.practicum.server.exception.NotFoundException;
+import ru.practicum.server.exception.VersionConflict;
+import ru.practicum.server.item.dto.AvailabilityDto;
 import ru.practicum.server.item.dto.BookingShort;
 import ru.practicum.server.item.dto.CommentDto;
 import ru.practicum.server.item.dto.ItemDto;
+import ru.practicum.server.item.dto.ItemSearchDto;
+import ru.practicum.server.item.dto.ItemSort;
+import ru.practicum.server.item.dto.ItemSuggestionDto;
+import ru.practicum.server.item.event.ItemSavedEvent;
 import ru.practicum.server.item.mapper.CommentMapper;
 import ru.practicum.server.item.mapper.ItemMapper;
 import ru.practicum.server.item.model.Comment;
@@ -22,20 +36,41 @@ import ru.practicum.server.request.repository.ItemRequestRepository;
 import ru.practicum.server.user.model.User;
 import ru.practicum.server.user.repository.UserRepository;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class ItemServiceImpl implements ItemService {
+    private static final int STREAM_CHUNK_SIZE = 100;
+    private static final int AVAILABILITY_DEFAULT_DAYS = 30;
+    private static final int AVAILABILITY_MAX_DAYS = 366;
+    private static final int FUZZY_LIMIT = 100;
+
     private final ItemRepository itemRepository;
     private final UserRepository userRepository;
     private final ItemMapper mapper;
     private final CommentRepository commentRepository;
     private final CommentMapper commentMapper;
     private final BookingRepository bookingRepository;
+    private final ArchivedBookingRepository archivedBookingRepository;
+    private final AvailabilityIndex availabilityIndex;
+    private final ItemDetailLoader detailLoader;
+    private final CommentEligibilityIndex eligibilityIndex;
+    private final CommentWriteBehind commentWriteBehind;
+    private final ItemStats itemStats;
+    private final TagFacets tagFacets;
+    private final ItemSuggestIndex suggestIndex;
+    private final FuzzyItemIndex fuzzyIndex;
     private final ItemRequestRepository itemRequestRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @PersistenceContext
+    private EntityManager entityManager;
 
     @Override
     public ItemDto addItem(long ownerId, ItemDto dto) {
@@ -44,12 +79,24 @@ public class ItemServiceImpl implements ItemService {
         if (dto.getRequestId() != null) {
             item.setItemRequest(getItemRequestOrThrow(dto.getRequestId()));
         }
-        log.info("Предмет добавлен item={}", item);
-        return mapper.itemToDto(itemRepository.save(item));
+        Item saved = itemRepository.save(item);
+        eventPublisher.publishEvent(new ItemSavedEvent(saved, true));
+        log.info("Предмет добавлен item={}", saved);
+        return mapper.itemToDto(saved);
     }
 
     @Override
     public ItemDto updateItem(Long userId, Long itemId, ItemDto itemDto) {
+        return updateItem(userId, itemId, itemDto, null);
+    }
+
+    /**
+     * Изменение вещи без блокировок: @DynamicUpdate пишет только измененные колонки,
+     * а @Version добавляет в update условие на версию. Устаревший If-Match отклоняется сразу,
+     * гонка между чтением и записью — при сбросе (ObjectOptimisticLockingFailureException).
+     */
+    @Override
+    public ItemDto updateItem(Long userId, Long itemId, ItemDto itemDto, Long expectedVersion) {
 
         String name = itemDto.getName();
         String description = itemDto.getDescription();
@@ -61,28 +108,54 @@ public class ItemServiceImpl implements ItemService {
         if (!item.getOwner().getId().equals(userId)) {
             throw new ForbiddenException("Только владелец имеет доступ");
         }
+        checkVersion(expectedVersion, item.getVersion());
 
         if (name != null && !name.isBlank()) item.setName(name);
         if (description != null && !description.isBlank()) item.setDescription(description);
         if (available != null) item.setAvailable(available);
+        if (itemDto.getTags() != null) {
+            item.getTags().clear();
+            item.getTags().addAll(mapper.normalizeTags(itemDto.getTags()));
+        }
 
+        Item saved = itemRepository.save(item);
+        eventPublisher.publishEvent(new ItemSavedEvent(saved, false));
         log.info("Предмет обновлен id={}", itemId);
-        return mapper.itemToDto(itemRepository.save(item));
+        return mapper.itemToDto(saved);
     }
 
     @Override
     public ItemDto getItemById(Long itemId, Long requesterId) {
+        // Снимок очереди берется до чтения базы: комментарий, записанный между ними, окажется в обоих и схлопнется.
+        List<CommentDto> pending = commentWriteBehind.pending(itemId);
+        if (detailLoader.isEnabled()) {
+            ItemDetailLoader.Detail detail = detailLoader.load(itemId, requesterId);
+            ItemDto dto = mapper.itemToDto(detail.item());
+            dto.setComments(detail.comments());
+            dto.setCommentsCount(detail.commentsCount());
+            if (detail.item().getOwner().getId().equals(requesterId)) {
+                dto.setLastBooking(detail.last());
+                dto.setNextBooking(detail.next());
+            }
+            withPending(dto, pending);
+            withStats(List.of(dto));
+            itemStats.recordView(itemId);
+            log.info("Получен предмет по id={}", itemId);
+            return dto;
+        }
+
         getUserOrThrow(requesterId);
 
         Item item = getItemOrThrow(itemId);
         ItemDto dto = mapper.itemToDto(item);
 
         List<CommentDto> comments = commentRepository
-                .findAllByItem_IdOrderByCreatedDesc(itemId)
+                .findByItem_IdOrderByCreatedDescIdDesc(itemId, PageRequest.of(0, CommentRepository.PREVIEW_SIZE))
                 .stream()
                 .map(commentMapper::buildDto)
                 .toList();
         dto.setComments(comments);
+        dto.setCommentsCount(commentRepository.countByItem_Id(itemId));
 
         if (item.getOwner().getId().equals(requesterId)) {
             LocalDateTime now = LocalDateTime.now();
@@ -90,9 +163,12 @@ public class ItemServiceImpl implements ItemService {
             bookingRepository.findTop1ByItem_IdAndStartLessThanEqualOrderByStartDesc(itemId, now)
                     .stream()
                     .findFirst()
-                    .ifPresent(b -> dto.setLastBooking(
-                            BookingShort.builder().id(b.getId()).bookerId(b.getBooker().getId()).build()
-                    ));
+                    .map(b -> BookingShort.builder().id(b.getId()).bookerId(b.getBooker().getId()).build())
+                    .or(() -> archivedBookingRepository.findTop1ByItem_IdOrderByStartDesc(itemId)
+                            .stream()
+                            .findFirst()
+                            .map(b -> BookingShort.builder().id(b.getId()).bookerId(b.getBooker().getId()).build()))
+                    .ifPresent(dto::setLastBooking);
 
             bookingRepository.findTop1ByItem_IdAndStartAfterOrderByStartAsc(itemId, now)
                     .stream()
@@ -105,19 +181,95 @@ public class ItemServiceImpl implements ItemService {
             dto.setNextBooking(null);
         }
 
+        withPending(dto, pending);
+        withStats(List.of(dto));
+        itemStats.recordView(itemId);
         log.info("Получен предмет по id={}", itemId);
         return dto;
     }
 
+    private void withStats(List<ItemDto> dtos) {
+        Map<Long, ItemStats.Counts> counts = itemStats.counts(dtos.stream().map(ItemDto::getId).toList());
+        for (ItemDto dto : dtos) {
+            ItemStats.Counts itemCounts = counts.getOrDefault(dto.getId(), ItemStats.Counts.ZERO);
+            dto.setViewsCount(itemCounts.views());
+            dto.setBookingsCount(itemCounts.bookings());
+        }
+    }
+
+    /**
+     * Подмешивает еще не записанные комментарии из отложенной записи.
+     */
+    private void withPending(ItemDto dto, List<CommentDto> pending) {
+        if (pending.isEmpty()) {
+            return;
+        }
+        Set<Long> stored = new HashSet<>();
+        dto.getComments().forEach(c -> stored.add(c.getId()));
+        List<CommentDto> merged = new ArrayList<>(dto.getComments());
+        long fresh = 0;
+        for (CommentDto comment : pending) {
+            if (stored.add(comment.getId())) {
+                merged.add(comment);
+                fresh++;
+            }
+        }
+        merged.sort(Comparator.comparing(CommentDto::getCreated).thenComparing(CommentDto::getId).reversed());
+        dto.setComments(merged.subList(0, Math.min(merged.size(), CommentRepository.PREVIEW_SIZE)));
+        dto.setCommentsCount(dto.getCommentsCount() + fresh);
+    }
+
 
     @Override
     public List<ItemDto> getAllItems(Long userId) {
+        return getAllItems(userId, 0, null);
+    }
 
-        List<Item> items = itemRepository.findAllByOwnerId(userId);
+    @Override
+    public List<ItemDto> getAllItems(Long userId, int from, Integer size) {
+        if (from < 0 || (size != null && size <= 0)) {
+            throw new ForbiddenException("Неверные параметры страницы from=" + from + ", size=" + size);
+        }
+        LocalDateTime now = LocalDateTime.now();
+
+        List<Item> items = itemRepository.findAllByOwnerIdFrom(userId, from, size != null ? size : Integer.MAX_VALUE);
         if (items.isEmpty()) return List.of();
 
-        List<Long> itemIds = items.stream().map(Item::getId).toList();
+        List<ItemDto> result = toOwnerDtos(items, userId, now);
+        withStats(result);
+
+        log.info("Получен список всех предметов пользователя по id={}", userId);
+        return result;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamAllItems(Long userId, Consumer<ItemDto> sink) {
+        log.info("Потоковая выдача предметов пользователя по id={}", userId);
         LocalDateTime now = LocalDateTime.now();
+        List<Item> chunk = new ArrayList<>(STREAM_CHUNK_SIZE);
+
+        try (Stream<Item> items = itemRepository.streamAllByOwnerIdOrderByIdAsc(userId)) {
+            items.forEach(item -> {
+                chunk.add(item);
+                if (chunk.size() == STREAM_CHUNK_SIZE) {
+                    toOwnerDtos(chunk, userId, now).forEach(sink);
+                    chunk.clear();
+                    entityManager.clear();
+                }
+            });
+        }
+
+        if (!chunk.isEmpty()) {
+            toOwnerDtos(chunk, userId, now).forEach(sink);
+        }
+    }
+
+    /**
+     * Собирает DTO для пачки вещей владельца: брони и комментарии подгружаются одним запросом на пачку.
+     */
+    private List<ItemDto> toOwnerDtos(List<Item> items, Long userId, LocalDateTime now) {
+        List<Long> itemIds = items.stream().map(Item::getId).toList();
 
         List<Booking> approved = bookingRepository.findByItem_IdInAndStatusOrderByStartDesc(itemIds, BookingStatus.APPROVED);
         Map<Long, List<Booking>> bookingsByItem = new HashMap<>();
@@ -125,20 +277,33 @@ public class ItemServiceImpl implements ItemService {
             bookingsByItem.computeIfAbsent(b.getItem().getId(), k -> new ArrayList<>()).add(b);
         }
 
-        List<Comment> allComments = commentRepository.findAllByItem_IdIn(itemIds);
+        Map<Long, BookingShort> archivedLast = new HashMap<>();
+        List<Long> withoutPast = itemIds.stream()
+                .filter(id -> bookingsByItem.getOrDefault(id, List.of()).stream()
+                        .allMatch(b -> b.getStart().isAfter(now)))
+                .toList();
+        if (!withoutPast.isEmpty()) {
+            archivedBookingRepository.findLatestByItemIdInAndStatus(withoutPast, BookingStatus.APPROVED)
+                    .forEach(b -> archivedLast.putIfAbsent(b.getItem().getId(), BookingShort.builder()
+                            .id(b.getId())
+                            .bookerId(b.getBooker().getId())
+                            .build()));
+        }
+
         Map<Long, List<CommentDto>> commentsByItem = new HashMap<>();
-        for (Comment comment : allComments) {
+        for (Comment comment : commentRepository.findLatestByItemIdIn(itemIds, CommentRepository.PREVIEW_SIZE)) {
             commentsByItem.computeIfAbsent(comment.getItem().getId(), k -> new ArrayList<>())
                     .add(commentMapper.buildDto(comment));
         }
-        commentsByItem.values().forEach(list ->
-                list.sort(Comparator.comparing(CommentDto::getCreated).reversed())
-        );
+        Map<Long, Long> commentCounts = new HashMap<>();
+        commentRepository.countByItemIdIn(itemIds)
+                .forEach(count -> commentCounts.put(count.getItemId(), count.getTotal()));
 
         List<ItemDto> result = new ArrayList<>();
         for (Item item : items) {
             ItemDto dto = mapper.itemToDto(item);
             dto.setComments(commentsByItem.getOrDefault(item.getId(), List.of()));
+            dto.setCommentsCount(commentCounts.getOrDefault(item.getId(), 0L));
 
             if (item.getOwner().getId().equals(userId)) {
                 List<Booking> list = bookingsByItem
@@ -167,7 +332,7 @@ public class ItemServiceImpl implements ItemService {
                     }
                 }
 
-                dto.setLastBooking(last);
+                dto.setLastBooking(last != null ? last : archivedLast.get(item.getId()));
                 dto.setNextBooking(next);
             } else {
                 dto.setLastBooking(null);
@@ -176,42 +341,230 @@ public class ItemServiceImpl implements ItemService {
 
             result.add(dto);
         }
-
-        log.info("Получен список всех предметов пользователя по id={}", userId);
         return result;
     }
 
+    /**
+     * Календарь отдается из AvailabilityIndex; в БД проверяется только существование вещи.
+     */
+    @Override
+    public AvailabilityDto getAvailability(Long itemId, LocalDate from, LocalDate to) {
+        if (!itemRepository.existsById(itemId)) {
+            throw new NotFoundException("Вещь с id=" + itemId + " не найдена");
+        }
+        LocalDate start = from != null ? from : LocalDate.now();
+        LocalDate end = to != null ? to : start.plusDays(AVAILABILITY_DEFAULT_DAYS - 1);
+        checkPeriod(start, end);
+
+        return AvailabilityDto.builder()
+                .itemId(itemId)
+                .from(start)
+                .to(end)
+                .intervals(availabilityIndex.intervals(itemId, start, end))
+                .build();
+    }
+
     @Override
     public List<ItemDto> search(String text) {
-        log.info("Поиск по тексту text={}", text);
-        return itemRepository.findByDescriptionContainingIgnoreCaseOrNameContainingIgnoreCaseAndAvailableTrue(text, text).stream()
-                .map(mapper::itemToDto).toList();
+        return search(text, null, null, null);
+    }
+
+    @Override
+    public List<ItemDto> search(String text, LocalDate from, LocalDate to) {
+        return search(text, from, to, null);
+    }
+
+    /**
+     * Текстовый поиск. С периодом из него выброшены вещи, занятые хотя бы в один день [from, to]:
+     * обе стороны — BitSet по id вещи, пересечение — одна операция andNot.
+     * sort упорядочивает выдачу по счетчикам ItemStats.
+     */
+    @Override
+    public List<ItemDto> search(String text, LocalDate from, LocalDate to, ItemSort sort) {
+        boolean period = from != null || to != null;
+        LocalDate start = from != null ? from : to;
+        LocalDate end = to != null ? to : from;
+        if (period) {
+            checkPeriod(start, end);
+            log.info("Поиск по тексту text={}, свободных с {} по {}", text, start, end);
+        } else {
+            log.info("Поиск по тексту text={}", text);
+        }
+
+        List<Item> found = itemRepository
+                .findByDescriptionContainingIgnoreCaseOrNameContainingIgnoreCaseAndAvailableTrue(text, text);
+        if (period) {
+            found = freeOnly(found, start, end);
+        }
+
+        List<ItemDto> result = new ArrayList<>(found.stream().map(mapper::itemToDto).toList());
+        if (result.isEmpty()) {
+            return result;
+        }
+        withStats(result);
+        if (sort == ItemSort.VIEWS) {
+            result.sort(Comparator.comparing(ItemDto::getViewsCount).reversed());
+        } else if (sort == ItemSort.BOOKINGS) {
+            result.sort(Comparator.comparing(ItemDto::getBookingsCount).reversed());
+        }
+        return result;
+    }
+
+    /**
+     * Поиск с опечатками: сначала точная выдача search, за ней вещи из FuzzyItemIndex,
+     * по возрастанию числа правок. Доступность и период проверяются так же, как в search, и до лимита:
+     * близких вещей отдается до FUZZY_LIMIT среди уже подходящих.
+     */
+    @Override
+    public List<ItemDto> searchFuzzy(String text, LocalDate from, LocalDate to, ItemSort sort) {
+        List<ItemDto> exact = search(text, from, to, sort);
+        Set<Long> exactIds = new HashSet<>();
+        exact.forEach(dto -> exactIds.add(dto.getId()));
+
+        List<FuzzyItemIndex.Match> matches = fuzzyIndex.find(text).stream()
+                .filter(match -> !exactIds.contains(match.itemId()))
+                .toList();
+        Map<Long, Integer> distances = new HashMap<>();
+        List<Item> close = new ArrayList<>();
+        // Недоступные и занятые отсекаются до лимита: кандидаты читаются пачками по FUZZY_LIMIT в порядке ранга,
+        // пока подходящих не наберется FUZZY_LIMIT.
+        for (int at = 0; at < matches.size() && close.size() < FUZZY_LIMIT; at += FUZZY_LIMIT) {
+            List<FuzzyItemIndex.Match> chunk = matches.subList(at, Math.min(matches.size(), at + FUZZY_LIMIT));
+            chunk.forEach(match -> distances.put(match.itemId(), match.distance()));
+            List<Item> found = itemRepository.findAllById(chunk.stream().map(FuzzyItemIndex.Match::itemId).toList())
+                    .stream()
+                    .filter(item -> Boolean.TRUE.equals(item.getAvailable()))
+                    .toList();
+            if (from != null || to != null) {
+                found = freeOnly(found, from != null ? from : to, to != null ? to : from);
+            }
+            close.addAll(found);
+        }
+        List<ItemDto> fuzzy = close.stream()
+                .sorted(Comparator.comparing((Item item) -> distances.get(item.getId())).thenComparing(Item::getId))
+                .limit(FUZZY_LIMIT)
+                .map(mapper::itemToDto)
+                .toList();
+        if (fuzzy.isEmpty()) {
+            return exact;
+        }
+        withStats(fuzzy);
+        log.info("Поиск с опечатками text={}: точных={}, близких={}", text, exact.size(), fuzzy.size());
+
+        List<ItemDto> result = new ArrayList<>(exact);
+        result.addAll(fuzzy);
+        return result;
+    }
+
+    @Override
+    public List<ItemSuggestionDto> suggest(String prefix, int limit) {
+        if (limit <= 0 || limit > ItemSuggestIndex.MAX_LIMIT) {
+            throw new ForbiddenException("Параметр limit должен быть от 1 до " + ItemSuggestIndex.MAX_LIMIT);
+        }
+        return suggestIndex.suggest(prefix, limit);
+    }
+
+    /**
+     * Поиск с фильтром по тегам (нужны все) и фасетами по выдаче. Фильтр и фасеты считаются
+     * на битмапах TagFacets поверх результата обычного поиска.
+     */
+    @Override
+    public ItemSearchDto searchFaceted(String text, Collection<String> tags, LocalDate from, LocalDate to, ItemSort sort) {
+        List<ItemDto> found = search(text, from, to, sort);
+        BitSet matched = new BitSet();
+        found.stream().map(ItemDto::getId).filter(ItemBits::fits).forEach(id -> matched.set(id.intValue()));
+        Set<String> required = mapper.normalizeTags(tags);
+        if (!required.isEmpty()) {
+            matched.and(tagFacets.itemsWithAll(required));
+        }
+
+        // Вещи с id вне int в битмапы не попадают: их теги сверяются по самой вещи, в фасетах их нет.
+        return ItemSearchDto.builder()
+                .items(found.stream().filter(dto -> ItemBits.fits(dto.getId())
+                        ? matched.get(dto.getId().intValue())
+                        : dto.getTags().containsAll(required)).toList())
+                .facets(tagFacets.counts(matched))
+                .build();
+    }
+
+    private List<Item> freeOnly(List<Item> items, LocalDate start, LocalDate end) {
+        BitSet occupied = availabilityIndex.occupiedItems(start, end);
+        return items.stream()
+                .filter(item -> ItemBits.fits(item.getId())
+                        ? !occupied.get(item.getId().intValue())
+                        : !availabilityIndex.isOccupied(item.getId(), start, end))
+                .toList();
+    }
+
+    private static void checkVersion(Long expected, Long actual) {
+        if (expected != null && !expected.equals(actual)) {
+            throw new VersionConflict("Вещь уже изменена: ожидалась версия " + expected + ", текущая " + actual);
+        }
+    }
+
+    private static void checkPeriod(LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            throw new ForbiddenException("Дата to раньше даты from");
+        }
+        if (from.plusDays(AVAILABILITY_MAX_DAYS).isBefore(to.plusDays(1))) {
+            throw new ForbiddenException("Период не может быть длиннее " + AVAILABILITY_MAX_DAYS + " дней");
+        }
     }
 
     @Override
     public CommentDto addComment(CommentDto commentDto, Long itemId, Long userId) {
         Item item = getItemOrThrow(itemId);
         User user = getUserOrThrow(userId);
+        if (itemRepository.isOwnerDeleted(itemId)) {
+            throw new NotFoundException("Вещь с id=" + itemId + " удаляется вместе с владельцем");
+        }
 
-        boolean canComment = bookingRepository
-                .existsByBooker_IdAndItem_IdAndStatusAndEndBefore(
-                        userId,
-                        itemId,
-                        BookingStatus.APPROVED,
-                        LocalDateTime.now()
-                );
-
-        if (!canComment) {
-            throw new ForbiddenException("Оставлять отзыв можно только после завершения аренды.");
+        if (!eligibilityIndex.contains(userId, itemId)) {
+            boolean canComment = bookingRepository
+                    .existsByBooker_IdAndItem_IdAndStatusAndEndBefore(
+                            userId,
+                            itemId,
+                            BookingStatus.APPROVED,
+                            LocalDateTime.now()
+                    ) || archivedBookingRepository.existsByBooker_IdAndItem_IdAndStatus(userId, itemId, BookingStatus.APPROVED);
+
+            if (!canComment) {
+                throw new ForbiddenException("Оставлять отзыв можно только после завершения аренды.");
+            }
+            eligibilityIndex.add(userId, itemId);
         }
 
         Comment comment = commentMapper.buildEntity(commentDto, item, user);
 
+        if (commentWriteBehind.offer(comment)) {
+            return commentMapper.buildDto(comment);
+        }
         Comment saved = commentRepository.save(comment);
         return commentMapper.buildDto(saved);
     }
 
 
+    @Override
+    public List<CommentDto> getComments(Long itemId, Long afterId, int size) {
+        if (size <= 0) {
+            throw new ForbiddenException("Неверный размер страницы size=" + size);
+        }
+        if (!itemRepository.existsById(itemId)) {
+            throw new NotFoundException("Вещь с id=" + itemId + "не найдена");
+        }
+
+        List<Comment> page;
+        if (afterId != null) {
+            Comment last = commentRepository.findById(afterId)
+                    .filter(c -> c.getItem().getId().equals(itemId))
+                    .orElseThrow(() -> new NotFoundException("Комментарий с id=" + afterId + " не найден"));
+            page = commentRepository.findByItemIdBefore(itemId, last.getCreated(), last.getId(), PageRequest.of(0, size));
+        } else {
+            page = commentRepository.findByItem_IdOrderByCreatedDescIdDesc(itemId, PageRequest.of(0, size));
+        }
+        return page.stream().map(commentMapper::buildDto).toList();
+    }
+
     private User getUserOrThrow(long id) {
         return userRepository.findById(id).orElseThrow(
                 () -> new NotFoundException("Пользователь с id=" + id + " не найден")
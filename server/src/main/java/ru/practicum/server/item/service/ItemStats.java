@@ -0,0 +1,167 @@
+package ru.practicum.server.item.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.server.booking.event.BookingEvent;
+import ru.practicum.server.item.event.ItemsDeletedEvent;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Счетчики просмотров и броней вещей. Инкремент — LongAdder в ячейке вещи, без обращения к базе;
+ * раз в flush-interval накопленные приращения пачкой добавляются к item_stats
+ * (batch update, для новых вещей — batch insert). Если запись не удалась, приращения
+ * возвращаются в ячейки и уйдут следующим проходом. Счетчик в ответе — сохраненное значение
+ * плюс еще не записанное на этом узле.
+ */
+@Slf4j
+@Component
+public class ItemStats {
+    private static final String UPDATE = "update item_stats set views = views + :views, bookings = bookings + :bookings "
+            + "where item_id = :itemId";
+    private static final String INSERT = "insert into item_stats (item_id, views, bookings) "
+            + "select :itemId, :views, :bookings where not exists (select 1 from item_stats where item_id = :itemId) "
+            + "and exists (select 1 from items where id = :itemId)";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Map<Long, Cell> cells = new ConcurrentHashMap<>();
+
+    public ItemStats(NamedParameterJdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public void recordView(long itemId) {
+        cells.computeIfAbsent(itemId, k -> new Cell()).views.increment();
+    }
+
+    public void recordBooking(long itemId) {
+        cells.computeIfAbsent(itemId, k -> new Cell()).bookings.increment();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBooking(BookingEvent event) {
+        if (event.type() == BookingEvent.Type.CREATED) {
+            recordBooking(event.itemId());
+        }
+    }
+
+    /**
+     * Незаписанные приращения удаленных вещей отбрасываются.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemsDeleted(ItemsDeletedEvent event) {
+        event.itemIds().forEach(cells::remove);
+    }
+
+    /**
+     * Счетчики вещей; вещи без просмотров и броней в ответ не попадают.
+     */
+    public Map<Long, Counts> counts(Collection<Long> itemIds) {
+        Map<Long, Counts> result = new HashMap<>();
+        if (itemIds.isEmpty()) {
+            return result;
+        }
+        jdbcTemplate.query("select item_id, views, bookings from item_stats where item_id in (:itemIds)",
+                new MapSqlParameterSource("itemIds", itemIds),
+                rs -> {
+                    result.put(rs.getLong("item_id"), new Counts(rs.getLong("views"), rs.getLong("bookings")));
+                });
+        for (Long itemId : itemIds) {
+            Cell cell = cells.get(itemId);
+            if (cell != null) {
+                Counts stored = result.getOrDefault(itemId, Counts.ZERO);
+                result.put(itemId, new Counts(stored.views() + cell.views.sum(), stored.bookings() + cell.bookings.sum()));
+            }
+        }
+        return result;
+    }
+
+    @Scheduled(initialDelayString = "${shareit.items.stats.flush-interval:10000}",
+            fixedDelayString = "${shareit.items.stats.flush-interval:10000}")
+    public void flush() {
+        Map<Long, Counts> deltas = new HashMap<>();
+        cells.forEach((itemId, cell) -> {
+            long views = cell.views.sumThenReset();
+            long bookings = cell.bookings.sumThenReset();
+            if (views != 0 || bookings != 0) {
+                deltas.put(itemId, new Counts(views, bookings));
+            }
+        });
+        if (deltas.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> write(deltas));
+            log.debug("Счетчики вещей записаны: {}", deltas.size());
+        } catch (DataAccessException e) {
+            log.warn("Счетчики вещей не записаны, повтор следующим проходом", e);
+            deltas.forEach((itemId, delta) -> {
+                Cell cell = cells.computeIfAbsent(itemId, k -> new Cell());
+                cell.views.add(delta.views());
+                cell.bookings.add(delta.bookings());
+            });
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private void write(Map<Long, Counts> deltas) {
+        List<Long> itemIds = new ArrayList<>(deltas.keySet());
+        SqlParameterSource[] params = itemIds.stream()
+                .map(itemId -> new MapSqlParameterSource()
+                        .addValue("itemId", itemId)
+                        .addValue("views", deltas.get(itemId).views())
+                        .addValue("bookings", deltas.get(itemId).bookings()))
+                .toArray(SqlParameterSource[]::new);
+
+        SqlParameterSource[] missing = unchanged(params, jdbcTemplate.batchUpdate(UPDATE, params));
+        if (missing.length == 0) {
+            return;
+        }
+        // Строку мог вставить другой узел между update и insert — тогда еще раз update.
+        SqlParameterSource[] raced = unchanged(missing, jdbcTemplate.batchUpdate(INSERT, missing));
+        if (raced.length > 0) {
+            jdbcTemplate.batchUpdate(UPDATE, raced);
+        }
+    }
+
+    private static SqlParameterSource[] unchanged(SqlParameterSource[] params, int[] counts) {
+        List<SqlParameterSource> result = new ArrayList<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) {
+                result.add(params[i]);
+            }
+        }
+        return result.toArray(SqlParameterSource[]::new);
+    }
+
+    public record Counts(long views, long bookings) {
+        public static final Counts ZERO = new Counts(0, 0);
+    }
+
+    private static final class Cell {
+        private final LongAdder views = new LongAdder();
+        private final LongAdder bookings = new LongAdder();
+    }
+}
@@ -0,0 +1,298 @@
+package ru.practicum.server.item.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.server.item.dto.ItemSuggestionDto;
+import ru.practicum.server.item.event.ItemSavedEvent;
+import ru.practicum.server.item.event.ItemsDeletedEvent;
+import ru.practicum.server.item.model.Item;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+
+/**
+ * Подсказки по началу слов в названиях вещей. Слова названий лежат в отсортированной карте
+ * слово → отсортированный long[] id вещей, поэтому префикс — это диапазон ключей, без LIKE по items.
+ * Найденные вещи ранжируются: сначала доступные, затем по популярности
+ * (просмотры + BOOKING_WEIGHT * брони из item_stats), затем по названию; из них берутся первые limit.
+ * Короткому префиксу (до SHORT_PREFIX символов) соответствует почти весь словарь, поэтому для каждого
+ * такого префикса заранее хранятся MAX_LIMIT лучших вещей и запрос читает только их. Списки правятся
+ * при сохранении и удалении вещи и пересобираются вместе с популярностью.
+ * Индекс прогревается при старте, обновляется по ItemSavedEvent, а популярность перечитывается
+ * раз в refresh-interval. Индекс локален для узла.
+ */
+@Slf4j
+@Component
+public class ItemSuggestIndex {
+    public static final int MAX_LIMIT = 50;
+    private static final long BOOKING_WEIGHT = 10;
+    private static final int SHORT_PREFIX = 2;
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+    private static final long[] NO_ITEMS = new long[0];
+    private static final Comparator<Entry> RANK = Comparator.comparing(Entry::available)
+            .thenComparingLong(Entry::popularity)
+            .thenComparing(Entry::name, Comparator.reverseOrder())
+            .thenComparing(Entry::id, Comparator.reverseOrder());
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final ConcurrentSkipListMap<String, long[]> itemsByWord = new ConcurrentSkipListMap<>();
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<String, List<Entry>> topByPrefix = new ConcurrentHashMap<>();
+
+    public ItemSuggestIndex(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        jdbcTemplate.query("select i.id, i.name, i.is_available, s.views, s.bookings from items i "
+                + "left join item_stats s on s.item_id = i.id", rs -> {
+                    put(rs.getLong("id"), rs.getString("name"), rs.getBoolean("is_available"),
+                            rs.getLong("views") + BOOKING_WEIGHT * rs.getLong("bookings"));
+                });
+        rebuildTops();
+        log.info("Индекс подсказок построен, вещей={}, слов={}", entries.size(), itemsByWord.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemSaved(ItemSavedEvent event) {
+        Item item = event.item();
+        Entry previous = entries.get(item.getId());
+        put(item.getId(), item.getName(), Boolean.TRUE.equals(item.getAvailable()),
+                previous != null ? previous.popularity() : 0);
+    }
+
+    /**
+     * Перечитывает популярность из item_stats и пересобирает списки коротких префиксов; слова и доступность не трогает.
+     */
+    @Scheduled(initialDelayString = "${shareit.items.suggest.refresh-interval:60000}",
+            fixedDelayString = "${shareit.items.suggest.refresh-interval:60000}")
+    public void refreshPopularity() {
+        Map<Long, Long> popularity = new HashMap<>();
+        jdbcTemplate.query("select item_id, views, bookings from item_stats", rs -> {
+            popularity.put(rs.getLong("item_id"), rs.getLong("views") + BOOKING_WEIGHT * rs.getLong("bookings"));
+        });
+        popularity.forEach((itemId, value) -> entries.computeIfPresent(itemId,
+                (k, entry) -> new Entry(entry.id(), entry.name(), entry.available(), value, entry.words())));
+        rebuildTops();
+    }
+
+    /**
+     * Вещи, в названии которых каждое слово запроса — начало какого-нибудь слова названия.
+     */
+    public List<ItemSuggestionDto> suggest(String prefix, int limit) {
+        List<String> words = words(prefix);
+        if (words.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        String last = words.get(words.size() - 1);
+        int size = Math.min(limit, MAX_LIMIT);
+
+        List<Entry> ranked = last.length() <= SHORT_PREFIX ? fromTop(last, words, size) : null;
+        if (ranked == null) {
+            ranked = collect(last, words.subList(0, words.size() - 1), size);
+        }
+        return ranked.stream()
+                .map(entry -> ItemSuggestionDto.builder()
+                        .id(entry.id())
+                        .name(entry.name())
+                        .available(entry.available())
+                        .build())
+                .toList();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemsDeleted(ItemsDeletedEvent event) {
+        event.itemIds().forEach(this::remove);
+    }
+
+    public void remove(long itemId) {
+        Entry removed = entries.remove(itemId);
+        if (removed != null) {
+            removed.words().forEach(word -> itemsByWord.computeIfPresent(word, (k, ids) -> without(ids, itemId)));
+            updateTops(removed, null);
+        }
+    }
+
+    private void put(long itemId, String name, boolean available, long popularity) {
+        Set<String> words = new LinkedHashSet<>(words(name));
+        Entry current = new Entry(itemId, name, available, popularity, words);
+        Entry previous = entries.put(itemId, current);
+        if (previous != null) {
+            previous.words().stream()
+                    .filter(word -> !words.contains(word))
+                    .forEach(word -> itemsByWord.computeIfPresent(word, (k, ids) -> without(ids, itemId)));
+        }
+        words.forEach(word -> itemsByWord.compute(word, (k, ids) -> with(ids != null ? ids : NO_ITEMS, itemId)));
+        updateTops(previous, current);
+    }
+
+    /**
+     * Лучшие вещи из заранее собранного списка префикса. null — список полон, а совпадений с остальными
+     * словами запроса в нем не хватило: за его пределами могут быть еще, нужен полный обход.
+     */
+    private List<Entry> fromTop(String prefix, List<String> words, int size) {
+        List<Entry> top = topByPrefix.getOrDefault(prefix, List.of());
+        List<Entry> result = new ArrayList<>(size);
+        for (Entry listed : top) {
+            // Список мог отстать от переименования или удаления: сверяемся с текущей записью.
+            Entry entry = entries.get(listed.id());
+            if (entry != null && matchesAll(entry, words)) {
+                result.add(entry);
+                if (result.size() == size) {
+                    return result;
+                }
+            }
+        }
+        return top.size() < MAX_LIMIT ? result : null;
+    }
+
+    /**
+     * Обход всех слов с префиксом: первые size вещей по RANK, от лучшей.
+     */
+    private List<Entry> collect(String prefix, List<String> before, int size) {
+        PriorityQueue<Entry> top = new PriorityQueue<>(RANK);
+        Set<Long> seen = new HashSet<>();
+        NavigableMap<String, long[]> range = itemsByWord.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+        for (long[] ids : range.values()) {
+            for (long id : ids) {
+                Entry entry = entries.get(id);
+                if (entry == null || !seen.add(id) || !matchesAll(entry, before)) {
+                    continue;
+                }
+                top.add(entry);
+                if (top.size() > size) {
+                    top.poll();
+                }
+            }
+        }
+        List<Entry> result = new ArrayList<>(top.size());
+        while (!top.isEmpty()) {
+            result.add(top.poll());
+        }
+        Collections.reverse(result);
+        return result;
+    }
+
+    /**
+     * Вещь, бывшая в списке префикса, могла опуститься ниже MAX_LIMIT-й — такой список собирается заново.
+     * Новую вещь достаточно вставить: если список полон, она либо вытеснит последнюю, либо в него не попадет.
+     */
+    private void updateTops(Entry previous, Entry current) {
+        Set<String> prefixes = new HashSet<>();
+        if (previous != null) {
+            previous.words().forEach(word -> prefixes.addAll(shortPrefixes(word)));
+        }
+        if (current != null) {
+            current.words().forEach(word -> prefixes.addAll(shortPrefixes(word)));
+        }
+        for (String prefix : prefixes) {
+            topByPrefix.compute(prefix, (k, top) -> {
+                long id = previous != null ? previous.id() : current.id();
+                if (top != null && top.stream().anyMatch(entry -> entry.id() == id)) {
+                    List<Entry> rebuilt = collect(prefix, List.of(), MAX_LIMIT);
+                    return rebuilt.isEmpty() ? null : List.copyOf(rebuilt);
+                }
+                if (current == null || !matchesAll(current, List.of(prefix))) {
+                    return top;
+                }
+                List<Entry> inserted = new ArrayList<>(top != null ? top : List.of());
+                inserted.add(current);
+                inserted.sort(RANK.reversed());
+                return List.copyOf(inserted.subList(0, Math.min(inserted.size(), MAX_LIMIT)));
+            });
+        }
+    }
+
+    private void rebuildTops() {
+        Set<String> prefixes = new HashSet<>();
+        itemsByWord.keySet().forEach(word -> prefixes.addAll(shortPrefixes(word)));
+        topByPrefix.keySet().retainAll(prefixes);
+        for (String prefix : prefixes) {
+            List<Entry> top = collect(prefix, List.of(), MAX_LIMIT);
+            if (top.isEmpty()) {
+                topByPrefix.remove(prefix);
+            } else {
+                topByPrefix.put(prefix, List.copyOf(top));
+            }
+        }
+    }
+
+    private static List<String> shortPrefixes(String word) {
+        List<String> prefixes = new ArrayList<>(SHORT_PREFIX);
+        for (int length = 1; length <= Math.min(SHORT_PREFIX, word.length()); length++) {
+            prefixes.add(word.substring(0, length));
+        }
+        return prefixes;
+    }
+
+    private static boolean matchesAll(Entry entry, List<String> prefixes) {
+        return prefixes.stream().allMatch(prefix -> entry.words().stream().anyMatch(word -> word.startsWith(prefix)));
+    }
+
+    private static List<String> words(String text) {
+        List<String> words = new ArrayList<>();
+        if (text == null) {
+            return words;
+        }
+        for (String word : SEPARATORS.split(text.toLowerCase(Locale.ROOT).replace('ё', 'е'))) {
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+
+    /**
+     * Массивы не меняются на месте: карта может повторить функцию, а читатели идут по старой копии.
+     */
+    private static long[] with(long[] ids, long itemId) {
+        int pos = Arrays.binarySearch(ids, itemId);
+        if (pos >= 0) {
+            return ids;
+        }
+        int at = -pos - 1;
+        long[] result = new long[ids.length + 1];
+        System.arraycopy(ids, 0, result, 0, at);
+        result[at] = itemId;
+        System.arraycopy(ids, at, result, at + 1, ids.length - at);
+        return result;
+    }
+
+    private static long[] without(long[] ids, long itemId) {
+        int pos = Arrays.binarySearch(ids, itemId);
+        if (pos < 0) {
+            return ids;
+        }
+        if (ids.length == 1) {
+            return null;
+        }
+        long[] result = new long[ids.length - 1];
+        System.arraycopy(ids, 0, result, 0, pos);
+        System.arraycopy(ids, pos + 1, result, pos, ids.length - pos - 1);
+        return result;
+    }
+
+    private record Entry(long id, String name, boolean available, long popularity, Set<String> words) {
+    }
+}
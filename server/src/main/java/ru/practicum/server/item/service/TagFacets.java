@@ -0,0 +1,126 @@
+package ru.practicum.server.item.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.server.common.ItemBits;
+import ru.practicum.server.item.event.ItemSavedEvent;
+import ru.practicum.server.item.event.ItemsDeletedEvent;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Фасеты по тегам: для каждого тега BitSet id вещей с этим тегом. Фильтр по тегам — пересечение
+ * битмапов, число вещей выдачи с тегом — мощность пересечения битмапа тега с битмапом выдачи,
+ * без GROUP BY по найденным строкам. Прогревается из item_tags при создании бина, до того как
+ * веб-сервер начнет принимать запросы (снимок не затирает теги, сохраненные позже, а фасеты не пустые
+ * с первого запроса), и обновляется по ItemSavedEvent после коммита. Вещи с id вне int в фасеты не попадают. Индекс локален для узла.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TagFacets {
+    private final JdbcTemplate jdbcTemplate;
+
+    private final Map<String, BitSet> itemsByTag = new ConcurrentHashMap<>();
+    private final Map<Long, Set<String>> tagsByItem = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void warmUp() {
+        Map<Long, Set<String>> loaded = new HashMap<>();
+        jdbcTemplate.query("select item_id, tag from item_tags", rs -> {
+            loaded.computeIfAbsent(rs.getLong("item_id"), k -> new HashSet<>()).add(rs.getString("tag"));
+        });
+        loaded.forEach(this::replace);
+        log.info("Фасеты по тегам построены, тегов={}, вещей={}", itemsByTag.size(), tagsByItem.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemSaved(ItemSavedEvent event) {
+        replace(event.item().getId(), event.item().getTags());
+    }
+
+    /**
+     * Вещи, у которых есть все перечисленные теги.
+     */
+    public BitSet itemsWithAll(Collection<String> tags) {
+        BitSet result = null;
+        for (String tag : tags) {
+            BitSet tagged = snapshot(tag);
+            if (result == null) {
+                result = tagged;
+            } else {
+                result.and(tagged);
+            }
+        }
+        return result != null ? result : new BitSet();
+    }
+
+    /**
+     * Для каждого тега — сколько вещей из items его несут; теги без вещей в items не попадают.
+     */
+    public Map<String, Integer> counts(BitSet items) {
+        Map<String, Integer> result = new TreeMap<>();
+        for (String tag : itemsByTag.keySet()) {
+            itemsByTag.computeIfPresent(tag, (k, tagged) -> {
+                if (tagged.intersects(items)) {
+                    BitSet common = (BitSet) tagged.clone();
+                    common.and(items);
+                    result.put(tag, common.cardinality());
+                }
+                return tagged;
+            });
+        }
+        return result;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemsDeleted(ItemsDeletedEvent event) {
+        event.itemIds().forEach(this::remove);
+    }
+
+    public void remove(long itemId) {
+        replace(itemId, Set.of());
+    }
+
+    private BitSet snapshot(String tag) {
+        BitSet[] copy = {new BitSet()};
+        itemsByTag.computeIfPresent(tag, (k, tagged) -> {
+            copy[0] = (BitSet) tagged.clone();
+            return tagged;
+        });
+        return copy[0];
+    }
+
+    private void replace(long itemId, Set<String> tags) {
+        if (!ItemBits.fits(itemId)) {
+            return;
+        }
+        int bit = (int) itemId;
+        Set<String> current = Set.copyOf(tags);
+        Set<String> previous = current.isEmpty() ? tagsByItem.remove(itemId) : tagsByItem.put(itemId, current);
+        if (previous != null) {
+            previous.stream()
+                    .filter(tag -> !current.contains(tag))
+                    .forEach(tag -> itemsByTag.computeIfPresent(tag, (k, tagged) -> {
+                        tagged.clear(bit);
+                        return tagged.isEmpty() ? null : tagged;
+                    }));
+        }
+        current.forEach(tag -> itemsByTag.compute(tag, (k, tagged) -> {
+            BitSet target = tagged != null ? tagged : new BitSet();
+            target.set(bit);
+            return target;
+        }));
+    }
+}
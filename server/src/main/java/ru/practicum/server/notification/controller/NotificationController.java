@@ -0,0 +1,22 @@
+package ru.practicum.server.notification.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.server.notification.service.NotificationService;
+
+@RestController
+@RequestMapping(path = "/events")
+@RequiredArgsConstructor
+public class NotificationController {
+    private final NotificationService service;
+
+    @GetMapping
+    public SseEmitter subscribe(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        return service.subscribe(userId, lastEventId);
+    }
+}
@@ -0,0 +1,24 @@
+package ru.practicum.server.notification.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.server.booking.event.BookingEvent;
+
+import java.util.Locale;
+
+/**
+ * Рассылает события бронирований: о новой брони узнает владелец вещи, о решении по ней — арендатор.
+ * События уходят только после коммита, поэтому решения из откатившихся транзакций клиенты не видят.
+ */
+@Component
+@RequiredArgsConstructor
+public class BookingNotifier {
+    private final NotificationHub hub;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBooking(BookingEvent event) {
+        long recipient = event.type() == BookingEvent.Type.CREATED ? event.ownerId() : event.bookerId();
+        hub.publish(recipient, "booking-" + event.type().name().toLowerCase(Locale.ROOT), event);
+    }
+}
@@ -0,0 +1,287 @@
+package ru.practicum.server.notification.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Открытые SSE-подписки пользователей.
+ * У каждой подписки свой ограниченный буфер (buffer-size) и своя доставка на виртуальном потоке,
+ * так что медленный клиент не тормозит остальных и сервис, публикующий событие. При переполнении
+ * буфера действует overflow-policy. Для каждого пользователя хранятся последние history-size событий:
+ * по заголовку Last-Event-ID пропущенное досылается, а если история уже не покрывает разрыв,
+ * клиент получает событие resync и должен перечитать состояние обычными запросами.
+ * История заводится при подписке и живет history-ttl после ухода последнего подписчика;
+ * события пользователей без истории не запоминаются, при подписке они получат resync.
+ * Подписки и история живут в памяти узла.
+ */
+@Slf4j
+@Component
+public class NotificationHub {
+    static final String RESYNC_EVENT = "resync";
+
+    private final long timeoutMillis;
+    private final int bufferSize;
+    private final int historySize;
+    private final long historyTtlMillis;
+    private final OverflowPolicy overflowPolicy;
+
+    /**
+     * Id событий растут и между перезапусками: отсчет начинается от текущего времени.
+     */
+    private final AtomicLong sequence = new AtomicLong(System.currentTimeMillis() * 1000);
+    private final ExecutorService delivery = Executors.newVirtualThreadPerTaskExecutor();
+    private final Map<Long, List<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final Map<Long, History> histories = new ConcurrentHashMap<>();
+
+    public NotificationHub(@Value("${shareit.events.timeout:1800000}") long timeoutMillis,
+                           @Value("${shareit.events.buffer-size:64}") int bufferSize,
+                           @Value("${shareit.events.history-size:100}") int historySize,
+                           @Value("${shareit.events.history-ttl:600000}") long historyTtlMillis,
+                           @Value("${shareit.events.overflow-policy:DROP_OLDEST}") OverflowPolicy overflowPolicy) {
+        this.timeoutMillis = timeoutMillis;
+        this.bufferSize = bufferSize;
+        this.historySize = historySize;
+        this.historyTtlMillis = historyTtlMillis;
+        this.overflowPolicy = overflowPolicy;
+    }
+
+    public SseEmitter subscribe(long userId) {
+        return subscribe(userId, null);
+    }
+
+    public SseEmitter subscribe(long userId, @Nullable Long lastEventId) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(userId, emitter);
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(e -> subscriber.close());
+
+        History history = history(userId);
+        synchronized (history) {
+            if (lastEventId != null) {
+                if (lastEventId < history.lostUpTo) {
+                    subscriber.offer(new Event(null, RESYNC_EVENT, lastEventId));
+                } else {
+                    history.events.stream()
+                            .filter(event -> event.id > lastEventId)
+                            .forEach(subscriber::offer);
+                }
+            }
+            subscribers.computeIfAbsent(userId, k -> new CopyOnWriteArrayList<>()).add(subscriber);
+        }
+        log.info("Пользователь id={} подписался на события, Last-Event-ID={}", userId, lastEventId);
+        return emitter;
+    }
+
+    public void publish(long userId, String name, Object data) {
+        History history = subscribers.containsKey(userId) ? history(userId) : histories.get(userId);
+        if (history == null) {
+            // id все равно расходуется: новая история начнется после него, и при подписке будет resync.
+            sequence.incrementAndGet();
+            return;
+        }
+        synchronized (history) {
+            Event event = new Event(sequence.incrementAndGet(), name, data);
+            history.append(event);
+            List<Subscriber> current = subscribers.get(userId);
+            if (current != null) {
+                current.forEach(subscriber -> subscriber.offer(event));
+            }
+        }
+    }
+
+    /**
+     * Комментарий-пинг для простаивающих подписок, чтобы прокси и клиенты не рвали соединение.
+     * Заодно забывает историю пользователей, которые давно ни на что не подписаны.
+     */
+    @Scheduled(fixedRateString = "${shareit.events.heartbeat:15000}")
+    public void heartbeat() {
+        subscribers.values().forEach(list -> list.forEach(Subscriber::ping));
+
+        long expiredBefore = System.currentTimeMillis() - historyTtlMillis;
+        histories.entrySet().removeIf(entry -> !subscribers.containsKey(entry.getKey())
+                && entry.getValue().touchedAt < expiredBefore);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.values().forEach(list -> list.forEach(subscriber -> subscriber.emitter.complete()));
+        delivery.shutdownNow();
+    }
+
+    private History history(long userId) {
+        return histories.computeIfAbsent(userId, k -> new History(sequence.get()));
+    }
+
+    public enum OverflowPolicy {
+        /**
+         * Выбросить самое старое недоставленное событие.
+         */
+        DROP_OLDEST,
+        /**
+         * Выбросить новое событие.
+         */
+        DROP_NEWEST,
+        /**
+         * Закрыть подписку: клиент переподключится с Last-Event-ID и получит пропущенное из истории.
+         */
+        DISCONNECT
+    }
+
+    private record Event(Long id, String name, Object data) {
+    }
+
+    private final class History {
+        private final Deque<Event> events = new ArrayDeque<>();
+        /**
+         * События с id не больше этого значения пользователю уже не дослать.
+         */
+        private long lostUpTo;
+        private volatile long touchedAt = System.currentTimeMillis();
+
+        private History(long lostUpTo) {
+            this.lostUpTo = lostUpTo;
+        }
+
+        private void append(Event event) {
+            events.addLast(event);
+            if (events.size() > historySize) {
+                lostUpTo = events.removeFirst().id;
+            }
+            touchedAt = System.currentTimeMillis();
+        }
+    }
+
+    private final class Subscriber {
+        private final long userId;
+        private final SseEmitter emitter;
+        private final Deque<Event> buffer = new ArrayDeque<>();
+        private boolean draining;
+        private boolean closed;
+        private long dropped;
+
+        private Subscriber(long userId, SseEmitter emitter) {
+            this.userId = userId;
+            this.emitter = emitter;
+        }
+
+        private void offer(Event event) {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                if (buffer.size() >= bufferSize) {
+                    switch (overflowPolicy) {
+                        case DROP_OLDEST -> buffer.removeFirst();
+                        case DROP_NEWEST -> {
+                            dropped++;
+                            return;
+                        }
+                        case DISCONNECT -> {
+                            log.info("Подписка пользователя id={} закрыта: буфер переполнен", userId);
+                            closed = true;
+                            buffer.clear();
+                            emitter.complete();
+                            unregister();
+                            return;
+                        }
+                    }
+                    dropped++;
+                }
+                buffer.addLast(event);
+                if (draining) {
+                    return;
+                }
+                draining = true;
+            }
+            delivery.execute(this::drain);
+        }
+
+        private void ping() {
+            synchronized (this) {
+                if (closed || draining) {
+                    return;
+                }
+                draining = true;
+            }
+            delivery.execute(() -> {
+                if (send(SseEmitter.event().comment("heartbeat"))) {
+                    drain();
+                }
+            });
+        }
+
+        private void drain() {
+            while (true) {
+                Event event;
+                synchronized (this) {
+                    event = buffer.pollFirst();
+                    if (event == null || closed) {
+                        draining = false;
+                        return;
+                    }
+                }
+                SseEmitter.SseEventBuilder sse = SseEmitter.event();
+                if (event.id() != null) {
+                    sse.id(String.valueOf(event.id()));
+                }
+                sse.name(event.name()).data(event.data(), MediaType.APPLICATION_JSON);
+                if (!send(sse)) {
+                    return;
+                }
+            }
+        }
+
+        private boolean send(SseEmitter.SseEventBuilder sse) {
+            try {
+                emitter.send(sse);
+                return true;
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Не удалось отправить событие пользователю id={}", userId, e);
+                close();
+                return false;
+            }
+        }
+
+        private void close() {
+            long lost;
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                draining = false;
+                buffer.clear();
+                lost = dropped;
+            }
+            if (lost > 0) {
+                log.info("Подписка пользователя id={} закрыта, потеряно событий: {}", userId, lost);
+            }
+            unregister();
+        }
+
+        private void unregister() {
+            subscribers.computeIfPresent(userId, (id, list) -> {
+                list.remove(this);
+                return list.isEmpty() ? null : list;
+            });
+        }
+    }
+}
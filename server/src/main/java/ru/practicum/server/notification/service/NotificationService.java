@@ -0,0 +1,7 @@
+package ru.practicum.server.notification.service;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+public interface NotificationService {
+    SseEmitter subscribe(long userId, Long lastEventId);
+}
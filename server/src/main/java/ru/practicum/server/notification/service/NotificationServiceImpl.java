@@ -0,0 +1,22 @@
+package ru.practicum.server.notification.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.server.exception.NotFoundException;
+import ru.practicum.server.user.repository.UserRepository;
+
+@Service
+@RequiredArgsConstructor
+public class NotificationServiceImpl implements NotificationService {
+    private final UserRepository userRepository;
+    private final NotificationHub hub;
+
+    @Override
+    public SseEmitter subscribe(long userId, Long lastEventId) {
+        if (!userRepository.existsById(userId)) {
+            throw new NotFoundException("Пользователь с id=" + userId + " не найден");
+        }
+        return hub.subscribe(userId, lastEventId);
+    }
+}
@@ -1,11 +1,15 @@
 package ru.practicum.server.request.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.server.common.JsonStreamWriter;
 import ru.practicum.server.request.dto.ItemRequestDto;
 import ru.practicum.server.request.dto.ItemRequestResponseDto;
 import ru.practicum.server.request.service.ItemRequestService;
 
+import java.io.IOException;
 import java.util.List;
 
 /**
@@ -17,6 +21,7 @@ import java.util.List;
 public class ItemRequestController {
 
     private final ItemRequestService service;
+    private final ObjectMapper objectMapper;
 
     @PostMapping
     public ItemRequestResponseDto create(@RequestHeader("X-Sharer-User-Id") Long userId,
@@ -30,8 +35,25 @@ public class ItemRequestController {
     }
 
     @GetMapping("/all")
-    public List<ItemRequestResponseDto> getAll(@RequestHeader("X-Sharer-User-Id") Long userId) {
-        return service.getAll(userId);
+    public List<ItemRequestResponseDto> getAll(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                               @RequestParam(defaultValue = "0") int from,
+                                               @RequestParam(defaultValue = "10") int size,
+                                               @RequestParam(required = false) Long afterId) {
+        return service.getAll(userId, from, size, afterId);
+    }
+
+    @GetMapping(params = "stream=true")
+    public void streamOwn(@RequestHeader("X-Sharer-User-Id") Long userId,
+                          HttpServletResponse response) throws IOException {
+        JsonStreamWriter.<ItemRequestResponseDto>writeArray(objectMapper, response,
+                sink -> service.streamOwn(userId, sink));
+    }
+
+    @GetMapping(path = "/all", params = "stream=true")
+    public void streamAll(@RequestHeader("X-Sharer-User-Id") Long userId,
+                          HttpServletResponse response) throws IOException {
+        JsonStreamWriter.<ItemRequestResponseDto>writeArray(objectMapper, response,
+                sink -> service.streamAll(userId, sink));
     }
 
     @GetMapping("/{requestId}")
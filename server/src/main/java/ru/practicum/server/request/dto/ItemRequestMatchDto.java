@@ -0,0 +1,18 @@
+package ru.practicum.server.request.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemRequestMatchDto {
+    private Long requestId;
+    private Long itemId;
+    private String itemName;
+    private Long ownerId;
+    private Double score;
+}
@@ -0,0 +1,10 @@
+package ru.practicum.server.request.event;
+
+import java.util.List;
+
+/**
+ * Публикуется после пакетного удаления запросов в обход JPA — по нему запросы убираются
+ * из ленты и из индекса сопоставления.
+ */
+public record ItemRequestsDeletedEvent(List<Long> requestIds) {
+}
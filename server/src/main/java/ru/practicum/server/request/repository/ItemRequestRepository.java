@@ -1,12 +1,46 @@
 package ru.practicum.server.request.repository;
 
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import ru.practicum.server.request.model.ItemRequest;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long> {
     List<ItemRequest> findAllByRequesterId(Long requesterId);
 
-    List<ItemRequest> findAllByRequesterIdNot(Long requesterId);
+    List<ItemRequest> findAllByRequesterIdNot(Long requesterId, Pageable pageable);
+
+    List<ItemRequest> findAllByOrderByCreatedDescIdDesc(Pageable pageable);
+
+    @Query("select r from ItemRequest r "
+            + "where not exists (select i.id from Item i where i.itemRequest = r)")
+    List<ItemRequest> findAllUnanswered();
+
+    /**
+     * Keyset-страница чужих запросов: всё, что строго раньше (created, id) последнего показанного запроса.
+     */
+    @Query("select r from ItemRequest r "
+            + "where r.requester.id <> :requesterId "
+            + "and (r.created < :created or (r.created = :created and r.id < :id)) "
+            + "order by r.created desc, r.id desc")
+    List<ItemRequest> findAllByRequesterIdNotBefore(@Param("requesterId") Long requesterId,
+                                                    @Param("created") LocalDateTime created,
+                                                    @Param("id") Long id,
+                                                    Pageable pageable);
+
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "100"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    Stream<ItemRequest> streamAllByRequesterIdOrderByCreatedDesc(Long requesterId);
+
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "100"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    Stream<ItemRequest> streamAllByRequesterIdNotOrderByCreatedDescIdDesc(Long requesterId);
 }
@@ -0,0 +1,229 @@
+package ru.practicum.server.request.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.server.item.event.ItemSavedEvent;
+import ru.practicum.server.item.event.ItemsDeletedEvent;
+import ru.practicum.server.item.model.Item;
+import ru.practicum.server.item.repository.ItemRepository;
+import ru.practicum.server.request.dto.ItemRequestResponseDto;
+import ru.practicum.server.request.event.ItemRequestsDeletedEvent;
+import ru.practicum.server.request.dto.ItemResponseData;
+import ru.practicum.server.request.model.ItemRequest;
+import ru.practicum.server.request.repository.ItemRequestRepository;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Лента последних запросов с ответами для /requests/all.
+ * Держит не больше capacity самых свежих запросов в порядке (created DESC, id DESC),
+ * пополняется при создании запроса и при ответе на него вещью. Чужие запросы отбираются
+ * на лету; если страница не помещается в ленту, сервис идет в БД.
+ * Лента локальна для узла: запросы, созданные на других узлах, в нее не попадают.
+ */
+@Slf4j
+@Component
+public class ItemRequestFeed {
+    private static final Comparator<FeedKey> ORDER = Comparator
+            .comparing(FeedKey::created).reversed()
+            .thenComparing(Comparator.comparing(FeedKey::id).reversed());
+
+    private final ItemRequestRepository itemRequestRepository;
+    private final ItemRepository itemRepository;
+    private final int capacity;
+
+    private final ConcurrentNavigableMap<FeedKey, Entry> entries = new ConcurrentSkipListMap<>(ORDER);
+    private final Map<Long, Entry> byId = new ConcurrentHashMap<>();
+    private volatile boolean ready;
+    private volatile boolean complete;
+
+    public ItemRequestFeed(ItemRequestRepository itemRequestRepository,
+                           ItemRepository itemRepository,
+                           @Value("${shareit.requests.feed-capacity:1000}") int capacity) {
+        this.itemRequestRepository = itemRequestRepository;
+        this.itemRepository = itemRepository;
+        this.capacity = capacity;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        List<ItemRequest> recent = itemRequestRepository.findAllByOrderByCreatedDescIdDesc(
+                PageRequest.of(0, capacity, Sort.by(Sort.Direction.DESC, "created", "id")));
+        complete = recent.size() < capacity;
+
+        Map<Long, List<ItemResponseData>> answers = new HashMap<>();
+        if (!recent.isEmpty()) {
+            List<Long> ids = recent.stream().map(ItemRequest::getId).toList();
+            for (Item item : itemRepository.findAllByItemRequestIdIn(ids)) {
+                answers.computeIfAbsent(item.getItemRequest().getId(), k -> new ArrayList<>()).add(toAnswer(item));
+            }
+        }
+
+        for (ItemRequest request : recent) {
+            Entry entry = new Entry(request, answers.getOrDefault(request.getId(), List.of()));
+            if (byId.putIfAbsent(entry.id, entry) == null) {
+                entries.put(entry.key(), entry);
+            }
+        }
+        trim();
+        ready = true;
+        log.info("Лента запросов прогрета, запросов={}, полная={}", entries.size(), complete);
+    }
+
+    public void add(ItemRequest request) {
+        Entry entry = new Entry(request, List.of());
+        if (byId.putIfAbsent(entry.id, entry) == null) {
+            entries.put(entry.key(), entry);
+            trim();
+        }
+    }
+
+    @EventListener
+    public void onItemSaved(ItemSavedEvent event) {
+        Item item = event.item();
+        if (item.getItemRequest() == null) {
+            return;
+        }
+        Entry entry = byId.get(item.getItemRequest().getId());
+        if (entry != null) {
+            entry.putAnswer(toAnswer(item));
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRequestsDeleted(ItemRequestsDeletedEvent event) {
+        for (Long id : event.requestIds()) {
+            Entry entry = byId.remove(id);
+            if (entry != null) {
+                entries.remove(entry.key());
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemsDeleted(ItemsDeletedEvent event) {
+        Set<Long> itemIds = Set.copyOf(event.itemIds());
+        byId.values().forEach(entry -> entry.removeAnswers(itemIds));
+    }
+
+    /**
+     * Страница чужих запросов по смещению; пусто, если ее нельзя собрать из ленты.
+     */
+    public Optional<List<ItemRequestResponseDto>> page(long userId, int from, int size) {
+        if (!ready) {
+            return Optional.empty();
+        }
+        return collect(entries.values(), userId, from, size);
+    }
+
+    /**
+     * Keyset-страница чужих запросов после запроса afterId; пусто, если его нет в ленте.
+     */
+    public Optional<List<ItemRequestResponseDto>> pageAfter(long userId, long afterId, int size) {
+        if (!ready) {
+            return Optional.empty();
+        }
+        Entry last = byId.get(afterId);
+        if (last == null) {
+            return Optional.empty();
+        }
+        return collect(entries.tailMap(last.key(), false).values(), userId, 0, size);
+    }
+
+    private Optional<List<ItemRequestResponseDto>> collect(Collection<Entry> source, long userId, int from, int size) {
+        List<ItemRequestResponseDto> page = new ArrayList<>(size);
+        int skipped = 0;
+        for (Entry entry : source) {
+            if (entry.requesterId == userId) {
+                continue;
+            }
+            if (skipped < from) {
+                skipped++;
+                continue;
+            }
+            page.add(entry.toDto());
+            if (page.size() == size) {
+                return Optional.of(page);
+            }
+        }
+        return complete ? Optional.of(page) : Optional.empty();
+    }
+
+    private void trim() {
+        while (entries.size() > capacity) {
+            Map.Entry<FeedKey, Entry> oldest = entries.pollLastEntry();
+            if (oldest == null) {
+                return;
+            }
+            byId.remove(oldest.getValue().id);
+            complete = false;
+        }
+    }
+
+    private static ItemResponseData toAnswer(Item item) {
+        return ItemResponseData.builder()
+                .id(item.getId())
+                .name(item.getName())
+                .ownerId(item.getOwner().getId())
+                .build();
+    }
+
+    private record FeedKey(LocalDateTime created, Long id) {
+    }
+
+    private static final class Entry {
+        private final Long id;
+        private final long requesterId;
+        private final String description;
+        private final LocalDateTime created;
+        private volatile List<ItemResponseData> answers;
+
+        private Entry(ItemRequest request, List<ItemResponseData> answers) {
+            this.id = request.getId();
+            this.requesterId = request.getRequester().getId();
+            this.description = request.getDescription();
+            this.created = request.getCreated();
+            this.answers = List.copyOf(answers);
+        }
+
+        private FeedKey key() {
+            return new FeedKey(created, id);
+        }
+
+        private synchronized void putAnswer(ItemResponseData answer) {
+            List<ItemResponseData> updated = new ArrayList<>(answers.size() + 1);
+            for (ItemResponseData existing : answers) {
+                if (!existing.getId().equals(answer.getId())) {
+                    updated.add(existing);
+                }
+            }
+            updated.add(answer);
+            answers = List.copyOf(updated);
+        }
+
+        private synchronized void removeAnswers(Set<Long> itemIds) {
+            if (answers.stream().anyMatch(answer -> itemIds.contains(answer.getId()))) {
+                answers = answers.stream().filter(answer -> !itemIds.contains(answer.getId())).toList();
+            }
+        }
+
+        private ItemRequestResponseDto toDto() {
+            return ItemRequestResponseDto.builder()
+                    .id(id)
+                    .description(description)
+                    .created(created)
+                    .items(new ArrayList<>(answers))
+                    .build();
+        }
+    }
+}
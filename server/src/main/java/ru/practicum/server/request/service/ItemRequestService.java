@@ -2,16 +2,27 @@ package ru.practicum.server.request.service;
 
 import ru.practicum.server.request.dto.ItemRequestDto;
 import ru.practicum.server.request.dto.ItemRequestResponseDto;
+import ru.practicum.server.user.model.User;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface ItemRequestService {
     ItemRequestResponseDto create(Long userId, ItemRequestDto dto);
 
     List<ItemRequestResponseDto> getOwn(Long userId);
 
-    List<ItemRequestResponseDto> getAll(Long userId);
+    List<ItemRequestResponseDto> getAll(Long userId, int from, int size, Long afterId);
+
+    /**
+     * То же для пользователя, уже найденного вызывающим кодом: пользователь повторно не проверяется.
+     */
+    List<ItemRequestResponseDto> getAll(User user, int from, int size, Long afterId);
 
     ItemRequestResponseDto getById(Long userId, Long requestId);
 
+    void streamOwn(Long userId, Consumer<ItemRequestResponseDto> sink);
+
+    void streamAll(Long userId, Consumer<ItemRequestResponseDto> sink);
+
 }
@@ -1,7 +1,13 @@
 package ru.practicum.server.request.service;
 
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.server.exception.ForbiddenException;
 import ru.practicum.server.exception.NotFoundException;
 import ru.practicum.server.item.model.Item;
 import ru.practicum.server.item.repository.ItemRepository;
@@ -14,19 +20,31 @@ import ru.practicum.server.user.model.User;
 import ru.practicum.server.user.repository.UserRepository;
 
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class ItemRequestServiceImpl implements ItemRequestService {
+    private static final int STREAM_CHUNK_SIZE = 100;
+    private static final Sort FEED_ORDER = Sort.by(Sort.Direction.DESC, "created", "id");
+
     private final UserRepository userRepository;
     private final ItemRepository itemRepository;
     private final ItemRequestRepository itemRequestRepository;
     private final ItemRequestMapper mapper;
+    private final ItemRequestFeed feed;
+    private final RequestMatcher matcher;
+
+    @PersistenceContext
+    private EntityManager entityManager;
 
     @Override
     public ItemRequestResponseDto create(Long userId, ItemRequestDto dto) {
         User requester = getUserOrThrow(userId);
         ItemRequest saved = itemRequestRepository.save(mapper.buildEntity(dto, requester));
+        feed.add(saved);
+        matcher.index(saved);
         return mapper.buildDto(saved, List.of());
     }
 
@@ -35,32 +53,80 @@ public class ItemRequestServiceImpl implements ItemRequestService {
         getUserOrThrow(userId);
         List<ItemRequest> list = itemRequestRepository.findAllByRequesterId(userId);
         list.sort(Comparator.comparing(ItemRequest::getCreated).reversed());
+        return toDtos(list);
+    }
 
-        List<Long> ids = list.stream().map(ItemRequest::getId).toList();
-        Map<Long, List<Item>> byRequestId = new HashMap<>();
+    @Override
+    public List<ItemRequestResponseDto> getAll(Long userId, int from, int size, Long afterId) {
+        return getAll(getUserOrThrow(userId), from, size, afterId);
+    }
 
-        if (!ids.isEmpty()) {
-            for (Item i : itemRepository.findAllByItemRequestIdIn(ids)) {
-                if (i.getItemRequest() != null) {
-                    byRequestId
-                            .computeIfAbsent(i.getItemRequest().getId(), a -> new ArrayList<>())
-                            .add(i);
-                }
-            }
+    @Override
+    public List<ItemRequestResponseDto> getAll(User user, int from, int size, Long afterId) {
+        checkPage(from, size);
+        Long userId = user.getId();
+
+        Optional<List<ItemRequestResponseDto>> cached = afterId != null
+                ? feed.pageAfter(userId, afterId, size)
+                : feed.page(userId, from, size);
+        if (cached.isPresent()) {
+            return cached.get();
         }
 
-        return list.stream()
-                .map(itemRequest -> mapper.buildDto(itemRequest, byRequestId.getOrDefault(
-                        itemRequest.getId(), List.of())))
-                .toList();
+        List<ItemRequest> page;
+        if (afterId != null) {
+            ItemRequest last = getItemRequestOrThrow(afterId);
+            page = itemRequestRepository.findAllByRequesterIdNotBefore(
+                    userId, last.getCreated(), last.getId(), PageRequest.of(0, size));
+        } else {
+            page = itemRequestRepository.findAllByRequesterIdNot(
+                    userId, PageRequest.of(from / size, size, FEED_ORDER));
+        }
+        return toDtos(page);
     }
 
     @Override
-    public List<ItemRequestResponseDto> getAll(Long userId) {
+    @Transactional(readOnly = true)
+    public void streamOwn(Long userId, Consumer<ItemRequestResponseDto> sink) {
         getUserOrThrow(userId);
-        List<ItemRequest> list = itemRequestRepository.findAllByRequesterIdNot(userId);
-        list.sort(Comparator.comparing(ItemRequest::getCreated).reversed());
+        emit(itemRequestRepository.streamAllByRequesterIdOrderByCreatedDesc(userId), sink);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamAll(Long userId, Consumer<ItemRequestResponseDto> sink) {
+        getUserOrThrow(userId);
+        emit(itemRequestRepository.streamAllByRequesterIdNotOrderByCreatedDescIdDesc(userId), sink);
+    }
+
+    private static void checkPage(int from, int size) {
+        if (from < 0 || size <= 0) {
+            throw new ForbiddenException("Неверные параметры страницы from=" + from + ", size=" + size);
+        }
+    }
+
+    /**
+     * Отдает запросы пачками: ответы (items) подгружаются одним запросом на пачку.
+     */
+    private void emit(Stream<ItemRequest> requests, Consumer<ItemRequestResponseDto> sink) {
+        List<ItemRequest> chunk = new ArrayList<>(STREAM_CHUNK_SIZE);
+        try (requests) {
+            requests.forEach(request -> {
+                chunk.add(request);
+                if (chunk.size() == STREAM_CHUNK_SIZE) {
+                    toDtos(chunk).forEach(sink);
+                    chunk.clear();
+                    entityManager.clear();
+                }
+            });
+        }
+
+        if (!chunk.isEmpty()) {
+            toDtos(chunk).forEach(sink);
+        }
+    }
 
+    private List<ItemRequestResponseDto> toDtos(List<ItemRequest> list) {
         List<Long> ids = list.stream().map(ItemRequest::getId).toList();
         Map<Long, List<Item>> byRequestId = new HashMap<>();
 
@@ -0,0 +1,169 @@
+package ru.practicum.server.request.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.server.item.event.ItemSavedEvent;
+import ru.practicum.server.item.model.Item;
+import ru.practicum.server.notification.service.NotificationHub;
+import ru.practicum.server.request.dto.ItemRequestMatchDto;
+import ru.practicum.server.request.event.ItemRequestsDeletedEvent;
+import ru.practicum.server.request.model.ItemRequest;
+import ru.practicum.server.request.repository.ItemRequestRepository;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Подбирает открытые запросы под новую или измененную вещь.
+ * Описания запросов лежат в обратном индексе терм → id запросов, поэтому вещь сравнивается
+ * только с запросами, у которых есть общие термы. Термы — слова не короче MIN_TERM_LENGTH,
+ * обрезанные до STEM_LENGTH символов, чтобы "дрель" и "дрели" совпадали.
+ * Запрос уходит из индекса, как только на него ответили вещью с requestId.
+ */
+@Slf4j
+@Component
+public class RequestMatcher {
+    static final String EVENT_NAME = "request-match";
+    private static final int MIN_TERM_LENGTH = 3;
+    private static final int STEM_LENGTH = 4;
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+
+    private final ItemRequestRepository itemRequestRepository;
+    private final NotificationHub hub;
+    private final double threshold;
+    private final int limit;
+
+    private final Map<String, Set<Long>> postings = new ConcurrentHashMap<>();
+    private final Map<Long, IndexedRequest> requests = new ConcurrentHashMap<>();
+
+    public RequestMatcher(ItemRequestRepository itemRequestRepository,
+                          NotificationHub hub,
+                          @Value("${shareit.requests.match-threshold:0.5}") double threshold,
+                          @Value("${shareit.requests.match-limit:5}") int limit) {
+        this.itemRequestRepository = itemRequestRepository;
+        this.hub = hub;
+        this.threshold = threshold;
+        this.limit = limit;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        List<ItemRequest> open = itemRequestRepository.findAllUnanswered();
+        open.forEach(this::index);
+        log.info("Индекс запросов построен, запросов={}, термов={}", requests.size(), postings.size());
+    }
+
+    public void index(ItemRequest request) {
+        Set<String> terms = terms(request.getDescription());
+        if (terms.isEmpty()) {
+            return;
+        }
+        requests.put(request.getId(), new IndexedRequest(request.getId(), request.getRequester().getId(), terms));
+        for (String term : terms) {
+            postings.computeIfAbsent(term, k -> ConcurrentHashMap.newKeySet()).add(request.getId());
+        }
+    }
+
+    public void remove(long requestId) {
+        IndexedRequest removed = requests.remove(requestId);
+        if (removed == null) {
+            return;
+        }
+        for (String term : removed.terms) {
+            postings.computeIfPresent(term, (t, ids) -> {
+                ids.remove(requestId);
+                return ids.isEmpty() ? null : ids;
+            });
+        }
+    }
+
+    /**
+     * Чужие открытые запросы, у которых не меньше threshold термов встречается в вещи, по убыванию доли.
+     */
+    public List<ItemRequestMatchDto> match(Item item) {
+        Map<Long, Integer> hits = new HashMap<>();
+        Set<String> itemTerms = terms(item.getName());
+        itemTerms.addAll(terms(item.getDescription()));
+        for (String term : itemTerms) {
+            Set<Long> ids = postings.get(term);
+            if (ids != null) {
+                ids.forEach(id -> hits.merge(id, 1, Integer::sum));
+            }
+        }
+
+        List<ItemRequestMatchDto> matches = new ArrayList<>();
+        for (Map.Entry<Long, Integer> hit : hits.entrySet()) {
+            IndexedRequest request = requests.get(hit.getKey());
+            if (request == null || request.requesterId == item.getOwner().getId()) {
+                continue;
+            }
+            double score = (double) hit.getValue() / request.terms.size();
+            if (score >= threshold) {
+                matches.add(ItemRequestMatchDto.builder()
+                        .requestId(request.id)
+                        .itemId(item.getId())
+                        .itemName(item.getName())
+                        .ownerId(item.getOwner().getId())
+                        .score(score)
+                        .build());
+            }
+        }
+        matches.sort(Comparator.comparing(ItemRequestMatchDto::getScore).reversed()
+                .thenComparing(ItemRequestMatchDto::getRequestId));
+        return matches.size() > limit ? matches.subList(0, limit) : matches;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRequestsDeleted(ItemRequestsDeletedEvent event) {
+        event.requestIds().forEach(this::remove);
+    }
+
+    @EventListener
+    public void onItemSaved(ItemSavedEvent event) {
+        Item item = event.item();
+        if (item.getItemRequest() != null) {
+            remove(item.getItemRequest().getId());
+            return;
+        }
+        if (!Boolean.TRUE.equals(item.getAvailable())) {
+            return;
+        }
+        for (ItemRequestMatchDto match : match(item)) {
+            IndexedRequest request = requests.get(match.getRequestId());
+            if (request != null && request.notifiedItems.add(item.getId())) {
+                hub.publish(request.requesterId, EVENT_NAME, match);
+            }
+        }
+    }
+
+    static Set<String> terms(String text) {
+        Set<String> terms = new HashSet<>();
+        if (text == null) {
+            return terms;
+        }
+        for (String word : SEPARATORS.split(text.toLowerCase(Locale.ROOT).replace('ё', 'е'))) {
+            if (word.length() >= MIN_TERM_LENGTH) {
+                terms.add(word.length() > STEM_LENGTH ? word.substring(0, STEM_LENGTH) : word);
+            }
+        }
+        return terms;
+    }
+
+    private static final class IndexedRequest {
+        private final Long id;
+        private final long requesterId;
+        private final Set<String> terms;
+        private final Set<Long> notifiedItems = ConcurrentHashMap.newKeySet();
+
+        private IndexedRequest(Long id, long requesterId, Set<String> terms) {
+            this.id = id;
+            this.requesterId = requesterId;
+            this.terms = terms;
+        }
+    }
+}
@@ -2,12 +2,16 @@ package ru.practicum.server.user.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.DynamicUpdate;
+
+import java.time.LocalDateTime;
 
 /**
  * TODO Sprint add-controllers.
  */
 
 @Entity
+@DynamicUpdate
 @Builder
 @Getter
 @Setter
@@ -24,4 +28,17 @@ public class User {
 
     @Column(length = 512, unique = true, nullable = false)
     private String email;
+
+    /**
+     * Номер версии для оптимистической блокировки; наружу отдается как ETag.
+     */
+    @Version
+    private Long version;
+
+    /**
+     * Момент запроса на удаление; пока строку не убрал UserDeletionPipeline,
+     * пользователь скрыт запросами UserRepository.
+     */
+    @Column(name = "deleted_at")
+    private LocalDateTime deletedAt;
 }
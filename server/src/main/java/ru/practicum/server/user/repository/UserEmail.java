@@ -0,0 +1,7 @@
+package ru.practicum.server.user.repository;
+
+public interface UserEmail {
+    Long getId();
+
+    String getEmail();
+}
@@ -1,10 +1,31 @@
 package ru.practicum.server.user.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import ru.practicum.server.user.model.User;
 
+import java.util.List;
 import java.util.Optional;
 
+/**
+ * Пользователи, помеченные deleted_at, для поиска не существуют, хотя их строки
+ * еще лежат в таблице до прохода UserDeletionPipeline.
+ */
 public interface UserRepository extends JpaRepository<User, Long> {
-    Optional<User> findByEmail(String email);
+    @Override
+    @Query("select u from User u where u.id = :id and u.deletedAt is null")
+    Optional<User> findById(@Param("id") Long id);
+
+    @Override
+    @Query("select count(u) > 0 from User u where u.id = :id and u.deletedAt is null")
+    boolean existsById(@Param("id") Long id);
+
+    @Query("select u from User u where u.email = :email and u.deletedAt is null")
+    Optional<User> findByEmail(@Param("email") String email);
+
+    boolean existsByEmailIgnoreCaseAndIdNot(String email, Long id);
+
+    @Query("select u.id as id, u.email as email from User u where u.deletedAt is null")
+    List<UserEmail> findAllEmails();
 }
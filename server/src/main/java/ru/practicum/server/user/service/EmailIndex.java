@@ -0,0 +1,65 @@
+package ru.practicum.server.user.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import ru.practicum.server.user.repository.UserRepository;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Email в нижнем регистре → id владельца. Проверка уникальности при создании и изменении
+ * пользователя идет сюда, а не загрузкой сущности по email. Промах в индексе не проверяется
+ * базой: окончательно решает ограничение UQ_USER_EMAIL при записи. Попадание на чужой id
+ * подтверждается запросом exists — запись могла устареть, если email сменили на другом узле.
+ * Прогревается при старте, UserServiceImpl обновляет его после каждой записи.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class EmailIndex {
+    private final UserRepository userRepository;
+
+    private final Map<String, Long> owners = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        userRepository.findAllEmails().forEach(user -> put(user.getEmail(), user.getId()));
+        log.info("Индекс email построен, пользователей={}", owners.size());
+    }
+
+    /**
+     * Занят ли email кем-то, кроме userId (null — новый пользователь).
+     */
+    public boolean isTaken(String email, Long userId) {
+        if (email == null) {
+            return false;
+        }
+        String key = normalize(email);
+        Long owner = owners.get(key);
+        if (owner == null || owner.equals(userId)) {
+            return false;
+        }
+        if (userRepository.existsByEmailIgnoreCaseAndIdNot(email, userId != null ? userId : 0L)) {
+            return true;
+        }
+        owners.remove(key, owner);
+        return false;
+    }
+
+    public void put(String email, long userId) {
+        owners.put(normalize(email), userId);
+    }
+
+    public void remove(String email, long userId) {
+        owners.remove(normalize(email), userId);
+    }
+
+    private static String normalize(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+}
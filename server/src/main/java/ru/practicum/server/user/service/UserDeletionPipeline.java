@@ -0,0 +1,205 @@
+package ru.practicum.server.user.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.server.booking.event.BookingsDeletedEvent;
+import ru.practicum.server.common.AdvisoryLock;
+import ru.practicum.server.item.event.ItemsDeletedEvent;
+import ru.practicum.server.request.event.ItemRequestsDeletedEvent;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Удаление пользователя с большим хвостом данных. Запрос на удаление только помечает строку users
+ * (deleted_at, email-заглушка освобождает адрес) и заводит строку в user_deletions — это одна короткая
+ * транзакция. Зависимые строки (комментарии, брони, архив, вещи, запросы) удаляются фоновым проходом
+ * пачками по batch-size id, каждая пачка — своя транзакция под AdvisoryLock. Этап и число удаленных строк
+ * лежат в user_deletions, поэтому прерванное удаление продолжается с того же места.
+ * Удаленные брони, вещи и запросы публикуются событиями, чтобы их убрали in-memory индексы.
+ */
+@Slf4j
+@Component
+public class UserDeletionPipeline {
+    private static final String DELETED_EMAIL = "deleted-%d@shareit.invalid";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final AdvisoryLock advisoryLock;
+    private final ApplicationEventPublisher events;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxBatches;
+
+    public UserDeletionPipeline(NamedParameterJdbcTemplate jdbcTemplate,
+                                AdvisoryLock advisoryLock,
+                                ApplicationEventPublisher events,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${shareit.users.deletion.batch-size:500}") int batchSize,
+                                @Value("${shareit.users.deletion.max-batches:20}") int maxBatches) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.advisoryLock = advisoryLock;
+        this.events = events;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.maxBatches = maxBatches;
+    }
+
+    /**
+     * Помечает пользователя удаленным и ставит его в очередь на очистку; false, если он уже помечен.
+     */
+    public boolean markDeleted(long userId) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("userId", userId)
+                .addValue("now", LocalDateTime.now())
+                .addValue("email", String.format(DELETED_EMAIL, userId))
+                .addValue("stage", Stage.values()[0].name());
+        return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            int marked = jdbcTemplate.update("update users set deleted_at = :now, email = :email, "
+                    + "version = version + 1 where id = :userId and deleted_at is null", params);
+            if (marked == 0) {
+                return false;
+            }
+            jdbcTemplate.update("insert into user_deletions (user_id, requested_at, stage, deleted_rows) "
+                    + "values (:userId, :now, :stage, 0)", params);
+            return true;
+        }));
+    }
+
+    @Scheduled(initialDelayString = "${shareit.users.deletion.interval:10000}",
+            fixedDelayString = "${shareit.users.deletion.interval:10000}")
+    public void scheduledProcess() {
+        process();
+    }
+
+    /**
+     * Один проход по незавершенным удалениям, не больше max-batches пачек; возвращает число пачек.
+     */
+    public int process() {
+        List<Long> pending = jdbcTemplate.queryForList("select user_id from user_deletions "
+                + "where finished_at is null order by requested_at", new MapSqlParameterSource(), Long.class);
+        int batches = 0;
+        for (Long userId : pending) {
+            while (batches < maxBatches) {
+                Boolean more = transactionTemplate.execute(status -> processBatch(userId));
+                if (more == null) {
+                    log.debug("Очистка удаленных пользователей пропущена: лок у другого узла");
+                    return batches;
+                }
+                batches++;
+                if (!more) {
+                    break;
+                }
+            }
+        }
+        return batches;
+    }
+
+    /**
+     * Одна пачка текущего этапа; null — лок у другого узла, false — пользователь удален полностью.
+     */
+    private Boolean processBatch(long userId) {
+        if (!advisoryLock.tryLock(AdvisoryLock.USER_DELETION)) {
+            return null;
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("userId", userId)
+                .addValue("limit", batchSize);
+        Stage stage = Stage.valueOf(jdbcTemplate.queryForObject(
+                "select stage from user_deletions where user_id = :userId", params, String.class));
+        if (stage == Stage.DONE) {
+            return false;
+        }
+        for (Step step : stage.steps) {
+            List<Long> ids = jdbcTemplate.queryForList(step.select() + " limit :limit", params, Long.class);
+            if (ids.isEmpty()) {
+                continue;
+            }
+            MapSqlParameterSource batch = new MapSqlParameterSource("ids", ids);
+            step.deletes().forEach(sql -> jdbcTemplate.update(sql, batch));
+            if (step.event() != null) {
+                events.publishEvent(step.event().apply(ids));
+            }
+            jdbcTemplate.update("update user_deletions set deleted_rows = deleted_rows + :count "
+                    + "where user_id = :userId", params.addValue("count", ids.size()));
+            return true;
+        }
+
+        Stage next = Stage.values()[stage.ordinal() + 1];
+        params.addValue("stage", next.name()).addValue("now", LocalDateTime.now());
+        if (next == Stage.DONE) {
+            jdbcTemplate.update("delete from users where id = :userId", params);
+            jdbcTemplate.update("update user_deletions set stage = :stage, finished_at = :now "
+                    + "where user_id = :userId", params);
+            log.info("Пользователь удален полностью id={}", userId);
+            return false;
+        }
+        jdbcTemplate.update("update user_deletions set stage = :stage where user_id = :userId", params);
+        return true;
+    }
+
+    /**
+     * Этапы в порядке выполнения: каждый удаляет строки, ссылающиеся на следующие.
+     */
+    enum Stage {
+        COMMENTS(
+                new Step("select id from comments where author_id = :userId",
+                        "delete from comments where id in (:ids)"),
+                new Step("select c.id from comments c join items i on i.id = c.item_id where i.owner_id = :userId",
+                        "delete from comments where id in (:ids)")),
+        BOOKINGS(
+                new Step("select id from bookings where booker_id = :userId", BookingsDeletedEvent::new,
+                        "delete from bookings where id in (:ids)"),
+                new Step("select b.id from bookings b join items i on i.id = b.item_id where i.owner_id = :userId",
+                        BookingsDeletedEvent::new,
+                        "delete from bookings where id in (:ids)"),
+                new Step("select id from bookings_archive where booker_id = :userId",
+                        "delete from bookings_archive where id in (:ids)"),
+                new Step("select a.id from bookings_archive a join items i on i.id = a.item_id "
+                        + "where i.owner_id = :userId",
+                        "delete from bookings_archive where id in (:ids)")),
+        ITEMS(
+                // Брони и комментарии, появившиеся на вещах уже после этапов COMMENTS и BOOKINGS.
+                new Step("select id from items where owner_id = :userId", ItemsDeletedEvent::new,
+                        "delete from comments where item_id in (:ids)",
+                        "delete from bookings where item_id in (:ids)",
+                        "delete from bookings_archive where item_id in (:ids)",
+                        "delete from item_tags where item_id in (:ids)",
+                        "delete from item_stats where item_id in (:ids)",
+                        "delete from items where id in (:ids)")),
+        REQUESTS(
+                new Step("select i.id from items i join item_requests r on r.id = i.item_request_id "
+                        + "where r.requester_id = :userId",
+                        "update items set item_request_id = null, version = version + 1 where id in (:ids)"),
+                new Step("select id from item_requests where requester_id = :userId", ItemRequestsDeletedEvent::new,
+                        "delete from item_requests where id in (:ids)")),
+        USER,
+        DONE;
+
+        private final List<Step> steps;
+
+        Stage(Step... steps) {
+            this.steps = List.of(steps);
+        }
+    }
+
+    /**
+     * select выбирает пачку id, deletes выполняются над ней по порядку; event, если задан, строит событие по этим id.
+     */
+    private record Step(String select, Function<List<Long>, Object> event, List<String> deletes) {
+        Step(String select, String... deletes) {
+            this(select, null, List.of(deletes));
+        }
+
+        Step(String select, Function<List<Long>, Object> event, String... deletes) {
+            this(select, event, List.of(deletes));
+        }
+    }
+}
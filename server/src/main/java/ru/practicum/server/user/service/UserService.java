@@ -9,5 +9,10 @@ public interface UserService {
 
     UserDto updateUserById(long id, UserDto userDto);
 
+    /**
+     * expectedVersion — версия из If-Match; null — без проверки.
+     */
+    UserDto updateUserById(long id, UserDto userDto, Long expectedVersion);
+
     UserDto deleteUserById(long id);
 }
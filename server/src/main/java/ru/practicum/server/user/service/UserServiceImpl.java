@@ -2,26 +2,33 @@ package ru.practicum.server.user.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import ru.practicum.server.exception.AlreadyExists;
 import ru.practicum.server.exception.NotFoundException;
+import ru.practicum.server.exception.VersionConflict;
 import ru.practicum.server.user.dto.UserDto;
 import ru.practicum.server.user.mapper.UserMapper;
 import ru.practicum.server.user.model.User;
 import ru.practicum.server.user.repository.UserRepository;
 
+import java.util.Locale;
+
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class UserServiceImpl implements UserService {
     private final UserMapper mapper;
     private final UserRepository userRepository;
+    private final EmailIndex emailIndex;
+    private final UserDeletionPipeline deletionPipeline;
 
     @Override
     public UserDto create(UserDto userDto) {
-        getUserByEmailOrThrow(userDto.getEmail());
+        checkEmailFree(userDto.getEmail(), null);
 
-        User user = userRepository.save(mapper.dtoToUser(userDto));
+        User user = saveChecked(mapper.dtoToUser(userDto));
+        emailIndex.put(user.getEmail(), user.getId());
         log.info("Пользователь был создан user={}", user);
         return mapper.userToDto(user);
     }
@@ -35,15 +42,29 @@ public class UserServiceImpl implements UserService {
 
     @Override
     public UserDto updateUserById(long id, UserDto userDto) {
+        return updateUserById(id, userDto, null);
+    }
+
+    @Override
+    public UserDto updateUserById(long id, UserDto userDto, Long expectedVersion) {
         User user = getUserOrThrow(id);
+        if (expectedVersion != null && !expectedVersion.equals(user.getVersion())) {
+            throw new VersionConflict("Пользователь уже изменен: ожидалась версия " + expectedVersion
+                    + ", текущая " + user.getVersion());
+        }
         String name = userDto.getName();
         String email = userDto.getEmail();
-        getUserByEmailOrThrow(email);
+        String previousEmail = user.getEmail();
+        checkEmailFree(email, id);
 
         if (name != null && !name.isBlank()) user.setName(name);
         if (email != null && !email.isBlank()) user.setEmail(email);
 
-        User updated = userRepository.save(user);
+        User updated = saveChecked(user);
+        if (!updated.getEmail().equals(previousEmail)) {
+            emailIndex.remove(previousEmail, id);
+            emailIndex.put(updated.getEmail(), id);
+        }
         log.info("пользователь был обновлен id={}", id);
         return mapper.userToDto(updated);
     }
@@ -52,16 +73,32 @@ public class UserServiceImpl implements UserService {
     @Override
     public UserDto deleteUserById(long id) {
         User user = getUserOrThrow(id);
-        userRepository.deleteById(id);
-        log.info("Пользователь удален id={}", id);
+        // Вещи, брони и комментарии удаляются позже, пачками; пользователь скрыт уже сейчас.
+        deletionPipeline.markDeleted(id);
+        emailIndex.remove(user.getEmail(), id);
+        log.info("Пользователь помечен удаленным id={}", id);
         return mapper.userToDto(user);
     }
 
-    private void getUserByEmailOrThrow(String email) {
-        userRepository.findByEmail(email)
-                .ifPresent(ex -> {
-                    throw new AlreadyExists("Такой пользователь уже существует");
-                });
+    private void checkEmailFree(String email, Long userId) {
+        if (emailIndex.isTaken(email, userId)) {
+            throw new AlreadyExists("Такой пользователь уже существует");
+        }
+    }
+
+    /**
+     * Два запроса с одним email могут оба пройти checkEmailFree; второй упрется в UQ_USER_EMAIL.
+     */
+    private User saveChecked(User user) {
+        try {
+            return userRepository.save(user);
+        } catch (DataIntegrityViolationException e) {
+            String message = e.getMostSpecificCause().getMessage();
+            if (message != null && message.toLowerCase(Locale.ROOT).contains("uq_user_email")) {
+                throw new AlreadyExists("Такой пользователь уже существует");
+            }
+            throw e;
+        }
     }
 
     private User getUserOrThrow(long id) {
@@ -53,4 +53,84 @@ create table if not exists comments
     primary key (id),
     foreign key (item_id) references items (id),
     foreign key (author_id) references users (id)
-);
\ No newline at end of file
+);
+
+create index if not exists idx_item_requests_created_id on item_requests (created_at desc, id desc);
+
+create index if not exists idx_bookings_status_start on bookings (status, start_at);
+
+create table if not exists bookings_archive
+(
+    id          bigint                      not null,
+    start_at    timestamp without time zone not null,
+    end_at      timestamp without time zone not null,
+    item_id     bigint                      not null,
+    booker_id   bigint                      not null,
+    status      varchar                     not null,
+    archived_at timestamp without time zone not null,
+    primary key (id),
+    foreign key (item_id) references items (id),
+    foreign key (booker_id) references users (id)
+);
+
+create index if not exists idx_bookings_end on bookings (end_at);
+
+create index if not exists idx_bookings_archive_booker_start on bookings_archive (booker_id, start_at desc);
+
+create index if not exists idx_bookings_archive_item_start on bookings_archive (item_id, start_at desc);
+
+create index if not exists idx_bookings_booker_start on bookings (booker_id, start_at desc);
+
+create index if not exists idx_bookings_item_start on bookings (item_id, start_at desc);
+
+alter table comments add column if not exists author_name varchar(255);
+
+update comments c set author_name = (select u.name from users u where u.id = c.author_id) where c.author_name is null;
+
+create index if not exists idx_comments_item_created on comments (item_id, created_at desc, id desc);
+
+create index if not exists idx_bookings_booker_item_status on bookings (booker_id, item_id, status, end_at);
+
+create sequence if not exists comments_seq start with 1 increment by 50;
+
+create table if not exists item_stats
+(
+    item_id  bigint not null,
+    views    bigint not null default 0,
+    bookings bigint not null default 0,
+    primary key (item_id),
+    foreign key (item_id) references items (id)
+);
+
+create table if not exists item_tags
+(
+    item_id bigint      not null,
+    tag     varchar(50) not null,
+    primary key (item_id, tag),
+    foreign key (item_id) references items (id)
+);
+
+create index if not exists idx_item_tags_tag on item_tags (tag);
+
+alter table items add column if not exists version bigint not null default 0;
+alter table users add column if not exists version bigint not null default 0;
+
+alter table users add column if not exists deleted_at timestamp without time zone;
+
+create table if not exists user_deletions
+(
+    user_id      bigint                      not null,
+    requested_at timestamp without time zone not null,
+    stage        varchar(20)                 not null,
+    deleted_rows bigint                      not null default 0,
+    finished_at  timestamp without time zone,
+    primary key (user_id)
+);
+
+create index if not exists idx_items_owner on items (owner_id);
+
+create index if not exists idx_items_request on items (item_request_id);
+
+create index if not exists idx_comments_author on comments (author_id);
+
+create index if not exists idx_item_requests_requester on item_requests (requester_id);
@@ -0,0 +1,139 @@
+package ru.practicum.server;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import ru.practicum.server.booking.event.BookingEvent;
+import ru.practicum.server.booking.event.BookingsExpiredEvent;
+import ru.practicum.server.booking.model.BookingStatus;
+import ru.practicum.server.booking.repository.BookingRepository;
+import ru.practicum.server.booking.service.AvailabilityIndex;
+import ru.practicum.server.item.dto.AvailabilityDto;
+import ru.practicum.server.item.dto.AvailabilityDto.DayState;
+
+import java.time.LocalDate;
+import java.util.BitSet;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(classes = AvailabilityIndex.class)
+class AvailabilityIndexTests {
+    private static final LocalDate DAY = LocalDate.of(2030, 3, 1);
+
+    @MockBean
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private AvailabilityIndex index;
+
+    private static BookingEvent event(long bookingId, long itemId, int fromDay, int toDay, BookingStatus status) {
+        return new BookingEvent(BookingEvent.Type.CREATED, bookingId, itemId, 1L, 2L,
+                DAY.plusDays(fromDay).atTime(12, 0), DAY.plusDays(toDay).atTime(10, 0), status);
+    }
+
+    private static AvailabilityDto.Interval interval(int fromDay, int toDay, DayState state) {
+        return new AvailabilityDto.Interval(DAY.plusDays(fromDay), DAY.plusDays(toDay), state);
+    }
+
+    private List<AvailabilityDto.Interval> calendar(long itemId) {
+        return index.intervals(itemId, DAY, DAY.plusDays(9));
+    }
+
+    @Test
+    @DisplayName("intervals: одобренные дни BUSY, ожидающие PENDING, остальные FREE")
+    void intervals_mergeDaysIntoRuns() {
+        index.onBooking(event(1L, 10L, 1, 2, BookingStatus.APPROVED));
+        index.onBooking(event(2L, 10L, 2, 4, BookingStatus.WAITING));
+
+        assertThat(calendar(10L)).containsExactly(
+                interval(0, 0, DayState.FREE),
+                interval(1, 2, DayState.BUSY),
+                interval(3, 4, DayState.PENDING),
+                interval(5, 9, DayState.FREE));
+        assertThat(calendar(11L)).containsExactly(interval(0, 9, DayState.FREE));
+    }
+
+    @Test
+    @DisplayName("onBooking: отклонение одной из пересекающихся броней не освобождает дни другой")
+    void reject_keepsOverlappingBooking() {
+        index.onBooking(event(3L, 20L, 0, 3, BookingStatus.WAITING));
+        index.onBooking(event(4L, 20L, 2, 5, BookingStatus.WAITING));
+
+        index.onBooking(event(3L, 20L, 0, 3, BookingStatus.REJECTED));
+
+        assertThat(calendar(20L)).containsExactly(
+                interval(0, 1, DayState.FREE),
+                interval(2, 5, DayState.PENDING),
+                interval(6, 9, DayState.FREE));
+    }
+
+    @Test
+    @DisplayName("onExpired: истекшая бронь освобождает дни, одобренная остается")
+    void expire_removesOnlyPending() {
+        index.onBooking(event(5L, 30L, 0, 1, BookingStatus.WAITING));
+        index.onBooking(event(6L, 30L, 3, 3, BookingStatus.APPROVED));
+
+        index.onExpired(new BookingsExpiredEvent(List.of(5L, 6L)));
+
+        assertThat(calendar(30L)).containsExactly(
+                interval(0, 2, DayState.FREE),
+                interval(3, 3, DayState.BUSY),
+                interval(4, 9, DayState.FREE));
+    }
+
+    @Test
+    @DisplayName("occupiedItems: вещь занята, если хоть один день периода пересекается с бронью")
+    void occupiedItems_unionOfDays() {
+        index.onBooking(event(7L, 40L, 0, 1, BookingStatus.WAITING));
+        index.onBooking(event(8L, 41L, 5, 6, BookingStatus.APPROVED));
+        index.onBooking(event(9L, 42L, 2, 3, BookingStatus.APPROVED));
+        index.onBooking(event(9L, 42L, 2, 3, BookingStatus.REJECTED));
+
+        BitSet occupied = index.occupiedItems(DAY.plusDays(1), DAY.plusDays(5));
+
+        assertThat(occupied.get(40)).isTrue();
+        assertThat(occupied.get(41)).isTrue();
+        assertThat(occupied.get(42)).isFalse();
+        assertThat(index.occupiedItems(DAY.plusDays(2), DAY.plusDays(4)).get(40)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Бронь на несколько лет: дни в окне индекса и за ним дают одну и ту же занятость")
+    void occupiedItems_longBookingInsideAndBeyondWindow() {
+        LocalDate today = LocalDate.now();
+        index.onBooking(new BookingEvent(BookingEvent.Type.CREATED, 50L, 60L, 1L, 2L,
+                today.plusDays(10).atTime(12, 0), today.plusYears(5).atTime(10, 0), BookingStatus.APPROVED));
+
+        assertThat(index.occupiedItems(today, today.plusDays(9)).get(60)).isFalse();
+        assertThat(index.occupiedItems(today.plusDays(5), today.plusDays(20)).get(60)).isTrue();
+        assertThat(index.occupiedItems(today.plusYears(3), today.plusYears(3).plusDays(1)).get(60)).isTrue();
+        assertThat(index.occupiedItems(today.plusYears(5).plusDays(1), today.plusYears(5).plusDays(30)).get(60))
+                .isFalse();
+        assertThat(index.intervals(60L, today.plusDays(9), today.plusYears(5).plusDays(1))).containsExactly(
+                new AvailabilityDto.Interval(today.plusDays(9), today.plusDays(9), DayState.FREE),
+                new AvailabilityDto.Interval(today.plusDays(10), today.plusYears(5), DayState.BUSY),
+                new AvailabilityDto.Interval(today.plusYears(5).plusDays(1), today.plusYears(5).plusDays(1),
+                        DayState.FREE));
+
+        index.onBooking(new BookingEvent(BookingEvent.Type.REJECTED, 50L, 60L, 1L, 2L,
+                today.plusDays(10).atTime(12, 0), today.plusYears(5).atTime(10, 0), BookingStatus.REJECTED));
+        assertThat(index.occupiedItems(today, today.plusYears(4)).get(60)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Вещь с id вне int не ломает индекс: календарь и isOccupied работают, битмап ее не содержит")
+    void hugeItemIdIsCalendarOnly() {
+        long hugeId = Integer.MAX_VALUE + 10L;
+        LocalDate today = LocalDate.now();
+        index.onBooking(new BookingEvent(BookingEvent.Type.CREATED, 51L, hugeId, 1L, 2L,
+                today.plusDays(1).atTime(12, 0), today.plusDays(2).atTime(10, 0), BookingStatus.WAITING));
+
+        assertThat(index.isOccupied(hugeId, today, today.plusDays(1))).isTrue();
+        assertThat(index.isOccupied(hugeId, today.plusDays(3), today.plusDays(4))).isFalse();
+        assertThat(index.intervals(hugeId, today.plusDays(1), today.plusDays(2)))
+                .containsExactly(new AvailabilityDto.Interval(today.plusDays(1), today.plusDays(2), DayState.PENDING));
+    }
+}
@@ -0,0 +1,116 @@
+package ru.practicum.server;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.server.booking.dto.BookingDto;
+import ru.practicum.server.booking.model.Booking;
+import ru.practicum.server.booking.model.BookingStatus;
+import ru.practicum.server.booking.repository.ArchivedBookingRepository;
+import ru.practicum.server.booking.repository.BookingRepository;
+import ru.practicum.server.booking.service.BookingArchiver;
+import ru.practicum.server.booking.service.BookingService;
+import ru.practicum.server.item.dto.CommentDto;
+import ru.practicum.server.item.model.Item;
+import ru.practicum.server.item.repository.ItemRepository;
+import ru.practicum.server.item.service.ItemService;
+import ru.practicum.server.user.model.User;
+import ru.practicum.server.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "shareit.bookings.archive.retention-days=30",
+        "shareit.bookings.archive.batch-size=1"
+})
+class BookingArchiverTests {
+
+    @Autowired
+    private BookingArchiver archiver;
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private ArchivedBookingRepository archivedBookingRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Booking booking(Item item, User booker, LocalDateTime start, BookingStatus status) {
+        return bookingRepository.save(Booking.builder()
+                .item(item).booker(booker).status(status).start(start).end(start.plusDays(1)).build());
+    }
+
+    @Test
+    @DisplayName("archive: старые брони уходят в архив, но остаются в выдаче PAST/ALL и дают право на отзыв")
+    void archive_movesOldBookingsAndKeepsThemVisible() {
+        User owner = userRepository.save(User.builder().name("owner").email("archive-owner@ex.com").build());
+        User booker = userRepository.save(User.builder().name("booker").email("archive-booker@ex.com").build());
+        Item item = itemRepository.save(Item.builder()
+                .name("Дрель").description("ударная").available(true).owner(owner).build());
+        LocalDateTime now = LocalDateTime.now();
+
+        Booking oldest = booking(item, booker, now.minusDays(90), BookingStatus.APPROVED);
+        Booking old = booking(item, booker, now.minusDays(60), BookingStatus.REJECTED);
+        Booking recent = booking(item, booker, now.minusDays(5), BookingStatus.APPROVED);
+        Booking waiting = booking(item, booker, now.minusDays(70), BookingStatus.WAITING);
+
+        assertThat(archiver.archive()).isGreaterThanOrEqualTo(2);
+
+        assertThat(bookingRepository.existsById(oldest.getId())).isFalse();
+        assertThat(bookingRepository.existsById(old.getId())).isFalse();
+        assertThat(archivedBookingRepository.existsById(oldest.getId())).isTrue();
+        assertThat(archivedBookingRepository.existsById(old.getId())).isTrue();
+        assertThat(bookingRepository.existsById(recent.getId())).isTrue();
+        assertThat(bookingRepository.existsById(waiting.getId())).isTrue();
+
+        // Ленивые связи в ответе сервиса читаются так же, как под open-in-view в контроллере.
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            List<Long> past = bookingService.getAllBookingsOfUser(booker.getId(), "PAST").stream()
+                    .map(BookingDto::getId).toList();
+            assertThat(past).containsExactly(recent.getId(), old.getId(), waiting.getId(), oldest.getId());
+
+            List<Long> all = bookingService.getAllBookingsOfOwner(owner.getId(), "ALL").stream()
+                    .map(BookingDto::getId).toList();
+            assertThat(all).containsExactly(recent.getId(), old.getId(), waiting.getId(), oldest.getId());
+
+            List<Long> rejected = bookingService.getAllBookingsOfUser(booker.getId(), "REJECTED").stream()
+                    .map(BookingDto::getId).toList();
+            assertThat(rejected).containsExactly(old.getId());
+
+            assertThat(bookingService.getBookingByUser(oldest.getId(), booker.getId()).getId())
+                    .isEqualTo(oldest.getId());
+        });
+    }
+
+    @Test
+    @DisplayName("addComment: бронь из архива дает право оставить отзыв")
+    void addComment_allowedByArchivedBooking() {
+        User owner = userRepository.save(User.builder().name("owner").email("archive-owner2@ex.com").build());
+        User booker = userRepository.save(User.builder().name("booker").email("archive-booker2@ex.com").build());
+        Item item = itemRepository.save(Item.builder()
+                .name("Пила").description("цепная").available(true).owner(owner).build());
+        booking(item, booker, LocalDateTime.now().minusDays(100), BookingStatus.APPROVED);
+
+        archiver.archive();
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            CommentDto comment = itemService.addComment(
+                    CommentDto.builder().text("Отличная пила").build(), item.getId(), booker.getId());
+            assertThat(comment.getText()).isEqualTo("Отличная пила");
+            assertThat(itemService.getItemById(item.getId(), owner.getId()).getLastBooking()).isNotNull();
+        });
+    }
+}
@@ -11,18 +11,24 @@ import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.server.booking.controller.BookingController;
 import ru.practicum.server.booking.dto.BookingDto;
 import ru.practicum.server.booking.dto.BookingRequest;
+import ru.practicum.server.booking.dto.BulkRespondRequest;
+import ru.practicum.server.booking.dto.BulkRespondResult;
 import ru.practicum.server.booking.model.BookingStatus;
 import ru.practicum.server.booking.service.BookingService;
+import ru.practicum.server.exception.NotFoundException;
 import ru.practicum.server.item.dto.ItemDto;
 import ru.practicum.server.user.dto.UserDto;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Consumer;
 
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
@@ -100,6 +106,27 @@ class BookingControllerTests {
                 .andExpect(jsonPath("$.status", is("APPROVED")));
     }
 
+    @Test
+    @DisplayName("PATCH /bookings/bulk?approved=... — возвращает исход по каждой брони")
+    void respondAll_returnsOutcomes() throws Exception {
+        long ownerId = 20L;
+        BulkRespondRequest req = BulkRespondRequest.builder().bookingIds(List.of(5L, 6L)).build();
+        when(bookingService.respondAll(any(BulkRespondRequest.class), eq(true), eq(ownerId))).thenReturn(List.of(
+                new BulkRespondResult(5L, BulkRespondResult.Outcome.APPROVED),
+                new BulkRespondResult(6L, BulkRespondResult.Outcome.OVERLAP)));
+
+        mockMvc.perform(patch("/bookings/bulk")
+                        .param("approved", "true")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(req))
+                        .header("X-Sharer-User-Id", ownerId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].outcome", is("APPROVED")))
+                .andExpect(jsonPath("$[1].bookingId", is(6L), Long.class))
+                .andExpect(jsonPath("$[1].outcome", is("OVERLAP")));
+    }
+
     @Test
     @DisplayName("GET /bookings/{id} — возвращает бронирование")
     void getBookingByBooker_returnsDto() throws Exception {
@@ -158,4 +185,48 @@ class BookingControllerTests {
                 .andExpect(jsonPath("$[0].item.id", is(200L), Long.class))
                 .andExpect(jsonPath("$[1].status", is("REJECTED")));
     }
+
+    @Test
+    @DisplayName("GET /bookings/owner?stream=true — потоковая выдача того же JSON-массива")
+    void streamForOwner_writesArray() throws Exception {
+        long ownerId = 44L;
+
+        doAnswer(inv -> {
+            Consumer<BookingDto> sink = inv.getArgument(2);
+            sink.accept(sampleBookingDto(10L, 200L, 77L, BookingStatus.WAITING));
+            sink.accept(sampleBookingDto(11L, 201L, 78L, BookingStatus.WAITING));
+            return null;
+        }).when(bookingService).streamAllBookingsOfOwner(eq(ownerId), eq("WAITING"), any());
+
+        mockMvc.perform(get("/bookings/owner")
+                        .param("state", "WAITING")
+                        .param("stream", "true")
+                        .header("X-Sharer-User-Id", ownerId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].id", is(10L), Long.class))
+                .andExpect(jsonPath("$[1].item.id", is(201L), Long.class));
+    }
+
+    @Test
+    @DisplayName("GET /bookings?stream=true — пустой результат дает пустой массив")
+    void streamAllBookingsOfUser_empty() throws Exception {
+        mockMvc.perform(get("/bookings")
+                        .param("stream", "true")
+                        .header("X-Sharer-User-Id", 1L))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(0)));
+    }
+
+    @Test
+    @DisplayName("GET /bookings?stream=true — ошибка до первого элемента уходит обычным ответом ErrorHandler")
+    void streamAllBookingsOfUser_errorBeforeOutput() throws Exception {
+        doThrow(new NotFoundException("Пользователь с id=404 не найден"))
+                .when(bookingService).streamAllBookingsOfUser(eq(404L), eq("ALL"), any());
+
+        mockMvc.perform(get("/bookings")
+                        .param("stream", "true")
+                        .header("X-Sharer-User-Id", 404L))
+                .andExpect(status().isNotFound());
+    }
 }
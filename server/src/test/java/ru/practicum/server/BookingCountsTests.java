@@ -0,0 +1,75 @@
+package ru.practicum.server;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.server.booking.dto.BookingCountsDto;
+import ru.practicum.server.booking.model.Booking;
+import ru.practicum.server.booking.model.BookingStatus;
+import ru.practicum.server.booking.repository.BookingRepository;
+import ru.practicum.server.booking.service.BookingArchiver;
+import ru.practicum.server.booking.service.BookingService;
+import ru.practicum.server.item.model.Item;
+import ru.practicum.server.item.repository.ItemRepository;
+import ru.practicum.server.user.model.User;
+import ru.practicum.server.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "shareit.bookings.archive.retention-days=30")
+class BookingCountsTests {
+
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private BookingArchiver archiver;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private UserRepository userRepository;
+
+    private void booking(Item item, User booker, LocalDateTime start, LocalDateTime end, BookingStatus status) {
+        bookingRepository.save(Booking.builder()
+                .item(item).booker(booker).status(status).start(start).end(end).build());
+    }
+
+    @Test
+    @DisplayName("countBookingsOf*: счетчики всех состояний одним запросом, включая архив")
+    void counts_matchListStates() {
+        User owner = userRepository.save(User.builder().name("owner").email("counts-owner@ex.com").build());
+        User booker = userRepository.save(User.builder().name("booker").email("counts-booker@ex.com").build());
+        Item item = itemRepository.save(Item.builder()
+                .name("Лестница").description("стремянка").available(true).owner(owner).build());
+        LocalDateTime now = LocalDateTime.now();
+
+        booking(item, booker, now.minusDays(1), now.plusDays(1), BookingStatus.APPROVED);
+        booking(item, booker, now.plusDays(2), now.plusDays(3), BookingStatus.WAITING);
+        booking(item, booker, now.plusDays(4), now.plusDays(5), BookingStatus.REJECTED);
+        booking(item, booker, now.minusDays(3), now.minusDays(2), BookingStatus.EXPIRED);
+        booking(item, booker, now.minusDays(90), now.minusDays(89), BookingStatus.APPROVED);
+        booking(item, booker, now.minusDays(80), now.minusDays(79), BookingStatus.REJECTED);
+        archiver.archive();
+
+        BookingCountsDto counts = bookingService.countBookingsOfUser(booker.getId());
+        assertThat(counts.getAll()).isEqualTo(6);
+        assertThat(counts.getCurrent()).isEqualTo(1);
+        assertThat(counts.getPast()).isEqualTo(3);
+        assertThat(counts.getFuture()).isEqualTo(2);
+        assertThat(counts.getWaiting()).isEqualTo(1);
+        assertThat(counts.getRejected()).isEqualTo(2);
+        assertThat(counts.getExpired()).isEqualTo(1);
+
+        BookingCountsDto ownerCounts = bookingService.countBookingsOfOwner(owner.getId());
+        assertThat(ownerCounts.getAll()).isEqualTo(6);
+        assertThat(ownerCounts.getPast()).isEqualTo(3);
+
+        BookingCountsDto empty = bookingService.countBookingsOfOwner(booker.getId());
+        assertThat(empty.getAll()).isZero();
+        assertThat(empty.getCurrent()).isZero();
+    }
+}
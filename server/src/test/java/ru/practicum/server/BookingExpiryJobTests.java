@@ -0,0 +1,67 @@
+package ru.practicum.server;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.server.booking.model.Booking;
+import ru.practicum.server.booking.model.BookingStatus;
+import ru.practicum.server.booking.repository.BookingRepository;
+import ru.practicum.server.booking.service.BookingExpiryJob;
+import ru.practicum.server.item.model.Item;
+import ru.practicum.server.item.repository.ItemRepository;
+import ru.practicum.server.user.model.User;
+import ru.practicum.server.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "shareit.bookings.expiry.batch-size=2")
+class BookingExpiryJobTests {
+
+    @Autowired
+    private BookingExpiryJob job;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Booking booking(Item item, User booker, LocalDateTime start, BookingStatus status) {
+        return bookingRepository.save(Booking.builder()
+                .item(item).booker(booker).status(status).start(start).end(start.plusHours(2)).build());
+    }
+
+    @Test
+    @DisplayName("sweep: просроченные WAITING-брони пачками уходят в EXPIRED, остальные не трогаются")
+    void sweep_expiresOverdueWaitingInBatches() {
+        User owner = userRepository.save(User.builder().name("owner").email("expiry-owner@ex.com").build());
+        User booker = userRepository.save(User.builder().name("booker").email("expiry-booker@ex.com").build());
+        Item item = itemRepository.save(Item.builder()
+                .name("Дрель").description("ударная").available(true).owner(owner).build());
+        LocalDateTime now = LocalDateTime.now();
+
+        Booking overdue1 = booking(item, booker, now.minusDays(3), BookingStatus.WAITING);
+        Booking overdue2 = booking(item, booker, now.minusDays(2), BookingStatus.WAITING);
+        Booking overdue3 = booking(item, booker, now.minusHours(1), BookingStatus.WAITING);
+        Booking future = booking(item, booker, now.plusDays(1), BookingStatus.WAITING);
+        Booking approved = booking(item, booker, now.minusDays(1), BookingStatus.APPROVED);
+        double before = meterRegistry.counter("shareit.bookings.expired").count();
+
+        assertThat(job.sweep()).isGreaterThanOrEqualTo(3);
+
+        assertThat(bookingRepository.findById(overdue1.getId()).orElseThrow().getStatus()).isEqualTo(BookingStatus.EXPIRED);
+        assertThat(bookingRepository.findById(overdue2.getId()).orElseThrow().getStatus()).isEqualTo(BookingStatus.EXPIRED);
+        assertThat(bookingRepository.findById(overdue3.getId()).orElseThrow().getStatus()).isEqualTo(BookingStatus.EXPIRED);
+        assertThat(bookingRepository.findById(future.getId()).orElseThrow().getStatus()).isEqualTo(BookingStatus.WAITING);
+        assertThat(bookingRepository.findById(approved.getId()).orElseThrow().getStatus()).isEqualTo(BookingStatus.APPROVED);
+
+        assertThat(meterRegistry.counter("shareit.bookings.expired").count() - before).isGreaterThanOrEqualTo(3);
+        assertThat(meterRegistry.get("shareit.bookings.expiry.lag").gauge().value()).isZero();
+    }
+}
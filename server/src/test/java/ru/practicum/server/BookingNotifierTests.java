@@ -0,0 +1,58 @@
+package ru.practicum.server;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.server.booking.event.BookingEvent;
+import ru.practicum.server.booking.model.BookingStatus;
+import ru.practicum.server.notification.service.NotificationHub;
+
+import java.time.LocalDateTime;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@SpringBootTest
+class BookingNotifierTests {
+
+    @MockBean
+    private NotificationHub hub;
+    @Autowired
+    private ApplicationEventPublisher events;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private static final LocalDateTime START = LocalDateTime.of(2030, 1, 10, 12, 0);
+
+    private static BookingEvent approved(long bookingId) {
+        return new BookingEvent(BookingEvent.Type.APPROVED, bookingId, 10L, 1L, 2L,
+                START, START.plusDays(1), BookingStatus.APPROVED);
+    }
+
+    @Test
+    @DisplayName("Решение по брони уходит подписчикам только после коммита; при откате — не уходит")
+    void notifiesOnlyAfterCommit() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+
+        tx.executeWithoutResult(status -> {
+            events.publishEvent(approved(900L));
+            status.setRollbackOnly();
+        });
+        verify(hub, never()).publish(anyLong(), anyString(), any());
+
+        tx.executeWithoutResult(status -> {
+            events.publishEvent(approved(901L));
+            verify(hub, never()).publish(anyLong(), anyString(), any());
+        });
+        verify(hub).publish(eq(2L), eq("booking-approved"), eq(approved(901L)));
+    }
+}
@@ -0,0 +1,111 @@
+package ru.practicum.server;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.server.booking.model.Booking;
+import ru.practicum.server.booking.model.BookingStatus;
+import ru.practicum.server.booking.repository.BookingRepository;
+import ru.practicum.server.booking.service.BookingService;
+import ru.practicum.server.exception.ForbiddenException;
+import ru.practicum.server.item.model.Item;
+import ru.practicum.server.item.repository.ItemRepository;
+import ru.practicum.server.user.model.User;
+import ru.practicum.server.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class BookingRespondConcurrencyTests {
+    private static final int THREADS = 16;
+
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    @DisplayName("respond: из многих одновременных PATCH одной брони проходит ровно один")
+    void respond_concurrentCallsOnlyOneWins() throws Exception {
+        User owner = userRepository.save(User.builder().name("owner").email("race-owner@ex.com").build());
+        User booker = userRepository.save(User.builder().name("booker").email("race-booker@ex.com").build());
+        Item item = itemRepository.save(Item.builder()
+                .name("Дрель").description("ударная").available(true).owner(owner).build());
+        Booking booking = bookingRepository.save(Booking.builder()
+                .item(item).booker(booker).status(BookingStatus.WAITING)
+                .start(LocalDateTime.now().plusDays(1)).end(LocalDateTime.now().plusDays(2))
+                .build());
+
+        AtomicInteger approved = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        AtomicInteger refused = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            boolean approve = i % 2 == 0;
+            futures.add(pool.submit(() -> {
+                start.await();
+                try {
+                    bookingService.respond(booking.getId(), approve, owner.getId());
+                    (approve ? approved : rejected).incrementAndGet();
+                } catch (ForbiddenException e) {
+                    refused.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        assertThat(approved.get() + rejected.get()).isEqualTo(1);
+        assertThat(refused.get()).isEqualTo(THREADS - 1);
+        BookingStatus expected = approved.get() == 1 ? BookingStatus.APPROVED : BookingStatus.REJECTED;
+        assertThat(bookingRepository.findById(booking.getId()).orElseThrow().getStatus()).isEqualTo(expected);
+    }
+
+    @Test
+    @DisplayName("transitionAllOfOwner: чужой владелец в самом UPDATE не меняет ни одной брони")
+    void transitionAllOfOwner_checksOwnerInUpdate() {
+        User owner = userRepository.save(User.builder().name("owner").email("bulk-owner@ex.com").build());
+        User stranger = userRepository.save(User.builder().name("stranger").email("bulk-stranger@ex.com").build());
+        Item item = itemRepository.save(Item.builder()
+                .name("Шлифмашина").description("ленточная").available(true).owner(owner).build());
+        Booking booking = bookingRepository.save(Booking.builder()
+                .item(item).booker(stranger).status(BookingStatus.WAITING)
+                .start(LocalDateTime.now().plusDays(1)).end(LocalDateTime.now().plusDays(2))
+                .build());
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        List<Long> ids = List.of(booking.getId());
+        Set<BookingStatus> sources = Set.of(BookingStatus.WAITING);
+
+        Integer byStranger = tx.execute(status -> bookingRepository.transitionAllOfOwner(
+                ids, stranger.getId(), sources, BookingStatus.APPROVED));
+        assertThat(byStranger).isZero();
+        assertThat(bookingRepository.findById(booking.getId()).orElseThrow().getStatus())
+                .isEqualTo(BookingStatus.WAITING);
+
+        Integer byOwner = tx.execute(status -> bookingRepository.transitionAllOfOwner(
+                ids, owner.getId(), sources, BookingStatus.APPROVED));
+        assertThat(byOwner).isEqualTo(1);
+    }
+}
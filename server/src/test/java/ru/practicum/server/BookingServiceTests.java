@@ -1,5 +1,6 @@
 package ru.practicum.server;
 
+import jakarta.persistence.EntityManagerFactory;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
@@ -8,9 +9,13 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
 import ru.practicum.server.booking.dto.BookingDto;
 import ru.practicum.server.booking.dto.BookingRequest;
+import ru.practicum.server.booking.dto.BulkRespondRequest;
+import ru.practicum.server.booking.dto.BulkRespondResult;
+import ru.practicum.server.booking.event.BookingEvent;
 import ru.practicum.server.booking.mapper.BookingMapper;
 import ru.practicum.server.booking.model.Booking;
 import ru.practicum.server.booking.model.BookingStatus;
+import ru.practicum.server.booking.repository.ArchivedBookingRepository;
 import ru.practicum.server.booking.repository.BookingRepository;
 import ru.practicum.server.booking.service.BookingServiceImpl;
 import ru.practicum.server.exception.ForbiddenException;
@@ -24,8 +29,11 @@ import ru.practicum.server.user.model.User;
 import ru.practicum.server.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -37,13 +45,19 @@ import static org.mockito.Mockito.*;
 @Import({BookingMapper.class, ItemMapper.class, UserMapper.class})
 class BookingServiceTests {
 
+    @MockBean
+    private EntityManagerFactory entityManagerFactory;
     @MockBean
     private BookingRepository bookingRepository;
     @MockBean
+    private ArchivedBookingRepository archivedBookingRepository;
+    @MockBean
     private UserRepository userRepository;
     @MockBean
     private ItemRepository itemRepository;
 
+    private final List<Object> events = new ArrayList<>();
+
     private static User user(long id, String name) {
         return User.builder().id(id).name(name).email(name + "@ex.com").build();
     }
@@ -81,8 +95,8 @@ class BookingServiceTests {
         when(bookingRepository.save(any(Booking.class))).thenAnswer(inv -> inv.getArgument(0));
 
         BookingServiceImpl svc = new BookingServiceImpl(
-                bookingRepository, userRepository, itemRepository,
-                new BookingMapper(), new ItemMapper(), new UserMapper()
+                bookingRepository, archivedBookingRepository, userRepository, itemRepository,
+                new BookingMapper(), new ItemMapper(), new UserMapper(), events::add
         );
 
         BookingDto dto = svc.addBooking(req(itemId), bookerId);
@@ -96,6 +110,12 @@ class BookingServiceTests {
         Booking lastSaved = cap.getAllValues().get(1);
         assertThat(lastSaved.getItem().getId()).isEqualTo(itemId);
         assertThat(lastSaved.getBooker().getId()).isEqualTo(bookerId);
+
+        assertThat(events).singleElement().isInstanceOfSatisfying(BookingEvent.class, e -> {
+            assertThat(e.type()).isEqualTo(BookingEvent.Type.CREATED);
+            assertThat(e.ownerId()).isEqualTo(ownerId);
+            assertThat(e.bookerId()).isEqualTo(bookerId);
+        });
     }
 
     @Test
@@ -112,8 +132,8 @@ class BookingServiceTests {
         when(itemRepository.findById(itemId)).thenReturn(Optional.of(it));
 
         BookingServiceImpl svc = new BookingServiceImpl(
-                bookingRepository, userRepository, itemRepository,
-                new BookingMapper(), new ItemMapper(), new UserMapper()
+                bookingRepository, archivedBookingRepository, userRepository, itemRepository,
+                new BookingMapper(), new ItemMapper(), new UserMapper(), events::add
         );
 
         assertThatThrownBy(() -> svc.addBooking(req(itemId), bookerId))
@@ -131,8 +151,8 @@ class BookingServiceTests {
 
         when(userRepository.findById(bookerId)).thenReturn(Optional.empty());
         BookingServiceImpl svc = new BookingServiceImpl(
-                bookingRepository, userRepository, itemRepository,
-                new BookingMapper(), new ItemMapper(), new UserMapper()
+                bookingRepository, archivedBookingRepository, userRepository, itemRepository,
+                new BookingMapper(), new ItemMapper(), new UserMapper(), events::add
         );
         assertThatThrownBy(() -> svc.addBooking(req(itemId), bookerId))
                 .isInstanceOf(NotFoundException.class)
@@ -179,8 +199,8 @@ class BookingServiceTests {
                 .thenReturn(waiting);
 
         BookingServiceImpl svc = new BookingServiceImpl(
-                bookingRepository, userRepository, itemRepository,
-                new BookingMapper(), new ItemMapper(), new UserMapper()
+                bookingRepository, archivedBookingRepository, userRepository, itemRepository,
+                new BookingMapper(), new ItemMapper(), new UserMapper(), events::add
         );
 
         List<BookingDto> listAll = svc.getAllBookingsOfUser(userId, null);
@@ -231,8 +251,8 @@ class BookingServiceTests {
                 .thenReturn(rejected);
 
         BookingServiceImpl svc = new BookingServiceImpl(
-                bookingRepository, userRepository, itemRepository,
-                new BookingMapper(), new ItemMapper(), new UserMapper()
+                bookingRepository, archivedBookingRepository, userRepository, itemRepository,
+                new BookingMapper(), new ItemMapper(), new UserMapper(), events::add
         );
 
         List<BookingDto> listAll = svc.getAllBookingsOfOwner(ownerId, "ALL");
@@ -250,6 +270,95 @@ class BookingServiceTests {
         verify(bookingRepository).findAllByItem_Owner_IdAndStatusOrderByStartDesc(ownerId, BookingStatus.REJECTED);
     }
 
+    @Test
+    @DisplayName("respondAll: одобряет пачку, пересечения проверяет вместе, чужие и отсутствующие отмечает")
+    void respondAllApproveOutcomes() {
+        long ownerId = 1L;
+        User owner = user(ownerId, "owner");
+        User stranger = user(9L, "stranger");
+        User booker = user(2L, "booker");
+        Item drill = item(10L, "Дрель", true, owner);
+        Item foreign = item(11L, "Лодка", true, stranger);
+        LocalDateTime day = LocalDateTime.now().plusDays(1);
+
+        Booking first = booking(100L, drill, booker, day, day.plusHours(4), BookingStatus.WAITING);
+        Booking clash = booking(101L, drill, booker, day.plusHours(2), day.plusHours(6), BookingStatus.WAITING);
+        Booking busy = booking(102L, drill, booker, day.plusDays(1), day.plusDays(1).plusHours(2), BookingStatus.WAITING);
+        Booking notMine = booking(103L, foreign, booker, day, day.plusHours(1), BookingStatus.WAITING);
+        Booking decided = booking(104L, drill, booker, day.plusDays(3), day.plusDays(4), BookingStatus.REJECTED);
+        Booking approvedEarlier = booking(90L, drill, booker, day.plusDays(1).plusHours(1), day.plusDays(2), BookingStatus.APPROVED);
+
+        when(bookingRepository.findAllWithItemByIdIn(anyCollection()))
+                .thenReturn(List.of(first, clash, busy, notMine, decided));
+        when(bookingRepository.findAllByItem_IdInAndStatusAndStartBeforeAndEndAfter(
+                anyCollection(), eq(BookingStatus.APPROVED), any(), any()))
+                .thenReturn(List.of(approvedEarlier));
+        when(bookingRepository.transitionAllOfOwner(anyCollection(), anyLong(), anyCollection(), eq(BookingStatus.APPROVED)))
+                .thenReturn(1);
+
+        BookingServiceImpl svc = new BookingServiceImpl(
+                bookingRepository, archivedBookingRepository, userRepository, itemRepository,
+                new BookingMapper(), new ItemMapper(), new UserMapper(), events::add
+        );
+
+        List<BulkRespondResult> results = svc.respondAll(BulkRespondRequest.builder()
+                .bookingIds(List.of(100L, 101L, 102L, 103L, 104L, 105L)).build(), true, ownerId);
+
+        assertThat(results).extracting(BulkRespondResult::getBookingId)
+                .containsExactly(100L, 101L, 102L, 103L, 104L, 105L);
+        assertThat(results).extracting(BulkRespondResult::getOutcome).containsExactly(
+                BulkRespondResult.Outcome.APPROVED,
+                BulkRespondResult.Outcome.OVERLAP,
+                BulkRespondResult.Outcome.OVERLAP,
+                BulkRespondResult.Outcome.NOT_OWNER,
+                BulkRespondResult.Outcome.NOT_WAITING,
+                BulkRespondResult.Outcome.NOT_FOUND);
+
+        verify(bookingRepository, times(1)).transitionAllOfOwner(eq(List.of(100L)), eq(ownerId), anyCollection(), eq(BookingStatus.APPROVED));
+        assertThat(events).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("respondAll: пересечение находится и с вложенными, и с одновременно начатыми одобренными бронями")
+    void respondAllOverlapWithNestedApproved() {
+        long ownerId = 1L;
+        User owner = user(ownerId, "owner");
+        User booker = user(2L, "booker");
+        Item drill = item(10L, "Дрель", true, owner);
+        LocalDateTime day = LocalDateTime.now().plusDays(1);
+
+        // [1, 10] и вложенная [2, 3] уже одобрены; у [20, 21] и [20, 30] одинаковый start
+        Booking wide = booking(90L, drill, booker, day.plusHours(1), day.plusHours(10), BookingStatus.APPROVED);
+        Booking nested = booking(91L, drill, booker, day.plusHours(2), day.plusHours(3), BookingStatus.APPROVED);
+        Booking shortSameStart = booking(92L, drill, booker, day.plusHours(20), day.plusHours(21), BookingStatus.APPROVED);
+        Booking longSameStart = booking(93L, drill, booker, day.plusHours(20), day.plusHours(30), BookingStatus.APPROVED);
+
+        Booking inWide = booking(100L, drill, booker, day.plusHours(5), day.plusHours(6), BookingStatus.WAITING);
+        Booking inLong = booking(101L, drill, booker, day.plusHours(25), day.plusHours(26), BookingStatus.WAITING);
+        Booking free = booking(102L, drill, booker, day.plusHours(40), day.plusHours(41), BookingStatus.WAITING);
+
+        when(bookingRepository.findAllWithItemByIdIn(anyCollection())).thenReturn(List.of(inWide, inLong, free));
+        when(bookingRepository.findAllByItem_IdInAndStatusAndStartBeforeAndEndAfter(
+                anyCollection(), eq(BookingStatus.APPROVED), any(), any()))
+                .thenReturn(List.of(wide, nested, longSameStart, shortSameStart));
+        when(bookingRepository.transitionAllOfOwner(anyCollection(), anyLong(), anyCollection(), eq(BookingStatus.APPROVED)))
+                .thenReturn(1);
+
+        BookingServiceImpl svc = new BookingServiceImpl(
+                bookingRepository, archivedBookingRepository, userRepository, itemRepository,
+                new BookingMapper(), new ItemMapper(), new UserMapper(), events::add
+        );
+
+        List<BulkRespondResult> results = svc.respondAll(BulkRespondRequest.builder()
+                .bookingIds(List.of(100L, 101L, 102L)).build(), true, ownerId);
+
+        assertThat(results).extracting(BulkRespondResult::getOutcome).containsExactly(
+                BulkRespondResult.Outcome.OVERLAP,
+                BulkRespondResult.Outcome.OVERLAP,
+                BulkRespondResult.Outcome.APPROVED);
+        verify(bookingRepository).transitionAllOfOwner(eq(List.of(102L)), eq(ownerId), anyCollection(), eq(BookingStatus.APPROVED));
+    }
+
     // ======= добавлено: respond(...) =======
 
     @Test
@@ -261,23 +370,24 @@ class BookingServiceTests {
         User booker = user(bookerId, "booker");
 
         Item it = item(10L, "Дрель", true, owner);
-        Booking bk = booking(100L, it, booker, LocalDateTime.now(), LocalDateTime.now().plusHours(1), BookingStatus.WAITING);
+        Booking bk = booking(100L, it, booker, LocalDateTime.now(), LocalDateTime.now().plusHours(1), BookingStatus.APPROVED);
 
+        when(bookingRepository.transition(100L, ownerId, Set.of(BookingStatus.WAITING), BookingStatus.APPROVED))
+                .thenReturn(1);
         when(bookingRepository.findById(100L)).thenReturn(Optional.of(bk));
-        when(userRepository.findById(bookerId)).thenReturn(Optional.of(booker));
-        when(bookingRepository.save(any(Booking.class))).thenAnswer(inv -> inv.getArgument(0));
 
         BookingServiceImpl svc = new BookingServiceImpl(
-                bookingRepository, userRepository, itemRepository,
-                new BookingMapper(), new ItemMapper(), new UserMapper()
+                bookingRepository, archivedBookingRepository, userRepository, itemRepository,
+                new BookingMapper(), new ItemMapper(), new UserMapper(), events::add
         );
 
         BookingDto out = svc.respond(100L, true, ownerId);
         assertThat(out.getStatus()).isEqualTo(BookingStatus.APPROVED);
 
-        ArgumentCaptor<Booking> cap = ArgumentCaptor.forClass(Booking.class);
-        verify(bookingRepository).save(cap.capture());
-        assertThat(cap.getValue().getStatus()).isEqualTo(BookingStatus.APPROVED);
+        verify(bookingRepository, never()).save(any());
+        verifyNoInteractions(userRepository);
+        assertThat(events).singleElement().isInstanceOfSatisfying(BookingEvent.class, e ->
+                assertThat(e.type()).isEqualTo(BookingEvent.Type.APPROVED));
     }
 
     @Test
@@ -289,23 +399,21 @@ class BookingServiceTests {
         User booker = user(bookerId, "booker");
 
         Item it = item(10L, "Дрель", true, owner);
-        Booking bk = booking(101L, it, booker, LocalDateTime.now(), LocalDateTime.now().plusHours(1), BookingStatus.WAITING);
+        Booking bk = booking(101L, it, booker, LocalDateTime.now(), LocalDateTime.now().plusHours(1), BookingStatus.REJECTED);
 
+        when(bookingRepository.transition(101L, ownerId, Set.of(BookingStatus.WAITING), BookingStatus.REJECTED))
+                .thenReturn(1);
         when(bookingRepository.findById(101L)).thenReturn(Optional.of(bk));
-        when(userRepository.findById(bookerId)).thenReturn(Optional.of(booker));
-        when(bookingRepository.save(any(Booking.class))).thenAnswer(inv -> inv.getArgument(0));
 
         BookingServiceImpl svc = new BookingServiceImpl(
-                bookingRepository, userRepository, itemRepository,
-                new BookingMapper(), new ItemMapper(), new UserMapper()
+                bookingRepository, archivedBookingRepository, userRepository, itemRepository,
+                new BookingMapper(), new ItemMapper(), new UserMapper(), events::add
         );
 
         BookingDto out = svc.respond(101L, false, ownerId);
         assertThat(out.getStatus()).isEqualTo(BookingStatus.REJECTED);
-
-        ArgumentCaptor<Booking> cap = ArgumentCaptor.forClass(Booking.class);
-        verify(bookingRepository).save(cap.capture());
-        assertThat(cap.getValue().getStatus()).isEqualTo(BookingStatus.REJECTED);
+        assertThat(events).singleElement().isInstanceOfSatisfying(BookingEvent.class, e ->
+                assertThat(e.type()).isEqualTo(BookingEvent.Type.REJECTED));
     }
 
     @Test
@@ -321,11 +429,12 @@ class BookingServiceTests {
         Item it = item(10L, "Дрель", true, owner);
         Booking bk = booking(102L, it, booker, LocalDateTime.now(), LocalDateTime.now().plusHours(1), BookingStatus.WAITING);
 
+        when(bookingRepository.transition(eq(102L), eq(otherUser), anyCollection(), any())).thenReturn(0);
         when(bookingRepository.findById(102L)).thenReturn(Optional.of(bk));
 
         BookingServiceImpl svc = new BookingServiceImpl(
-                bookingRepository, userRepository, itemRepository,
-                new BookingMapper(), new ItemMapper(), new UserMapper()
+                bookingRepository, archivedBookingRepository, userRepository, itemRepository,
+                new BookingMapper(), new ItemMapper(), new UserMapper(), events::add
         );
 
         assertThatThrownBy(() -> svc.respond(102L, true, otherUser))
@@ -347,12 +456,12 @@ class BookingServiceTests {
         Item it = item(10L, "Дрель", true, owner);
         Booking bk = booking(103L, it, booker, LocalDateTime.now(), LocalDateTime.now().plusHours(1), BookingStatus.APPROVED);
 
+        when(bookingRepository.transition(eq(103L), eq(ownerId), anyCollection(), any())).thenReturn(0);
         when(bookingRepository.findById(103L)).thenReturn(Optional.of(bk));
-        when(userRepository.findById(bookerId)).thenReturn(Optional.of(booker));
 
         BookingServiceImpl svc = new BookingServiceImpl(
-                bookingRepository, userRepository, itemRepository,
-                new BookingMapper(), new ItemMapper(), new UserMapper()
+                bookingRepository, archivedBookingRepository, userRepository, itemRepository,
+                new BookingMapper(), new ItemMapper(), new UserMapper(), events::add
         );
 
         assertThatThrownBy(() -> svc.respond(103L, true, ownerId))
@@ -380,8 +489,8 @@ class BookingServiceTests {
         when(bookingRepository.findById(200L)).thenReturn(Optional.of(bk));
 
         BookingServiceImpl svc = new BookingServiceImpl(
-                bookingRepository, userRepository, itemRepository,
-                new BookingMapper(), new ItemMapper(), new UserMapper()
+                bookingRepository, archivedBookingRepository, userRepository, itemRepository,
+                new BookingMapper(), new ItemMapper(), new UserMapper(), events::add
         );
 
         BookingDto out = svc.getBookingByUser(200L, bookerId);
@@ -405,8 +514,8 @@ class BookingServiceTests {
         when(bookingRepository.findById(201L)).thenReturn(Optional.of(bk));
 
         BookingServiceImpl svc = new BookingServiceImpl(
-                bookingRepository, userRepository, itemRepository,
-                new BookingMapper(), new ItemMapper(), new UserMapper()
+                bookingRepository, archivedBookingRepository, userRepository, itemRepository,
+                new BookingMapper(), new ItemMapper(), new UserMapper(), events::add
         );
 
         BookingDto out = svc.getBookingByUser(201L, ownerId);
@@ -432,12 +541,40 @@ class BookingServiceTests {
         when(bookingRepository.findById(202L)).thenReturn(Optional.of(bk));
 
         BookingServiceImpl svc = new BookingServiceImpl(
-                bookingRepository, userRepository, itemRepository,
-                new BookingMapper(), new ItemMapper(), new UserMapper()
+                bookingRepository, archivedBookingRepository, userRepository, itemRepository,
+                new BookingMapper(), new ItemMapper(), new UserMapper(), events::add
         );
 
         assertThatThrownBy(() -> svc.getBookingByUser(202L, strangerId))
                 .isInstanceOf(ForbiddenException.class)
                 .hasMessageContaining("Не ваш предмет");
     }
+
+    @Test
+    @DisplayName("streamAllBookingsOfOwner: WAITING — брони выдаются по одной в порядке курсора")
+    void streamAllBookingsOfOwnerWaiting() {
+        long ownerId = 44L;
+        User owner = user(ownerId, "owner");
+        User booker = user(77L, "booker");
+        Item it = item(200L, "Лобзик", true, owner);
+        LocalDateTime now = LocalDateTime.now();
+
+        when(userRepository.findById(ownerId)).thenReturn(Optional.of(owner));
+        when(bookingRepository.streamAllByItem_Owner_IdAndStatusOrderByStartDesc(ownerId, BookingStatus.WAITING))
+                .thenReturn(Stream.of(
+                        booking(21L, it, booker, now.plusDays(2), now.plusDays(3), BookingStatus.WAITING),
+                        booking(20L, it, booker, now.plusDays(1), now.plusDays(2), BookingStatus.WAITING)
+                ));
+
+        BookingServiceImpl svc = new BookingServiceImpl(
+                bookingRepository, archivedBookingRepository, userRepository, itemRepository,
+                new BookingMapper(), new ItemMapper(), new UserMapper(), events::add
+        );
+
+        List<BookingDto> out = new ArrayList<>();
+        svc.streamAllBookingsOfOwner(ownerId, "WAITING", out::add);
+
+        assertThat(out).extracting(BookingDto::getId).containsExactly(21L, 20L);
+        verify(bookingRepository, never()).findAllByItem_Owner_IdAndStatusOrderByStartDesc(anyLong(), any());
+    }
 }
@@ -0,0 +1,81 @@
+package ru.practicum.server;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.practicum.server.booking.model.BookingStatus;
+import ru.practicum.server.booking.repository.ArchivedBookingRepository;
+import ru.practicum.server.booking.repository.BookerItem;
+import ru.practicum.server.booking.repository.BookingRepository;
+import ru.practicum.server.item.service.CommentEligibilityIndex;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CommentEligibilityIndexTests {
+
+    private final BookingRepository bookingRepository = mock(BookingRepository.class);
+    private final ArchivedBookingRepository archivedBookingRepository = mock(ArchivedBookingRepository.class);
+
+    private static BookerItem pair(long bookerId, long itemId) {
+        return new BookerItem() {
+            @Override
+            public Long getBookerId() {
+                return bookerId;
+            }
+
+            @Override
+            public Long getItemId() {
+                return itemId;
+            }
+        };
+    }
+
+    @Test
+    @DisplayName("warmUp/refresh: пары из архива, горячей таблицы и новых завершенных броней находятся, чужие — нет")
+    void warmUpAndRefresh() {
+        List<BookerItem> hot = new ArrayList<>();
+        for (long i = 1; i <= 5_000; i++) {
+            hot.add(pair(i, i + 1));
+        }
+        when(archivedBookingRepository.findBookerItemsByStatus(BookingStatus.APPROVED))
+                .thenReturn(List.of(pair(7, 70)));
+        when(bookingRepository.findBookerItemsByStatusAndEndBefore(eq(BookingStatus.APPROVED), any(LocalDateTime.class)))
+                .thenReturn(hot);
+        when(bookingRepository.findBookerItemsByStatusAndEndBetween(
+                eq(BookingStatus.APPROVED), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(List.of(pair(9, 90)));
+
+        CommentEligibilityIndex index = new CommentEligibilityIndex(bookingRepository, archivedBookingRepository);
+        assertThat(index.contains(9, 90)).isFalse();
+        index.warmUp();
+        index.refresh();
+
+        assertThat(index.contains(7, 70)).isTrue();
+        assertThat(index.contains(9, 90)).isTrue();
+        for (long i = 1; i <= 5_000; i++) {
+            assertThat(index.contains(i, i + 1)).isTrue();
+            assertThat(index.contains(i + 1, i)).isFalse();
+        }
+        assertThat(index.contains(70, 7)).isFalse();
+    }
+
+    @Test
+    @DisplayName("add: id за пределами 32 бит не индексируются и всегда дают промах")
+    void add_ignoresIdsThatDoNotFit() {
+        CommentEligibilityIndex index = new CommentEligibilityIndex(bookingRepository, archivedBookingRepository);
+        long big = 1L << 33;
+
+        index.add(big, 1);
+        index.add(3, 4);
+
+        assertThat(index.contains(big, 1)).isFalse();
+        assertThat(index.contains(3, 4)).isTrue();
+    }
+}
@@ -0,0 +1,70 @@
+package ru.practicum.server;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.server.item.dto.CommentDto;
+import ru.practicum.server.item.dto.ItemDto;
+import ru.practicum.server.item.model.Comment;
+import ru.practicum.server.item.model.Item;
+import ru.practicum.server.item.repository.CommentRepository;
+import ru.practicum.server.item.repository.ItemRepository;
+import ru.practicum.server.item.service.ItemService;
+import ru.practicum.server.user.model.User;
+import ru.practicum.server.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class CommentPagingTests {
+
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private CommentRepository commentRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    @DisplayName("getComments: keyset-страницы по (created, id) без пропусков и повторов, в вещи — последние и общее число")
+    void getComments_keysetPagesAndPreview() {
+        User owner = userRepository.save(User.builder().name("owner").email("paging-owner@ex.com").build());
+        User author = userRepository.save(User.builder().name("Автор").email("paging-author@ex.com").build());
+        Item item = itemRepository.save(Item.builder()
+                .name("Палатка").description("двухместная").available(true).owner(owner).build());
+        LocalDateTime created = LocalDateTime.now().minusDays(1).withNano(0);
+        List<Long> expected = new ArrayList<>();
+        for (int i = 0; i < 15; i++) {
+            // Пары с одинаковым created проверяют второй ключ.
+            Comment saved = commentRepository.save(Comment.builder().text("отзыв " + i).item(item)
+                    .author(author).authorName(author.getName()).created(created.plusMinutes(i / 2)).build());
+            expected.add(0, saved.getId());
+        }
+
+        List<Long> seen = new ArrayList<>();
+        Long afterId = null;
+        List<CommentDto> page;
+        do {
+            page = itemService.getComments(item.getId(), afterId, 4);
+            page.forEach(c -> seen.add(c.getId()));
+            afterId = page.isEmpty() ? null : page.get(page.size() - 1).getId();
+        } while (page.size() == 4);
+
+        assertThat(seen).containsExactlyElementsOf(expected);
+        assertThat(itemService.getComments(item.getId(), null, 20))
+                .extracting(CommentDto::getId).containsExactlyElementsOf(seen);
+
+        ItemDto listed = itemService.getAllItems(owner.getId()).get(0);
+        assertThat(listed.getCommentsCount()).isEqualTo(15L);
+        assertThat(listed.getComments()).hasSize(CommentRepository.PREVIEW_SIZE)
+                .extracting(CommentDto::getId).containsExactlyElementsOf(seen.subList(0, CommentRepository.PREVIEW_SIZE));
+        assertThat(listed.getComments()).allSatisfy(c -> assertThat(c.getAuthorName()).isEqualTo("Автор"));
+    }
+}
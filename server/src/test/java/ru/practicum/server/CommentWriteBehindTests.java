@@ -0,0 +1,131 @@
+package ru.practicum.server;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.server.booking.model.Booking;
+import ru.practicum.server.booking.model.BookingStatus;
+import ru.practicum.server.booking.repository.BookingRepository;
+import ru.practicum.server.item.dto.CommentDto;
+import ru.practicum.server.item.dto.ItemDto;
+import ru.practicum.server.item.model.Comment;
+import ru.practicum.server.item.model.Item;
+import ru.practicum.server.item.repository.CommentRepository;
+import ru.practicum.server.item.repository.ItemRepository;
+import ru.practicum.server.item.service.CommentIdPool;
+import ru.practicum.server.item.service.CommentWriteBehind;
+import ru.practicum.server.item.service.ItemService;
+import ru.practicum.server.user.model.User;
+import ru.practicum.server.user.repository.UserRepository;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest(properties = {
+        "shareit.comments.write-behind.enabled=true",
+        "shareit.comments.write-behind.flush-interval=60000",
+        "shareit.comments.write-behind.spool-file=target/comments-spool-test.jsonl"
+})
+class CommentWriteBehindTests {
+
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private CommentWriteBehind writeBehind;
+    @Autowired
+    private CommentRepository commentRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    @DisplayName("addComment: комментарий сразу виден в карточке вещи и попадает в базу после flush")
+    void addComment_visibleBeforeFlushAndStoredAfter() {
+        User owner = userRepository.save(User.builder().name("owner").email("wb-owner@ex.com").build());
+        User booker = userRepository.save(User.builder().name("Борис").email("wb-booker@ex.com").build());
+        Item item = itemRepository.save(Item.builder()
+                .name("Лодка").description("надувная").available(true).owner(owner).build());
+        LocalDateTime start = LocalDateTime.now().minusDays(3);
+        bookingRepository.save(Booking.builder().item(item).booker(booker).status(BookingStatus.APPROVED)
+                .start(start).end(start.plusDays(1)).build());
+        Comment direct = commentRepository.save(Comment.builder().text("старый").item(item).author(booker)
+                .authorName(booker.getName()).created(start).build());
+
+        CommentDto queued = itemService.addComment(CommentDto.builder().text("Отличная лодка").build(),
+                item.getId(), booker.getId());
+
+        assertThat(queued.getId()).isNotNull().isNotEqualTo(direct.getId());
+        assertThat(queued.getAuthorName()).isEqualTo("Борис");
+        assertThat(commentRepository.existsById(queued.getId())).isFalse();
+
+        ItemDto before = new TransactionTemplate(transactionManager)
+                .execute(status -> itemService.getItemById(item.getId(), booker.getId()));
+        assertThat(before.getComments()).extracting(CommentDto::getId).containsExactly(queued.getId(), direct.getId());
+        assertThat(before.getCommentsCount()).isEqualTo(2L);
+
+        writeBehind.flush();
+
+        assertThat(writeBehind.pending(item.getId())).isEmpty();
+        Comment stored = commentRepository.findById(queued.getId()).orElseThrow();
+        assertThat(stored.getText()).isEqualTo("Отличная лодка");
+        assertThat(stored.getAuthorName()).isEqualTo("Борис");
+
+        ItemDto after = new TransactionTemplate(transactionManager)
+                .execute(status -> itemService.getItemById(item.getId(), booker.getId()));
+        assertThat(after.getComments()).extracting(CommentDto::getId).containsExactly(queued.getId(), direct.getId());
+        assertThat(after.getCommentsCount()).isEqualTo(2L);
+    }
+
+    @Test
+    @DisplayName("start: недоступная база при чтении spool-file не валит старт, файл дописывается повтором из потока записи")
+    void start_spoolReplayRetriedAfterDataAccessException(@TempDir Path dir) throws Exception {
+        Path spool = dir.resolve("spool.jsonl");
+        Files.writeString(spool, "{\"id\":1,\"itemId\":2,\"authorId\":3,\"authorName\":\"Борис\","
+                + "\"text\":\"ок\",\"created\":\"2026-01-01T10:00:00\"}\n");
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.batchUpdate(anyString(), anyList(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenThrow(new DataAccessResourceFailureException("база недоступна"))
+                .thenReturn(new int[][]{{1}});
+        CommentWriteBehind replaying = new CommentWriteBehind(jdbcTemplate, mock(CommentIdPool.class),
+                new ObjectMapper().findAndRegisterModules(), mock(PlatformTransactionManager.class),
+                false, 10, 10, 10, spool.toString());
+
+        try {
+            replaying.start();
+
+            verify(jdbcTemplate, timeout(5_000).times(2))
+                    .batchUpdate(anyString(), anyList(), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (Files.exists(spool) && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertThat(spool).doesNotExist();
+        } finally {
+            replaying.shutdown();
+        }
+    }
+}
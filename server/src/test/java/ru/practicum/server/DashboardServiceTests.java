@@ -0,0 +1,119 @@
+package ru.practicum.server;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import ru.practicum.server.booking.dto.BookingDto;
+import ru.practicum.server.booking.service.BookingService;
+import ru.practicum.server.common.ConnectionLimiter;
+import ru.practicum.server.dashboard.dto.OwnerDashboardDto;
+import ru.practicum.server.dashboard.dto.OwnerDashboardDto.Section;
+import ru.practicum.server.dashboard.service.DashboardServiceImpl;
+import ru.practicum.server.exception.NotFoundException;
+import ru.practicum.server.item.dto.ItemDto;
+import ru.practicum.server.item.service.ItemService;
+import ru.practicum.server.request.dto.ItemRequestResponseDto;
+import ru.practicum.server.request.service.ItemRequestService;
+import ru.practicum.server.user.model.User;
+import ru.practicum.server.user.repository.UserRepository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest(classes = {DashboardServiceImpl.class, ConnectionLimiter.class}, properties = "shareit.dashboard.budget=300")
+class DashboardServiceTests {
+
+    @MockBean
+    private UserRepository userRepository;
+    @MockBean
+    private ItemService itemService;
+    @MockBean
+    private BookingService bookingService;
+    @MockBean
+    private ItemRequestService itemRequestService;
+    @MockBean
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private DashboardServiceImpl service;
+
+    private static <T> T tracked(AtomicInteger running, AtomicInteger maxRunning, T value) throws InterruptedException {
+        maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+        try {
+            Thread.sleep(20);
+            return value;
+        } finally {
+            running.decrementAndGet();
+        }
+    }
+
+    @Test
+    @DisplayName("getOwnerDashboard: один раз проверяет пользователя и отдает медленный раздел как неполный")
+    void slowSectionIsReportedAsIncomplete() {
+        User owner = User.builder().id(1L).name("owner").email("owner@ex.com").build();
+        when(userRepository.findById(1L)).thenReturn(Optional.of(owner));
+        when(itemService.getAllItems(1L)).thenReturn(List.of(ItemDto.builder().id(10L).build()));
+        when(bookingService.getAllBookingsOfOwner(owner, "WAITING"))
+                .thenReturn(List.of(BookingDto.builder().id(20L).build()));
+        when(bookingService.getAllBookingsOfOwner(owner, "CURRENT")).thenAnswer(inv -> {
+            Thread.sleep(5_000);
+            return List.of();
+        });
+        when(itemRequestService.getAll(owner, 0, 10, null))
+                .thenReturn(List.of(ItemRequestResponseDto.builder().id(30L).build()));
+
+        long started = System.nanoTime();
+        OwnerDashboardDto dto = service.getOwnerDashboard(1L);
+
+        assertThat(System.nanoTime() - started).isLessThan(2_000_000_000L);
+        assertThat(dto.getItems()).extracting(ItemDto::getId).containsExactly(10L);
+        assertThat(dto.getWaitingBookings()).extracting(BookingDto::getId).containsExactly(20L);
+        assertThat(dto.getRequests()).extracting(ItemRequestResponseDto::getId).containsExactly(30L);
+        assertThat(dto.getCurrentBookings()).isNull();
+        assertThat(dto.getIncomplete()).containsExactly(Section.CURRENT_BOOKINGS);
+        verify(userRepository, times(1)).findById(1L);
+        verify(bookingService, never()).getAllBookingsOfOwner(anyLong(), anyString());
+    }
+
+    @Test
+    @DisplayName("getOwnerDashboard: разделов одновременно не больше, чем разрешений ConnectionLimiter")
+    void sectionsBoundedBySharedLimiter() {
+        DashboardServiceImpl limited = new DashboardServiceImpl(userRepository, itemService, bookingService,
+                itemRequestService, new ConnectionLimiter(2, 0.5), transactionManager, 2_000, 10);
+        User owner = User.builder().id(3L).name("owner").email("limited@ex.com").build();
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        when(userRepository.findById(3L)).thenReturn(Optional.of(owner));
+        when(itemService.getAllItems(3L)).thenAnswer(inv -> tracked(running, maxRunning, List.of()));
+        when(bookingService.getAllBookingsOfOwner(eq(owner), anyString()))
+                .thenAnswer(inv -> tracked(running, maxRunning, List.of()));
+        when(itemRequestService.getAll(owner, 0, 10, null)).thenAnswer(inv -> tracked(running, maxRunning, List.of()));
+
+        try {
+            OwnerDashboardDto dto = limited.getOwnerDashboard(3L);
+
+            assertThat(dto.getIncomplete()).isEmpty();
+            assertThat(maxRunning.get()).isEqualTo(1);
+        } finally {
+            limited.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("getOwnerDashboard: несуществующий пользователь — NotFoundException, разделы не запрашиваются")
+    void unknownUser() {
+        when(userRepository.findById(2L)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> service.getOwnerDashboard(2L)).isInstanceOf(NotFoundException.class);
+        verifyNoInteractions(itemService, bookingService, itemRequestService);
+    }
+}
@@ -0,0 +1,49 @@
+package ru.practicum.server;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.server.exception.AlreadyExists;
+import ru.practicum.server.user.dto.UserDto;
+import ru.practicum.server.user.model.User;
+import ru.practicum.server.user.repository.UserRepository;
+import ru.practicum.server.user.service.UserService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class EmailIndexTests {
+
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    @DisplayName("Email, занятый в обход индекса, отсекает ограничение UQ_USER_EMAIL с той же ошибкой AlreadyExists")
+    void constraintIsFinalArbiter() {
+        userRepository.save(User.builder().name("Тихон").email("bypass@ex.com").build());
+
+        assertThatThrownBy(() -> userService.create(UserDto.builder().name("Другой").email("bypass@ex.com").build()))
+                .isInstanceOf(AlreadyExists.class);
+    }
+
+    @Test
+    @DisplayName("Индекс следует за созданием, сменой email и удалением, без учета регистра")
+    void indexFollowsWrites() {
+        UserDto created = userService.create(UserDto.builder().name("Вера").email("vera@ex.com").build());
+
+        assertThatThrownBy(() -> userService.create(UserDto.builder().name("Копия").email("VERA@ex.com").build()))
+                .isInstanceOf(AlreadyExists.class);
+
+        userService.updateUserById(created.getId(), UserDto.builder().email("vera.new@ex.com").build());
+        UserDto reused = userService.create(UserDto.builder().name("Новая Вера").email("vera@ex.com").build());
+        assertThat(reused.getId()).isNotEqualTo(created.getId());
+
+        userService.deleteUserById(created.getId());
+        UserDto afterDelete = userService.create(UserDto.builder().name("Еще Вера").email("vera.new@ex.com").build());
+        assertThat(afterDelete.getEmail()).isEqualTo("vera.new@ex.com");
+    }
+}
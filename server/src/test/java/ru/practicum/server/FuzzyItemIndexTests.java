@@ -0,0 +1,79 @@
+package ru.practicum.server;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.server.item.event.ItemSavedEvent;
+import ru.practicum.server.item.model.Item;
+import ru.practicum.server.item.service.FuzzyItemIndex;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class FuzzyItemIndexTests {
+
+    private final FuzzyItemIndex index = new FuzzyItemIndex(mock(JdbcTemplate.class));
+
+    private void save(long id, String name, String description) {
+        Item item = Item.builder().id(id).name(name).description(description).available(true).build();
+        index.onItemSaved(new ItemSavedEvent(item, true));
+    }
+
+    @Test
+    @DisplayName("find находит слова с одной-двумя опечатками и ставит точные совпадения первыми")
+    void findToleratesTypos() {
+        save(1, "Дрель ударная", "Мощная");
+        save(2, "Дрэль", "Почти дрель");
+        save(3, "Перфоратор", "Бурит бетон");
+
+        assertThat(index.find("дрель", 10)).containsExactly(
+                new FuzzyItemIndex.Match(1, 0),
+                new FuzzyItemIndex.Match(2, 0));
+        assertThat(index.find("перфаротор", 10)).containsExactly(new FuzzyItemIndex.Match(3, 2));
+        assertThat(index.find("дрэл", 10)).extracting(FuzzyItemIndex.Match::itemId).containsExactly(2L);
+        assertThat(index.find("перпендикуляр", 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("find требует близкое слово для каждого слова запроса и суммирует правки")
+    void findMatchesAllWords() {
+        save(1, "Дрель ударная", "Мощная");
+        save(2, "Дрель", "Аккумуляторная");
+
+        assertThat(index.find("дрел ударна", 10)).containsExactly(new FuzzyItemIndex.Match(1, 2));
+        assertThat(index.find("дрель акумуляторная", 10)).containsExactly(new FuzzyItemIndex.Match(2, 1));
+        assertThat(index.find("дрель ударная аккумуляторная", 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Изменение и удаление вещи убирают ее старые слова из индекса")
+    void updateAndRemove() {
+        save(1, "Дрель", "Мощная");
+        save(1, "Лобзик", "Мощный");
+
+        assertThat(index.find("дрель", 10)).isEmpty();
+        assertThat(index.find("лобзек", 10)).containsExactly(new FuzzyItemIndex.Match(1, 1));
+
+        index.remove(1);
+        assertThat(index.find("лобзик", 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("find находит короткое слово с заменой в середине, хотя общих триграмм у них нет")
+    void findShortWordWithoutSharedTrigrams() {
+        save(1, "Кот", "Плюшевый");
+        save(2, "Котел", "Чугунный");
+
+        assertThat(index.find("кит", 10)).containsExactly(new FuzzyItemIndex.Match(1, 1));
+        assertThat(index.find("кател", 10)).containsExactly(new FuzzyItemIndex.Match(2, 1));
+    }
+
+    @Test
+    @DisplayName("Вещь с id вне int не индексируется и не мешает остальным")
+    void hugeIdIsSkipped() {
+        save(Integer.MAX_VALUE + 1L, "Дрель", "Мощная");
+        save(1, "Дрель", "Легкая");
+
+        assertThat(index.find("дрель", 10)).containsExactly(new FuzzyItemIndex.Match(1, 0));
+    }
+}
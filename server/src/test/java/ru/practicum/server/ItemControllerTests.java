@@ -9,11 +9,15 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.server.exception.VersionConflict;
 import ru.practicum.server.item.controller.ItemController;
+import ru.practicum.server.item.dto.AvailabilityDto;
 import ru.practicum.server.item.dto.CommentDto;
 import ru.practicum.server.item.dto.ItemDto;
+import ru.practicum.server.item.dto.ItemSort;
 import ru.practicum.server.item.service.ItemService;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -21,9 +25,11 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -83,7 +89,7 @@ class ItemControllerTests {
         ItemDto resp = item(itemId);
         resp.setName("Новое имя");
 
-        when(itemService.updateItem(eq(userId), eq(itemId), any(ItemDto.class))).thenReturn(resp);
+        when(itemService.updateItem(eq(userId), eq(itemId), any(ItemDto.class), isNull())).thenReturn(resp);
 
         mockMvc.perform(patch("/items/{itemId}", itemId)
                         .contentType(MediaType.APPLICATION_JSON)
@@ -110,11 +116,35 @@ class ItemControllerTests {
                 .andExpect(jsonPath("$.available", is(true)));
     }
 
+    @Test
+    @DisplayName("GET /items/{id}/availability — календарь занятости за период")
+    void getAvailability() throws Exception {
+        long itemId = 3L;
+        LocalDate from = LocalDate.of(2030, 1, 1);
+        LocalDate to = LocalDate.of(2030, 1, 10);
+        AvailabilityDto resp = AvailabilityDto.builder()
+                .itemId(itemId).from(from).to(to)
+                .intervals(List.of(
+                        new AvailabilityDto.Interval(from, LocalDate.of(2030, 1, 4), AvailabilityDto.DayState.FREE),
+                        new AvailabilityDto.Interval(LocalDate.of(2030, 1, 5), to, AvailabilityDto.DayState.BUSY)))
+                .build();
+
+        when(itemService.getAvailability(itemId, from, to)).thenReturn(resp);
+
+        mockMvc.perform(get("/items/{itemId}/availability", itemId)
+                        .param("from", "2030-01-01")
+                        .param("to", "2030-01-10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.intervals", hasSize(2)))
+                .andExpect(jsonPath("$.intervals[1].start", is("2030-01-05")))
+                .andExpect(jsonPath("$.intervals[1].state", is("BUSY")));
+    }
+
     @Test
     @DisplayName("GET /items — список предметов владельца")
     void getAllItems() throws Exception {
         long userId = 77L;
-        when(itemService.getAllItems(userId)).thenReturn(List.of(item(1L), item(2L)));
+        when(itemService.getAllItems(userId, 0, null)).thenReturn(List.of(item(1L), item(2L)));
 
         mockMvc.perform(get("/items")
                         .header("X-Sharer-User-Id", userId))
@@ -124,20 +154,86 @@ class ItemControllerTests {
                 .andExpect(jsonPath("$[1].id", is(2L), Long.class));
     }
 
+    @Test
+    @DisplayName("GET /items?from=&size= — страница предметов владельца")
+    void getAllItems_paged() throws Exception {
+        long userId = 77L;
+        when(itemService.getAllItems(userId, 10, 5)).thenReturn(List.of(item(11L)));
+
+        mockMvc.perform(get("/items")
+                        .header("X-Sharer-User-Id", userId)
+                        .param("from", "10")
+                        .param("size", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id", is(11L), Long.class));
+    }
+
     @Test
     @DisplayName("GET /items/search?text= — контроллер приводит текст к нижнему регистру")
     void search_lowercasesText() throws Exception {
-        when(itemService.search(anyString())).thenReturn(List.of(item(10L)));
+        when(itemService.search(anyString(), isNull(), isNull(), isNull())).thenReturn(List.of(item(10L)));
 
         mockMvc.perform(get("/items/search").param("text", "ДРЕЛЬ"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$[0].id", is(10L), Long.class));
 
         ArgumentCaptor<String> captor = ArgumentCaptor.forClass(String.class);
-        verify(itemService).search(captor.capture());
+        verify(itemService).search(captor.capture(), isNull(), isNull(), isNull());
         assertThat(captor.getValue()).isEqualTo("дрель");
     }
 
+    @Test
+    @DisplayName("GET /items/search?text=&sort=VIEWS — порядок передается в сервис")
+    void search_passesSort() throws Exception {
+        when(itemService.search("дрель", null, null, ItemSort.VIEWS)).thenReturn(List.of(item(10L)));
+
+        mockMvc.perform(get("/items/search").param("text", "дрель").param("sort", "VIEWS"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id", is(10L), Long.class));
+    }
+
+    @Test
+    @DisplayName("GET /items/search?fuzzy=true — поиск с опечатками")
+    void search_fuzzy() throws Exception {
+        when(itemService.searchFuzzy("дрэль", null, null, null)).thenReturn(List.of(item(10L)));
+
+        mockMvc.perform(get("/items/search").param("text", "Дрэль").param("fuzzy", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id", is(10L), Long.class));
+        verify(itemService, never()).search(anyString(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("PATCH /items/{id} с If-Match передает версию в сервис и отдает новый ETag")
+    void updateItem_ifMatch() throws Exception {
+        ItemDto resp = item(5L);
+        resp.setVersion(4L);
+        when(itemService.updateItem(eq(10L), eq(5L), any(ItemDto.class), eq(3L))).thenReturn(resp);
+
+        mockMvc.perform(patch("/items/{itemId}", 5L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(ItemDto.builder().name("N").build()))
+                        .header("X-Sharer-User-Id", 10L)
+                        .header("If-Match", "\"3\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"4\""));
+    }
+
+    @Test
+    @DisplayName("PATCH /items/{id} с устаревшим If-Match — 412")
+    void updateItem_staleVersion() throws Exception {
+        when(itemService.updateItem(eq(10L), eq(5L), any(ItemDto.class), eq(3L)))
+                .thenThrow(new VersionConflict("Вещь уже изменена"));
+
+        mockMvc.perform(patch("/items/{itemId}", 5L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(ItemDto.builder().name("N").build()))
+                        .header("X-Sharer-User-Id", 10L)
+                        .header("If-Match", "\"3\""))
+                .andExpect(status().isPreconditionFailed());
+    }
+
     @Test
     @DisplayName("POST /items/{id}/comment — добавить комментарий")
     void addComment() throws Exception {
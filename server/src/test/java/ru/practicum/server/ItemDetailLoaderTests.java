@@ -0,0 +1,208 @@
+package ru.practicum.server;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+import ru.practicum.server.booking.model.Booking;
+import ru.practicum.server.booking.repository.ArchivedBookingRepository;
+import ru.practicum.server.booking.repository.BookingRepository;
+import ru.practicum.server.common.ConnectionLimiter;
+import ru.practicum.server.exception.NotFoundException;
+import ru.practicum.server.item.mapper.CommentMapper;
+import ru.practicum.server.item.model.Comment;
+import ru.practicum.server.item.model.Item;
+import ru.practicum.server.item.repository.CommentRepository;
+import ru.practicum.server.item.repository.ItemRepository;
+import ru.practicum.server.item.service.ItemDetailLoader;
+import ru.practicum.server.user.model.User;
+import ru.practicum.server.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest(classes = ItemDetailLoader.class, properties = "shareit.items.detail-max-queries=6")
+@Import({CommentMapper.class, ConnectionLimiter.class})
+class ItemDetailLoaderTests {
+    private static final int QUERIES = 6;
+
+    @MockBean
+    private UserRepository userRepository;
+    @MockBean
+    private ItemRepository itemRepository;
+    @MockBean
+    private CommentRepository commentRepository;
+    @MockBean
+    private BookingRepository bookingRepository;
+    @MockBean
+    private ArchivedBookingRepository archivedBookingRepository;
+    @MockBean
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ItemDetailLoader loader;
+    @Autowired
+    private CommentMapper commentMapper;
+
+    private ItemDetailLoader loader(ConnectionLimiter limiter, int maxQueries) {
+        return new ItemDetailLoader(userRepository, itemRepository, commentRepository, bookingRepository,
+                archivedBookingRepository, commentMapper, limiter, transactionManager, true, maxQueries);
+    }
+
+    private static <T> T together(CyclicBarrier barrier, T value) throws Exception {
+        barrier.await(5, TimeUnit.SECONDS);
+        return value;
+    }
+
+    @Test
+    @DisplayName("load: все шесть запросов карточки выполняются одновременно")
+    void load_queriesOverlap() {
+        User owner = User.builder().id(1L).name("owner").email("o@ex.com").build();
+        User booker = User.builder().id(2L).name("booker").email("b@ex.com").build();
+        Item item = Item.builder().id(10L).name("Дрель").description("ударная").available(true).owner(owner).build();
+        Comment comment = Comment.builder().id(5L).text("ок").item(item).author(booker).build();
+        Booking last = Booking.builder().id(100L).item(item).booker(booker).build();
+        Booking next = Booking.builder().id(101L).item(item).booker(booker).build();
+
+        // Барьер на шесть участников пропускает только если все шесть запросов идут одновременно.
+        CyclicBarrier barrier = new CyclicBarrier(QUERIES);
+        when(userRepository.existsById(1L)).thenAnswer(inv -> together(barrier, true));
+        when(itemRepository.findById(10L)).thenAnswer(inv -> together(barrier, Optional.of(item)));
+        when(commentRepository.findByItem_IdOrderByCreatedDescIdDesc(eq(10L), any(Pageable.class)))
+                .thenAnswer(inv -> together(barrier, List.of(comment)));
+        when(commentRepository.countByItem_Id(10L)).thenAnswer(inv -> together(barrier, 1L));
+        when(bookingRepository.findTop1ByItem_IdAndStartLessThanEqualOrderByStartDesc(eq(10L), any(LocalDateTime.class)))
+                .thenAnswer(inv -> together(barrier, List.of(last)));
+        when(bookingRepository.findTop1ByItem_IdAndStartAfterOrderByStartAsc(eq(10L), any(LocalDateTime.class)))
+                .thenAnswer(inv -> together(barrier, List.of(next)));
+
+        ItemDetailLoader overlapping = loader(new ConnectionLimiter(10, 0.5), QUERIES);
+        try {
+            ItemDetailLoader.Detail detail = overlapping.load(10L, 1L);
+
+            assertThat(detail.item().getId()).isEqualTo(10L);
+            assertThat(detail.comments()).singleElement()
+                    .satisfies(c -> assertThat(c.getAuthorName()).isEqualTo("booker"));
+            assertThat(detail.commentsCount()).isEqualTo(1L);
+            assertThat(detail.last().getId()).isEqualTo(100L);
+            assertThat(detail.next().getId()).isEqualTo(101L);
+        } finally {
+            overlapping.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("load: неизвестный пользователь — NotFoundException, как и в последовательном режиме")
+    void load_unknownUser() {
+        when(userRepository.existsById(3L)).thenReturn(false);
+        when(itemRepository.findById(10L)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> loader.load(10L, 3L))
+                .isInstanceOf(NotFoundException.class)
+                .hasMessageContaining("Пользователь");
+    }
+
+    @Test
+    @DisplayName("load: одна карточка выполняет одновременно не больше detail-max-queries запросов")
+    void load_fanOutBoundedPerRequest() {
+        ItemDetailLoader bounded = loader(new ConnectionLimiter(10, 0.5), 2);
+        User owner = User.builder().id(1L).name("owner").email("o@ex.com").build();
+        Item item = Item.builder().id(10L).name("Дрель").description("ударная").available(true).owner(owner).build();
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+
+        when(userRepository.existsById(1L)).thenAnswer(inv -> tracked(running, maxRunning, true));
+        when(itemRepository.findById(10L)).thenAnswer(inv -> tracked(running, maxRunning, Optional.of(item)));
+        when(commentRepository.findByItem_IdOrderByCreatedDescIdDesc(eq(10L), any(Pageable.class)))
+                .thenAnswer(inv -> tracked(running, maxRunning, List.of()));
+        when(commentRepository.countByItem_Id(10L)).thenAnswer(inv -> tracked(running, maxRunning, 0L));
+        when(bookingRepository.findTop1ByItem_IdAndStartLessThanEqualOrderByStartDesc(eq(10L), any(LocalDateTime.class)))
+                .thenAnswer(inv -> tracked(running, maxRunning, List.of()));
+        when(archivedBookingRepository.findTop1ByItem_IdOrderByStartDesc(10L)).thenReturn(List.of());
+        when(bookingRepository.findTop1ByItem_IdAndStartAfterOrderByStartAsc(eq(10L), any(LocalDateTime.class)))
+                .thenAnswer(inv -> tracked(running, maxRunning, List.of()));
+
+        try {
+            ItemDetailLoader.Detail detail = bounded.load(10L, 1L);
+
+            assertThat(detail.item().getId()).isEqualTo(10L);
+            assertThat(maxRunning.get()).isLessThanOrEqualTo(2);
+        } finally {
+            bounded.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("load: без свободных разрешений ConnectionLimiter запросы идут в вызывающем потоке, а не ждут")
+    void load_exhaustedLimiterFallsBackToCallerThread() {
+        ConnectionLimiter exhausted = new ConnectionLimiter(2, 0.5);
+        assertThat(exhausted.tryAcquire()).isTrue();
+        ItemDetailLoader sequential = loader(exhausted, QUERIES);
+        User owner = User.builder().id(1L).name("owner").email("o@ex.com").build();
+        Item item = Item.builder().id(10L).name("Дрель").description("ударная").available(true).owner(owner).build();
+        Set<Thread> threads = ConcurrentHashMap.newKeySet();
+
+        when(userRepository.existsById(1L)).thenAnswer(inv -> threads.add(Thread.currentThread()));
+        when(itemRepository.findById(10L)).thenAnswer(inv -> {
+            threads.add(Thread.currentThread());
+            return Optional.of(item);
+        });
+
+        try {
+            ItemDetailLoader.Detail detail = sequential.load(10L, 1L);
+
+            assertThat(detail.item().getId()).isEqualTo(10L);
+            assertThat(threads).containsExactly(Thread.currentThread());
+        } finally {
+            sequential.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("load: после NotFoundException незавершенные запросы прерываются, а не досиживают до конца")
+    void load_notFoundInterruptsPendingQueries() throws InterruptedException {
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        // Пользователь «не находится» только после старта запроса вещи, иначе его могут отменить до запуска.
+        when(userRepository.existsById(4L)).thenAnswer(inv -> !running.await(5, TimeUnit.SECONDS));
+        when(itemRepository.findById(10L)).thenAnswer(inv -> {
+            running.countDown();
+            try {
+                Thread.sleep(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+            return Optional.empty();
+        });
+
+        assertThatThrownBy(() -> loader.load(10L, 4L)).isInstanceOf(NotFoundException.class);
+        assertThat(interrupted.await(1, TimeUnit.SECONDS)).isTrue();
+    }
+
+    private static <T> T tracked(AtomicInteger running, AtomicInteger maxRunning, T value) throws InterruptedException {
+        maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+        try {
+            Thread.sleep(50);
+            return value;
+        } finally {
+            running.decrementAndGet();
+        }
+    }
+}
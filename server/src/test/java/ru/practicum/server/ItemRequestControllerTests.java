@@ -8,6 +8,7 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.server.exception.NotFoundException;
 import ru.practicum.server.request.controller.ItemRequestController;
 import ru.practicum.server.request.dto.ItemRequestDto;
 import ru.practicum.server.request.dto.ItemRequestResponseDto;
@@ -15,11 +16,14 @@ import ru.practicum.server.request.service.ItemRequestService;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Consumer;
 
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
@@ -82,13 +86,29 @@ class ItemRequestControllerTests {
     @DisplayName("GET /requests/all — получить запросы других пользователей")
     void getAll() throws Exception {
         long userId = 7L;
-        when(service.getAll(userId)).thenReturn(List.of(resp(10L, "x")));
+        when(service.getAll(userId, 0, 10, null)).thenReturn(List.of(resp(10L, "x")));
 
         mockMvc.perform(get("/requests/all").header("X-Sharer-User-Id", userId))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$[0].id", is(10L), Long.class));
     }
 
+    @Test
+    @DisplayName("GET /requests/all?from=&size=&afterId= — параметры страницы передаются в сервис")
+    void getAllPaged() throws Exception {
+        long userId = 7L;
+        when(service.getAll(userId, 20, 5, 33L)).thenReturn(List.of(resp(11L, "y")));
+
+        mockMvc.perform(get("/requests/all")
+                        .param("from", "20")
+                        .param("size", "5")
+                        .param("afterId", "33")
+                        .header("X-Sharer-User-Id", userId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id", is(11L), Long.class));
+    }
+
     @Test
     @DisplayName("GET /requests/{id} — получить конкретный запрос")
     void getById() throws Exception {
@@ -100,4 +120,33 @@ class ItemRequestControllerTests {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.id", is(77L), Long.class));
     }
+
+    @Test
+    @DisplayName("GET /requests/all?stream=true — потоковая выдача запросов")
+    void streamAll() throws Exception {
+        long userId = 7L;
+        doAnswer(inv -> {
+            Consumer<ItemRequestResponseDto> sink = inv.getArgument(1);
+            sink.accept(resp(10L, "x"));
+            sink.accept(resp(11L, "y"));
+            return null;
+        }).when(service).streamAll(eq(userId), any());
+
+        mockMvc.perform(get("/requests/all").param("stream", "true").header("X-Sharer-User-Id", userId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[1].description", is("y")));
+    }
+
+    @Test
+    @DisplayName("GET /requests?stream=true — ошибка до начала выдачи превращается в обычный 404")
+    void streamOwn_userNotFound() throws Exception {
+        long userId = 404L;
+        doThrow(new NotFoundException("Пользователь с id=404 не найден"))
+                .when(service).streamOwn(eq(userId), any());
+
+        mockMvc.perform(get("/requests").param("stream", "true").header("X-Sharer-User-Id", userId))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.description", is("Пользователь с id=404 не найден")));
+    }
 }
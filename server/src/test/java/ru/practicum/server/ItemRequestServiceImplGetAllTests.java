@@ -1,19 +1,26 @@
 package ru.practicum.server;
 
+import jakarta.persistence.EntityManagerFactory;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import ru.practicum.server.exception.ForbiddenException;
 import ru.practicum.server.exception.NotFoundException;
+import ru.practicum.server.item.event.ItemSavedEvent;
 import ru.practicum.server.item.model.Item;
 import ru.practicum.server.item.repository.ItemRepository;
 import ru.practicum.server.request.dto.ItemRequestResponseDto;
 import ru.practicum.server.request.mapper.ItemRequestMapper;
 import ru.practicum.server.request.model.ItemRequest;
 import ru.practicum.server.request.repository.ItemRequestRepository;
+import ru.practicum.server.request.service.ItemRequestFeed;
 import ru.practicum.server.request.service.ItemRequestServiceImpl;
+import ru.practicum.server.request.service.RequestMatcher;
 import ru.practicum.server.user.model.User;
 import ru.practicum.server.user.repository.UserRepository;
 
@@ -22,18 +29,30 @@ import java.util.*;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @SpringBootTest(classes = ItemRequestServiceImpl.class)
 @Import(ItemRequestMapper.class)
 class ItemRequestServiceImplGetAllTests {
 
+    @MockBean
+    private EntityManagerFactory entityManagerFactory;
     @MockBean
     private UserRepository userRepository;
     @MockBean
     private ItemRepository itemRepository;
     @MockBean
     private ItemRequestRepository itemRequestRepository;
+    @MockBean
+    private ItemRequestFeed itemRequestFeed;
+    @MockBean
+    private RequestMatcher requestMatcher;
+
+    private ItemRequestFeed coldFeed() {
+        return new ItemRequestFeed(itemRequestRepository, itemRepository, 100);
+    }
 
     private static User user(long id, String name) {
         return User.builder().id(id).name(name).email(name + "@ex.com").build();
@@ -48,7 +67,7 @@ class ItemRequestServiceImplGetAllTests {
     }
 
     @Test
-    @DisplayName("getAll: возвращает чужие запросы, отсортированные по created DESC, с ответами items")
+    @DisplayName("getAll: возвращает страницу чужих запросов в порядке БД (created DESC, id DESC) с ответами items")
     void getAll_success_sortedWithAnswers() {
         long viewerId = 10L;
         User viewer = user(viewerId, "viewer");
@@ -62,8 +81,8 @@ class ItemRequestServiceImplGetAllTests {
         ItemRequest rOld = request(100L, "старый", alice, now.minusDays(2));
         ItemRequest rNew = request(101L, "новый", bob, now.minusHours(3));
 
-        when(itemRequestRepository.findAllByRequesterIdNot(viewerId))
-                .thenReturn(new ArrayList<>(List.of(rOld, rNew)));
+        when(itemRequestRepository.findAllByRequesterIdNot(eq(viewerId), any(Pageable.class)))
+                .thenReturn(new ArrayList<>(List.of(rNew, rOld)));
 
         Item i1 = item(1000L, "Дрель", alice, rOld);
         Item i2 = item(2000L, "Лобзик", bob, rNew);
@@ -73,8 +92,8 @@ class ItemRequestServiceImplGetAllTests {
                 .thenReturn(new ArrayList<>(List.of(i1, i2, i3)));
 
         List<ItemRequestResponseDto> result =
-                new ItemRequestServiceImpl(userRepository, itemRepository, itemRequestRepository, new ItemRequestMapper())
-                        .getAll(viewerId);
+                new ItemRequestServiceImpl(userRepository, itemRepository, itemRequestRepository, new ItemRequestMapper(), coldFeed(), requestMatcher)
+                        .getAll(viewerId, 20, 10, null);
 
         assertThat(result).hasSize(2);
 
@@ -86,7 +105,12 @@ class ItemRequestServiceImplGetAllTests {
         assertThat(result.get(1).getDescription()).isEqualTo("старый");
         assertThat(result.get(1).getItems()).extracting("id").containsExactly(1000L);
 
-        verify(itemRequestRepository, times(1)).findAllByRequesterIdNot(viewerId);
+        ArgumentCaptor<Pageable> pageCaptor = ArgumentCaptor.forClass(Pageable.class);
+        verify(itemRequestRepository, times(1)).findAllByRequesterIdNot(eq(viewerId), pageCaptor.capture());
+        assertThat(pageCaptor.getValue().getPageNumber()).isEqualTo(2);
+        assertThat(pageCaptor.getValue().getPageSize()).isEqualTo(10);
+        assertThat(pageCaptor.getValue().getSort())
+                .isEqualTo(Sort.by(Sort.Direction.DESC, "created", "id"));
 
         ArgumentCaptor<Collection<Long>> idsCaptor = ArgumentCaptor.forClass(Collection.class);
         verify(itemRepository, times(1)).findAllByItemRequestIdIn(idsCaptor.capture());
@@ -96,6 +120,72 @@ class ItemRequestServiceImplGetAllTests {
         verifyNoMoreInteractions(itemRepository);
     }
 
+    @Test
+    @DisplayName("getAll: afterId — keyset-страница после (created, id) последнего показанного запроса")
+    void getAll_keysetAfterId() {
+        long viewerId = 10L;
+        when(userRepository.findById(viewerId)).thenReturn(Optional.of(user(viewerId, "viewer")));
+
+        User alice = user(2L, "alice");
+        LocalDateTime now = LocalDateTime.now();
+        ItemRequest last = request(101L, "последний на странице", alice, now.minusHours(1));
+        ItemRequest older = request(99L, "старше", alice, now.minusDays(1));
+
+        when(itemRequestRepository.findById(101L)).thenReturn(Optional.of(last));
+        when(itemRequestRepository.findAllByRequesterIdNotBefore(
+                eq(viewerId), eq(last.getCreated()), eq(101L), any(Pageable.class)))
+                .thenReturn(List.of(older));
+        when(itemRepository.findAllByItemRequestIdIn(anyCollection())).thenReturn(List.of());
+
+        List<ItemRequestResponseDto> result =
+                new ItemRequestServiceImpl(userRepository, itemRepository, itemRequestRepository, new ItemRequestMapper(), coldFeed(), requestMatcher)
+                        .getAll(viewerId, 0, 5, 101L);
+
+        assertThat(result).extracting(ItemRequestResponseDto::getId).containsExactly(99L);
+        assertThat(result.get(0).getItems()).isEmpty();
+        verify(itemRequestRepository, never()).findAllByRequesterIdNot(anyLong(), any(Pageable.class));
+    }
+
+    @Test
+    @DisplayName("getAll: прогретая лента отдает страницу без запросов в БД, ответы подтягиваются по событию")
+    void getAll_servedFromWarmFeed() {
+        long viewerId = 10L;
+        User viewer = user(viewerId, "viewer");
+        when(userRepository.findById(viewerId)).thenReturn(Optional.of(viewer));
+
+        User alice = user(2L, "alice");
+        LocalDateTime now = LocalDateTime.now();
+        ItemRequest rOld = request(100L, "старый", alice, now.minusDays(2));
+        ItemRequest rOwn = request(101L, "свой", viewer, now.minusDays(1));
+
+        when(itemRequestRepository.findAllByOrderByCreatedDescIdDesc(any(Pageable.class)))
+                .thenReturn(List.of(rOwn, rOld));
+        when(itemRepository.findAllByItemRequestIdIn(anyCollection())).thenReturn(List.of());
+
+        ItemRequestFeed feed = coldFeed();
+        feed.warmUp();
+
+        ItemRequest rNew = request(102L, "новый", alice, now.minusHours(1));
+        feed.add(rNew);
+        feed.onItemSaved(new ItemSavedEvent(item(2000L, "Лобзик", viewer, rNew), true));
+
+        clearInvocations(itemRequestRepository, itemRepository);
+
+        List<ItemRequestResponseDto> result =
+                new ItemRequestServiceImpl(userRepository, itemRepository, itemRequestRepository, new ItemRequestMapper(), feed, requestMatcher)
+                        .getAll(viewerId, 0, 10, null);
+
+        assertThat(result).extracting(ItemRequestResponseDto::getId).containsExactly(102L, 100L);
+        assertThat(result.get(0).getItems()).extracting("id").containsExactly(2000L);
+        assertThat(result.get(1).getItems()).isEmpty();
+
+        assertThat(feed.pageAfter(viewerId, 102L, 10)).hasValueSatisfying(page ->
+                assertThat(page).extracting(ItemRequestResponseDto::getId).containsExactly(100L));
+
+        verifyNoInteractions(itemRequestRepository);
+        verifyNoInteractions(itemRepository);
+    }
+
     @Test
     @DisplayName("getOwn: возвращает собственные запросы, отсортированные по created DESC, с ответами items (батч-загрузка)")
     void getOwn_success_sortedWithAnswers() {
@@ -118,7 +208,7 @@ class ItemRequestServiceImplGetAllTests {
                 .thenReturn(new ArrayList<>(List.of(i1, i2, i3)));
 
         List<ItemRequestResponseDto> result =
-                new ItemRequestServiceImpl(userRepository, itemRepository, itemRequestRepository, new ItemRequestMapper())
+                new ItemRequestServiceImpl(userRepository, itemRepository, itemRequestRepository, new ItemRequestMapper(), coldFeed(), requestMatcher)
                         .getOwn(userId);
 
         assertThat(result).hasSize(2);
@@ -147,12 +237,26 @@ class ItemRequestServiceImplGetAllTests {
         when(userRepository.findById(777L)).thenReturn(Optional.empty());
 
         assertThatThrownBy(() ->
-                new ItemRequestServiceImpl(userRepository, itemRepository, itemRequestRepository, new ItemRequestMapper())
-                        .getAll(777L)
+                new ItemRequestServiceImpl(userRepository, itemRepository, itemRequestRepository, new ItemRequestMapper(), coldFeed(), requestMatcher)
+                        .getAll(777L, 0, 10, null)
         )
                 .isInstanceOf(NotFoundException.class);
 
         verifyNoInteractions(itemRequestRepository);
         verifyNoInteractions(itemRepository);
     }
+
+    @Test
+    @DisplayName("getAll: size <= 0 или отрицательный from → ForbiddenException до обращения к ленте и БД")
+    void getAll_badPage() {
+        ItemRequestServiceImpl service = new ItemRequestServiceImpl(userRepository, itemRepository,
+                itemRequestRepository, new ItemRequestMapper(), itemRequestFeed, requestMatcher);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user(1L, "viewer")));
+
+        assertThatThrownBy(() -> service.getAll(1L, 0, 0, null)).isInstanceOf(ForbiddenException.class);
+        assertThatThrownBy(() -> service.getAll(1L, -1, 10, null)).isInstanceOf(ForbiddenException.class);
+        assertThatThrownBy(() -> service.getAll(1L, 0, -5, 3L)).isInstanceOf(ForbiddenException.class);
+
+        verifyNoInteractions(itemRequestFeed, itemRequestRepository);
+    }
 }
@@ -1,5 +1,6 @@
 package ru.practicum.server;
 
+import jakarta.persistence.EntityManagerFactory;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
@@ -7,28 +8,47 @@ import org.mockito.ArgumentMatchers;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Pageable;
 import ru.practicum.server.booking.model.Booking;
 import ru.practicum.server.booking.model.BookingStatus;
+import ru.practicum.server.booking.repository.ArchivedBookingRepository;
 import ru.practicum.server.booking.repository.BookingRepository;
+import ru.practicum.server.booking.service.AvailabilityIndex;
 import ru.practicum.server.exception.ForbiddenException;
 import ru.practicum.server.exception.NotFoundException;
 import ru.practicum.server.item.dto.CommentDto;
 import ru.practicum.server.item.dto.ItemDto;
+import ru.practicum.server.item.dto.ItemSearchDto;
+import ru.practicum.server.item.dto.ItemSort;
+import ru.practicum.server.item.event.ItemSavedEvent;
 import ru.practicum.server.item.mapper.CommentMapper;
 import ru.practicum.server.item.mapper.ItemMapper;
 import ru.practicum.server.item.model.Comment;
 import ru.practicum.server.item.model.Item;
+import ru.practicum.server.item.repository.CommentCount;
 import ru.practicum.server.item.repository.CommentRepository;
 import ru.practicum.server.item.repository.ItemRepository;
+import ru.practicum.server.item.service.CommentEligibilityIndex;
+import ru.practicum.server.item.service.CommentWriteBehind;
+import ru.practicum.server.item.service.FuzzyItemIndex;
+import ru.practicum.server.item.service.ItemDetailLoader;
 import ru.practicum.server.item.service.ItemServiceImpl;
+import ru.practicum.server.item.service.ItemStats;
+import ru.practicum.server.item.service.ItemSuggestIndex;
+import ru.practicum.server.item.service.TagFacets;
 import ru.practicum.server.request.model.ItemRequest;
 import ru.practicum.server.request.repository.ItemRequestRepository;
 import ru.practicum.server.user.model.User;
 import ru.practicum.server.user.repository.UserRepository;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -40,6 +60,8 @@ import static org.mockito.Mockito.*;
 @Import({ItemMapper.class, CommentMapper.class})
 class ItemServiceTests {
 
+    @MockBean
+    private EntityManagerFactory entityManagerFactory;
     @MockBean
     private ItemRepository itemRepository;
     @MockBean
@@ -50,6 +72,32 @@ class ItemServiceTests {
     private BookingRepository bookingRepository;
     @MockBean
     private ItemRequestRepository itemRequestRepository;
+    @MockBean
+    private ArchivedBookingRepository archivedBookingRepository;
+    @MockBean
+    private AvailabilityIndex availabilityIndex;
+    @MockBean
+    private ItemDetailLoader detailLoader;
+    @MockBean
+    private CommentEligibilityIndex eligibilityIndex;
+    @MockBean
+    private CommentWriteBehind commentWriteBehind;
+    @MockBean
+    private ItemStats itemStats;
+    @MockBean
+    private TagFacets tagFacets;
+    @MockBean
+    private ItemSuggestIndex suggestIndex;
+    @MockBean
+    private FuzzyItemIndex fuzzyIndex;
+
+    private final List<Object> events = new ArrayList<>();
+
+    private ItemServiceImpl service() {
+        return new ItemServiceImpl(itemRepository, userRepository, new ItemMapper(), commentRepository, new CommentMapper(),
+                bookingRepository, archivedBookingRepository, availabilityIndex, detailLoader, eligibilityIndex,
+                commentWriteBehind, itemStats, tagFacets, suggestIndex, fuzzyIndex, itemRequestRepository, events::add);
+    }
 
     private static User user(long id, String name) {
         return User.builder().id(id).name(name).email(name + "@ex.com").build();
@@ -63,6 +111,20 @@ class ItemServiceTests {
         return Comment.builder().id(id).item(it).author(author).text(text).created(created).build();
     }
 
+    private static CommentCount count(long itemId, long total) {
+        return new CommentCount() {
+            @Override
+            public Long getItemId() {
+                return itemId;
+            }
+
+            @Override
+            public long getTotal() {
+                return total;
+            }
+        };
+    }
+
     private static Booking booking(long id, Item it, User booker, LocalDateTime start, LocalDateTime end, BookingStatus st) {
         return Booking.builder().id(id).item(it).booker(booker).start(start).end(end).status(st).build();
     }
@@ -82,11 +144,7 @@ class ItemServiceTests {
             return saved;
         });
 
-        ItemDto out = new ItemServiceImpl(
-                itemRepository, userRepository, new ItemMapper(),
-                commentRepository, new CommentMapper(),
-                bookingRepository, itemRequestRepository
-        ).addItem(ownerId, dto);
+        ItemDto out = service().addItem(ownerId, dto);
 
         assertThat(out.getId()).isEqualTo(10L);
         assertThat(out.getName()).isEqualTo("Дрель");
@@ -117,17 +175,15 @@ class ItemServiceTests {
             return saved;
         });
 
-        ItemDto out = new ItemServiceImpl(
-                itemRepository, userRepository, new ItemMapper(),
-                commentRepository, new CommentMapper(),
-                bookingRepository, itemRequestRepository
-        ).addItem(ownerId, dto);
+        ItemDto out = service().addItem(ownerId, dto);
 
         assertThat(out.getId()).isEqualTo(11L);
         ArgumentCaptor<Item> cap = ArgumentCaptor.forClass(Item.class);
         verify(itemRepository).save(cap.capture());
         assertThat(cap.getValue().getItemRequest()).isNotNull();
         assertThat(cap.getValue().getItemRequest().getId()).isEqualTo(reqId);
+        assertThat(events).singleElement()
+                .isEqualTo(new ItemSavedEvent(cap.getValue(), true));
     }
 
     @Test
@@ -143,11 +199,7 @@ class ItemServiceTests {
 
         ItemDto patch = ItemDto.builder().name("New").description("new-desc").available(false).build();
 
-        ItemDto updated = new ItemServiceImpl(
-                itemRepository, userRepository, new ItemMapper(),
-                commentRepository, new CommentMapper(),
-                bookingRepository, itemRequestRepository
-        ).updateItem(ownerId, 10L, patch);
+        ItemDto updated = service().updateItem(ownerId, 10L, patch);
 
         assertThat(updated.getName()).isEqualTo("New");
         assertThat(updated.getDescription()).isEqualTo("new-desc");
@@ -165,11 +217,7 @@ class ItemServiceTests {
         when(itemRepository.findById(10L)).thenReturn(Optional.of(it));
 
         assertThatThrownBy(() ->
-                new ItemServiceImpl(
-                        itemRepository, userRepository, new ItemMapper(),
-                        commentRepository, new CommentMapper(),
-                        bookingRepository, itemRequestRepository
-                ).updateItem(otherId, 10L, ItemDto.builder().name("N").build())
+                service().updateItem(otherId, 10L, ItemDto.builder().name("N").build())
         ).isInstanceOf(ForbiddenException.class)
                 .hasMessageContaining("Только владелец");
     }
@@ -198,15 +246,14 @@ class ItemServiceTests {
 
         Comment c1 = comment(1L, it, booker, "new", now.minusMinutes(5));
         Comment c0 = comment(2L, it, booker, "old", now.minusDays(1));
-        when(commentRepository.findAllByItem_IdOrderByCreatedDesc(itemId)).thenReturn(List.of(c1, c0));
+        when(commentRepository.findByItem_IdOrderByCreatedDescIdDesc(eq(itemId), any(Pageable.class)))
+                .thenReturn(List.of(c1, c0));
+        when(commentRepository.countByItem_Id(itemId)).thenReturn(2L);
 
-        ItemDto dto = new ItemServiceImpl(
-                itemRepository, userRepository, new ItemMapper(),
-                commentRepository, new CommentMapper(),
-                bookingRepository, itemRequestRepository
-        ).getItemById(itemId, ownerId);
+        ItemDto dto = service().getItemById(itemId, ownerId);
 
         assertThat(dto.getComments()).extracting(CommentDto::getText).containsExactly("new", "old");
+        assertThat(dto.getCommentsCount()).isEqualTo(2L);
         assertThat(dto.getLastBooking()).isNotNull();
         assertThat(dto.getLastBooking().getId()).isEqualTo(100L);
         assertThat(dto.getNextBooking()).isNotNull();
@@ -224,14 +271,10 @@ class ItemServiceTests {
         Item it = item(itemId, "Дрель", true, user(ownerId, "owner"));
         when(itemRepository.findById(itemId)).thenReturn(Optional.of(it));
 
-        when(commentRepository.findAllByItem_IdOrderByCreatedDesc(itemId))
+        when(commentRepository.findByItem_IdOrderByCreatedDescIdDesc(eq(itemId), any(Pageable.class)))
                 .thenReturn(List.of(comment(1L, it, user(9L, "u"), "c", LocalDateTime.now())));
 
-        ItemDto dto = new ItemServiceImpl(
-                itemRepository, userRepository, new ItemMapper(),
-                commentRepository, new CommentMapper(),
-                bookingRepository, itemRequestRepository
-        ).getItemById(itemId, requesterId);
+        ItemDto dto = service().getItemById(itemId, requesterId);
 
         assertThat(dto.getComments()).hasSize(1);
         assertThat(dto.getLastBooking()).isNull();
@@ -249,7 +292,7 @@ class ItemServiceTests {
         Item item1 = item(10L, "Дрель", true, owner);
         Item item2 = item(11L, "Лобзик", true, owner);
 
-        when(itemRepository.findAllByOwnerId(ownerId)).thenReturn(List.of(item1, item2));
+        when(itemRepository.findAllByOwnerIdFrom(ownerId, 0, Integer.MAX_VALUE)).thenReturn(List.of(item1, item2));
 
         LocalDateTime now = LocalDateTime.now();
         Booking pastI1 = booking(100L, item1, booker, now.minusHours(5), now.minusHours(1), BookingStatus.APPROVED);
@@ -266,14 +309,12 @@ class ItemServiceTests {
         Comment i1New = comment(1001L, item1, booker, "new-1", now.minusHours(3));
         Comment i2New = comment(2000L, item2, booker, "new-2", now.minusMinutes(10));
 
-        when(commentRepository.findAllByItem_IdIn(List.of(item1.getId(), item2.getId())))
-                .thenReturn(List.of(i1Old, i1New, i2New));
+        when(commentRepository.findLatestByItemIdIn(List.of(item1.getId(), item2.getId()), CommentRepository.PREVIEW_SIZE))
+                .thenReturn(List.of(i1New, i1Old, i2New));
+        when(commentRepository.countByItemIdIn(List.of(item1.getId(), item2.getId())))
+                .thenReturn(List.of(count(item1.getId(), 2), count(item2.getId(), 1)));
 
-        List<ItemDto> result = new ItemServiceImpl(
-                itemRepository, userRepository, new ItemMapper(),
-                commentRepository, new CommentMapper(),
-                bookingRepository, itemRequestRepository
-        ).getAllItems(ownerId);
+        List<ItemDto> result = service().getAllItems(ownerId);
 
         assertThat(result).hasSize(2);
 
@@ -284,31 +325,54 @@ class ItemServiceTests {
         assertThat(dto1.getLastBooking().getId()).isEqualTo(pastI1.getId());
         assertThat(dto1.getNextBooking().getId()).isEqualTo(futureI1.getId());
 
+        assertThat(dto1.getCommentsCount()).isEqualTo(2L);
         assertThat(dto2.getComments()).extracting(CommentDto::getText).containsExactly("new-2");
+        assertThat(dto2.getCommentsCount()).isEqualTo(1L);
         assertThat(dto2.getLastBooking().getId()).isEqualTo(pastI2.getId());
         assertThat(dto2.getNextBooking().getId()).isEqualTo(futureI2.getId());
 
         verify(bookingRepository).findByItem_IdInAndStatusOrderByStartDesc(List.of(item1.getId(), item2.getId()), BookingStatus.APPROVED);
-        verify(commentRepository).findAllByItem_IdIn(List.of(item1.getId(), item2.getId()));
+        verify(commentRepository).findLatestByItemIdIn(List.of(item1.getId(), item2.getId()), CommentRepository.PREVIEW_SIZE);
     }
 
     @Test
     @DisplayName("getAllItems у пользователя нет вещей возвращает пустой список")
     void getAllItemsEmpty() {
         long ownerId = 42L;
-        when(itemRepository.findAllByOwnerId(ownerId)).thenReturn(List.of());
+        when(itemRepository.findAllByOwnerIdFrom(ownerId, 0, Integer.MAX_VALUE)).thenReturn(List.of());
 
-        List<ItemDto> result = new ItemServiceImpl(
-                itemRepository, userRepository, new ItemMapper(),
-                commentRepository, new CommentMapper(),
-                bookingRepository, itemRequestRepository
-        ).getAllItems(ownerId);
+        List<ItemDto> result = service().getAllItems(ownerId);
 
         assertThat(result).isEmpty();
         verifyNoInteractions(bookingRepository);
         verifyNoInteractions(commentRepository);
     }
 
+    @Test
+    @DisplayName("getAllItems: from — смещение, не выровненное на size")
+    void getAllItemsPaged() {
+        long ownerId = 1L;
+        User owner = user(ownerId, "owner");
+        Item item3 = item(12L, "Пила", true, owner);
+        when(itemRepository.findAllByOwnerIdFrom(ownerId, 25, 10)).thenReturn(List.of(item3));
+        when(itemStats.counts(List.of(12L))).thenReturn(Map.of(12L, new ItemStats.Counts(4, 2)));
+
+        List<ItemDto> result = service().getAllItems(ownerId, 25, 10);
+
+        assertThat(result).extracting(ItemDto::getId).containsExactly(item3.getId());
+        assertThat(result.get(0).getViewsCount()).isEqualTo(4L);
+        assertThat(result.get(0).getBookingsCount()).isEqualTo(2L);
+    }
+
+    @Test
+    @DisplayName("getAllItems с неположительным size — ForbiddenException")
+    void getAllItemsInvalidPage() {
+        ItemServiceImpl service = service();
+
+        assertThatThrownBy(() -> service.getAllItems(1L, 0, 0)).isInstanceOf(ForbiddenException.class);
+        verifyNoInteractions(itemRepository);
+    }
+
     @Test
     @DisplayName("search возвращает только доступные вещи, найденные по name/description (ignoreCase)")
     void searchSuccess() {
@@ -320,16 +384,127 @@ class ItemServiceTests {
         when(itemRepository.findByDescriptionContainingIgnoreCaseOrNameContainingIgnoreCaseAndAvailableTrue(eq(q), eq(q)))
                 .thenReturn(List.of(i1, i2));
 
-        List<ItemDto> res = new ItemServiceImpl(
-                itemRepository, userRepository, new ItemMapper(),
-                commentRepository, new CommentMapper(),
-                bookingRepository, itemRequestRepository
-        ).search(q);
+        List<ItemDto> res = service().search(q);
 
         assertThat(res).hasSize(2);
         assertThat(res).extracting(ItemDto::getId).containsExactlyInAnyOrder(10L, 11L);
     }
 
+    @Test
+    @DisplayName("search с sort=BOOKINGS упорядочивает по числу броней и отдает счетчики")
+    void searchSortedByBookings() {
+        String q = "дрель";
+        User owner = user(1L, "owner");
+        Item i1 = item(10L, "Дрель", true, owner);
+        Item i2 = item(11L, "Супер дрель", true, owner);
+        Item i3 = item(12L, "Дрель-шуруповерт", true, owner);
+
+        when(itemRepository.findByDescriptionContainingIgnoreCaseOrNameContainingIgnoreCaseAndAvailableTrue(eq(q), eq(q)))
+                .thenReturn(List.of(i1, i2, i3));
+        when(itemStats.counts(List.of(10L, 11L, 12L))).thenReturn(Map.of(
+                10L, new ItemStats.Counts(50, 1),
+                11L, new ItemStats.Counts(3, 7)));
+
+        List<ItemDto> res = service().search(q, null, null, ItemSort.BOOKINGS);
+
+        assertThat(res).extracting(ItemDto::getId).containsExactly(11L, 10L, 12L);
+        assertThat(res).extracting(ItemDto::getViewsCount).containsExactly(3L, 50L, 0L);
+    }
+
+    @Test
+    @DisplayName("searchFuzzy отдает точные совпадения первыми, а близкие — по числу правок, без недоступных")
+    void searchFuzzyRanksExactFirst() {
+        String q = "дрель";
+        User owner = user(1L, "owner");
+        Item exact = item(10L, "Дрель", true, owner);
+        Item oneEdit = item(11L, "Дрели", true, owner);
+        Item twoEdits = item(12L, "Дрелька", true, owner);
+        Item unavailable = item(13L, "Дрел", false, owner);
+
+        when(itemRepository.findByDescriptionContainingIgnoreCaseOrNameContainingIgnoreCaseAndAvailableTrue(eq(q), eq(q)))
+                .thenReturn(List.of(exact));
+        when(fuzzyIndex.find(q)).thenReturn(List.of(
+                new FuzzyItemIndex.Match(10L, 0),
+                new FuzzyItemIndex.Match(11L, 1),
+                new FuzzyItemIndex.Match(13L, 1),
+                new FuzzyItemIndex.Match(12L, 2)));
+        when(itemRepository.findAllById(any())).thenReturn(List.of(twoEdits, unavailable, oneEdit));
+
+        List<ItemDto> res = service().searchFuzzy(q, null, null, null);
+
+        assertThat(res).extracting(ItemDto::getId).containsExactly(10L, 11L, 12L);
+    }
+
+    @Test
+    @DisplayName("searchFuzzy отсекает недоступные до лимита: за сотней недоступных находятся доступные")
+    void searchFuzzyFiltersBeforeLimit() {
+        String q = "дрель";
+        User owner = user(1L, "owner");
+        List<FuzzyItemIndex.Match> matches = new ArrayList<>();
+        for (long id = 1; id <= 150; id++) {
+            matches.add(new FuzzyItemIndex.Match(id, 1));
+        }
+        when(fuzzyIndex.find(q)).thenReturn(matches);
+        when(itemRepository.findAllById(any())).thenAnswer(inv -> {
+            List<Item> found = new ArrayList<>();
+            for (Long id : inv.<Iterable<Long>>getArgument(0)) {
+                found.add(item(id, "Дрели " + id, id > 120, owner));
+            }
+            return found;
+        });
+
+        List<ItemDto> res = service().searchFuzzy(q, null, null, null);
+
+        assertThat(res).extracting(ItemDto::getId).hasSize(30).allMatch(id -> id > 120);
+    }
+
+    @Test
+    @DisplayName("searchFaceted оставляет вещи со всеми тегами и считает фасеты по оставшимся")
+    void searchFacetedFiltersByTags() {
+        String q = "дрель";
+        User owner = user(1L, "owner");
+        Item i1 = item(10L, "Дрель", true, owner);
+        Item i2 = item(11L, "Супер дрель", true, owner);
+        Item i3 = item(12L, "Дрель-шуруповерт", true, owner);
+        BitSet electric = new BitSet();
+        electric.set(10);
+        electric.set(12);
+        electric.set(40);
+
+        when(itemRepository.findByDescriptionContainingIgnoreCaseOrNameContainingIgnoreCaseAndAvailableTrue(eq(q), eq(q)))
+                .thenReturn(List.of(i1, i2, i3));
+        when(tagFacets.itemsWithAll(Set.of("электро"))).thenReturn(electric);
+        when(tagFacets.counts(any(BitSet.class))).thenReturn(Map.of("электро", 2));
+
+        ItemSearchDto res = service().searchFaceted(q, List.of(" Электро "), null, null, null);
+
+        assertThat(res.getItems()).extracting(ItemDto::getId).containsExactly(10L, 12L);
+        assertThat(res.getFacets()).containsEntry("электро", 2);
+        ArgumentCaptor<BitSet> matched = ArgumentCaptor.forClass(BitSet.class);
+        verify(tagFacets).counts(matched.capture());
+        assertThat(matched.getValue().stream()).containsExactly(10, 12);
+    }
+
+    @Test
+    @DisplayName("search с периодом отбрасывает вещи, занятые в этот период")
+    void searchAvailableExcludesOccupied() {
+        String q = "дрель";
+        User owner = user(1L, "owner");
+        LocalDate from = LocalDate.of(2030, 5, 3);
+        LocalDate to = LocalDate.of(2030, 5, 5);
+        BitSet occupied = new BitSet();
+        occupied.set(11);
+        occupied.set(99);
+
+        when(itemRepository.findByDescriptionContainingIgnoreCaseOrNameContainingIgnoreCaseAndAvailableTrue(eq(q), eq(q)))
+                .thenReturn(List.of(item(10L, "Дрель", true, owner), item(11L, "Супер дрель", true, owner)));
+        when(availabilityIndex.occupiedItems(from, to)).thenReturn(occupied);
+
+        List<ItemDto> res = service().search(q, from, to);
+
+        assertThat(res).extracting(ItemDto::getId).containsExactly(10L);
+    }
+
     @Test
     @DisplayName("addComment успешно сохраняет комментарий при наличии завершённой аренды")
     void addCommentSuccess() {
@@ -357,11 +532,7 @@ class ItemServiceTests {
                     .build();
         });
 
-        CommentDto saved = new ItemServiceImpl(
-                itemRepository, userRepository, new ItemMapper(),
-                commentRepository, new CommentMapper(),
-                bookingRepository, itemRequestRepository
-        ).addComment(req, itemId, userId);
+        CommentDto saved = service().addComment(req, itemId, userId);
 
         assertThat(saved.getId()).isEqualTo(100L);
         assertThat(saved.getText()).isEqualTo("Отличная вещь!");
@@ -371,6 +542,26 @@ class ItemServiceTests {
         verify(commentRepository).save(captor.capture());
         assertThat(captor.getValue().getItem().getId()).isEqualTo(itemId);
         assertThat(captor.getValue().getAuthor().getId()).isEqualTo(userId);
+        assertThat(captor.getValue().getAuthorName()).isEqualTo("Alice");
+        verify(eligibilityIndex).add(userId, itemId);
+    }
+
+    @Test
+    @DisplayName("addComment: пара из индекса права на отзыв не проверяется запросом к броням")
+    void addCommentEligibleFromIndex() {
+        long itemId = 5L;
+        long userId = 7L;
+        Item itm = item(itemId, "Дрель", true, user(1L, "Owner"));
+
+        when(itemRepository.findById(itemId)).thenReturn(Optional.of(itm));
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user(userId, "Alice")));
+        when(eligibilityIndex.contains(userId, itemId)).thenReturn(true);
+        when(commentRepository.save(any(Comment.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        CommentDto saved = service().addComment(CommentDto.builder().text("Отличная вещь!").build(), itemId, userId);
+
+        assertThat(saved.getText()).isEqualTo("Отличная вещь!");
+        verifyNoInteractions(bookingRepository, archivedBookingRepository);
     }
 
     @Test
@@ -390,15 +581,12 @@ class ItemServiceTests {
         CommentDto req = CommentDto.builder().text("Отличная вещь!").build();
 
         assertThatThrownBy(() ->
-                new ItemServiceImpl(
-                        itemRepository, userRepository, new ItemMapper(),
-                        commentRepository, new CommentMapper(),
-                        bookingRepository, itemRequestRepository
-                ).addComment(req, itemId, userId)
+                service().addComment(req, itemId, userId)
         ).isInstanceOf(ForbiddenException.class)
                 .hasMessageContaining("Оставлять отзыв можно только после завершения аренды.");
 
         verify(commentRepository, never()).save(any());
+        verify(eligibilityIndex, never()).add(anyLong(), anyLong());
     }
 
     @Test
@@ -406,11 +594,7 @@ class ItemServiceTests {
     void getItemByIdUserNotFound() {
         when(userRepository.findById(777L)).thenReturn(Optional.empty());
         assertThatThrownBy(() ->
-                new ItemServiceImpl(
-                        itemRepository, userRepository, new ItemMapper(),
-                        commentRepository, new CommentMapper(),
-                        bookingRepository, itemRequestRepository
-                ).getItemById(1L, 777L)
+                service().getItemById(1L, 777L)
         ).isInstanceOf(NotFoundException.class);
     }
 }
@@ -0,0 +1,51 @@
+package ru.practicum.server;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.server.item.model.Item;
+import ru.practicum.server.item.repository.ItemRepository;
+import ru.practicum.server.item.service.ItemStats;
+import ru.practicum.server.user.model.User;
+import ru.practicum.server.user.repository.UserRepository;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class ItemStatsTests {
+
+    @Autowired
+    private ItemStats itemStats;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    @DisplayName("flush: приращения из многих потоков складываются в item_stats, повторный flush добавляет к сохраненному")
+    void flush_accumulatesConcurrentIncrements() throws Exception {
+        User owner = userRepository.save(User.builder().name("owner").email("stats-owner@ex.com").build());
+        Item item = itemRepository.save(Item.builder()
+                .name("Каяк").description("двухместный").available(true).owner(owner).build());
+        long itemId = item.getId();
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            IntStream.range(0, 1000).forEach(i -> executor.submit(() -> itemStats.recordView(itemId)));
+        }
+        itemStats.recordBooking(itemId);
+        itemStats.flush();
+
+        assertThat(itemStats.counts(List.of(itemId)).get(itemId)).isEqualTo(new ItemStats.Counts(1000, 1));
+
+        itemStats.recordView(itemId);
+        assertThat(itemStats.counts(List.of(itemId)).get(itemId)).isEqualTo(new ItemStats.Counts(1001, 1));
+        itemStats.flush();
+        assertThat(itemStats.counts(List.of(itemId)).get(itemId)).isEqualTo(new ItemStats.Counts(1001, 1));
+    }
+}
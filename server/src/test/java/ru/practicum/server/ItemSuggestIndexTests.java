@@ -0,0 +1,109 @@
+package ru.practicum.server;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import ru.practicum.server.item.dto.ItemSuggestionDto;
+import ru.practicum.server.item.event.ItemSavedEvent;
+import ru.practicum.server.item.model.Item;
+import ru.practicum.server.item.service.ItemSuggestIndex;
+
+import java.sql.ResultSet;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ItemSuggestIndexTests {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final ItemSuggestIndex index = new ItemSuggestIndex(jdbcTemplate);
+
+    private List<Long> ids(String prefix, int limit) {
+        return index.suggest(prefix, limit).stream().map(ItemSuggestionDto::getId).toList();
+    }
+
+    private void save(long id, String name, boolean available) {
+        Item item = Item.builder().id(id).name(name).description("desc").available(available).build();
+        index.onItemSaved(new ItemSavedEvent(item, true));
+    }
+
+    @Test
+    @DisplayName("suggest находит вещи по началу любого слова названия, без учета регистра и ё")
+    void suggestMatchesWordPrefixes() {
+        save(1, "Дрель ударная", true);
+        save(2, "Ёлочная гирлянда", true);
+        save(3, "Шуруповерт", true);
+
+        assertThat(index.suggest("дре", 10)).extracting(ItemSuggestionDto::getId).containsExactly(1L);
+        assertThat(index.suggest("УДАР", 10)).extracting(ItemSuggestionDto::getId).containsExactly(1L);
+        assertThat(index.suggest("елоч", 10)).extracting(ItemSuggestionDto::getId).containsExactly(2L);
+        assertThat(index.suggest("дрель шур", 10)).isEmpty();
+        assertThat(index.suggest("уд дре", 10)).extracting(ItemSuggestionDto::getId).containsExactly(1L);
+    }
+
+    @Test
+    @DisplayName("suggest ставит доступные вещи выше, затем более популярные, и отдает не больше limit")
+    void suggestRanksByAvailabilityAndPopularity() throws Exception {
+        save(1, "Дрель старая", false);
+        save(2, "Дрель новая", true);
+        save(3, "Дрель мощная", true);
+        ResultSet row = mock(ResultSet.class);
+        when(row.getLong("item_id")).thenReturn(1L, 3L);
+        when(row.getLong("views")).thenReturn(1000L, 5L);
+        when(row.getLong("bookings")).thenReturn(0L, 1L);
+        doAnswer(inv -> {
+            RowCallbackHandler handler = inv.getArgument(1);
+            handler.processRow(row);
+            handler.processRow(row);
+            return null;
+        }).when(jdbcTemplate).query(startsWith("select item_id"), any(RowCallbackHandler.class));
+
+        index.refreshPopularity();
+
+        assertThat(index.suggest("дрель", 10)).extracting(ItemSuggestionDto::getId).containsExactly(3L, 2L, 1L);
+        assertThat(index.suggest("дрель", 2)).extracting(ItemSuggestionDto::getId).containsExactly(3L, 2L);
+    }
+
+    @Test
+    @DisplayName("Переименование и удаление вещи сразу видны в подсказках")
+    void renameAndRemoveUpdateIndex() {
+        save(1, "Дрель", true);
+        save(1, "Перфоратор", true);
+
+        assertThat(index.suggest("дрель", 10)).isEmpty();
+        assertThat(index.suggest("перф", 10)).extracting(ItemSuggestionDto::getName).containsExactly("Перфоратор");
+
+        index.remove(1);
+        assertThat(index.suggest("перф", 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("suggest по короткому префиксу отдает то же, что полный обход, после вставки, переименования и удаления")
+    void shortPrefixTopMatchesFullScan() {
+        for (long id = 1; id <= 60; id++) {
+            save(id, "Дрель " + id, id % 2 == 0);
+        }
+        assertThat(ids("д", 50)).isEqualTo(ids("дрель", 50));
+        assertThat(ids("др", 5)).isEqualTo(ids("дрель", 5));
+
+        save(61, "Дрель 00", true);
+        assertThat(ids("д", 50)).isEqualTo(ids("дрель", 50));
+
+        long first = index.suggest("д", 1).get(0).getId();
+        save(first, "Молоток", true);
+        assertThat(ids("д", 50)).isEqualTo(ids("дрель", 50)).doesNotContain(first);
+        assertThat(index.suggest("м", 10)).extracting(ItemSuggestionDto::getId).containsExactly(first);
+
+        long second = index.suggest("д", 1).get(0).getId();
+        index.remove(second);
+        assertThat(ids("д", 50)).isEqualTo(ids("дрель", 50)).doesNotContain(second);
+
+        assertThat(index.suggest("7 д", 10)).extracting(ItemSuggestionDto::getId).containsExactly(7L);
+    }
+}
@@ -0,0 +1,153 @@
+package ru.practicum.server;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import ru.practicum.server.booking.event.BookingEvent;
+import ru.practicum.server.booking.model.BookingStatus;
+import ru.practicum.server.exception.ErrorHandler;
+import ru.practicum.server.notification.controller.NotificationController;
+import ru.practicum.server.notification.service.BookingNotifier;
+import ru.practicum.server.notification.service.NotificationHub;
+import ru.practicum.server.notification.service.NotificationServiceImpl;
+import ru.practicum.server.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(controllers = NotificationController.class)
+@Import({ErrorHandler.class, NotificationServiceImpl.class, NotificationHub.class, BookingNotifier.class})
+@TestPropertySource(properties = "shareit.events.history-size=3")
+class NotificationControllerTests {
+    private static final Pattern EVENT_ID = Pattern.compile("id:(\\d+)");
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private NotificationHub hub;
+    @Autowired
+    private BookingNotifier notifier;
+
+    @MockBean
+    private UserRepository userRepository;
+
+    private static BookingEvent created(long bookingId, long ownerId) {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        return new BookingEvent(BookingEvent.Type.CREATED, bookingId, 10L, ownerId, 2L,
+                start, start.plusDays(1), BookingStatus.WAITING);
+    }
+
+    private static String awaitContent(MvcResult result, String expected) throws Exception {
+        long deadline = System.currentTimeMillis() + 2000;
+        String content = result.getResponse().getContentAsString();
+        while (!content.contains(expected) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            content = result.getResponse().getContentAsString();
+        }
+        return content;
+    }
+
+    @Test
+    @DisplayName("GET /events: владелец получает booking-created с id события")
+    void subscribe_receivesBookingCreated() throws Exception {
+        when(userRepository.existsById(anyLong())).thenReturn(true);
+
+        MvcResult result = mockMvc.perform(get("/events").header("X-Sharer-User-Id", 101L))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        notifier.onBooking(created(500L, 101L));
+
+        String content = awaitContent(result, "\"bookingId\":500");
+        assertThat(content).contains("event:booking-created").contains("\"bookingId\":500");
+        assertThat(EVENT_ID.matcher(content).find()).isTrue();
+    }
+
+    @Test
+    @DisplayName("GET /events с Last-Event-ID: досылаются только события после него")
+    void subscribe_resumesAfterLastEventId() throws Exception {
+        when(userRepository.existsById(anyLong())).thenReturn(true);
+
+        MvcResult first = mockMvc.perform(get("/events").header("X-Sharer-User-Id", 102L))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        notifier.onBooking(created(601L, 102L));
+        Matcher id = EVENT_ID.matcher(awaitContent(first, "\"bookingId\":601"));
+        assertThat(id.find()).isTrue();
+
+        notifier.onBooking(created(602L, 102L));
+
+        MvcResult resumed = mockMvc.perform(get("/events")
+                        .header("X-Sharer-User-Id", 102L)
+                        .header("Last-Event-ID", id.group(1)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String content = awaitContent(resumed, "\"bookingId\":602");
+        assertThat(content).contains("\"bookingId\":602").doesNotContain("\"bookingId\":601");
+    }
+
+    @Test
+    @DisplayName("GET /events с устаревшим Last-Event-ID: приходит resync")
+    void subscribe_resyncWhenHistoryOverflowed() throws Exception {
+        when(userRepository.existsById(anyLong())).thenReturn(true);
+
+        for (long bookingId = 700L; bookingId < 705L; bookingId++) {
+            hub.publish(103L, "booking-created", created(bookingId, 103L));
+        }
+
+        MvcResult result = mockMvc.perform(get("/events")
+                        .header("X-Sharer-User-Id", 103L)
+                        .header("Last-Event-ID", 1L))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        assertThat(awaitContent(result, "event:resync")).contains("event:resync");
+    }
+
+    @Test
+    @DisplayName("GET /events: события пользователя, который не подписывался, не копятся — при подписке resync")
+    void subscribe_noHistoryWithoutSubscription() throws Exception {
+        when(userRepository.existsById(anyLong())).thenReturn(true);
+
+        MvcResult other = mockMvc.perform(get("/events").header("X-Sharer-User-Id", 104L))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        notifier.onBooking(created(801L, 104L));
+        Matcher id = EVENT_ID.matcher(awaitContent(other, "\"bookingId\":801"));
+        assertThat(id.find()).isTrue();
+
+        hub.publish(105L, "booking-created", created(802L, 105L));
+
+        MvcResult result = mockMvc.perform(get("/events")
+                        .header("X-Sharer-User-Id", 105L)
+                        .header("Last-Event-ID", id.group(1)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        assertThat(awaitContent(result, "event:resync")).contains("event:resync").doesNotContain("\"bookingId\":802");
+    }
+
+    @Test
+    @DisplayName("GET /events: неизвестный пользователь → 404")
+    void subscribe_unknownUser() throws Exception {
+        when(userRepository.existsById(999L)).thenReturn(false);
+
+        mockMvc.perform(get("/events").header("X-Sharer-User-Id", 999L))
+                .andExpect(status().isNotFound());
+    }
+}
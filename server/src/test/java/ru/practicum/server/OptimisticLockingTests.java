@@ -0,0 +1,61 @@
+package ru.practicum.server;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import ru.practicum.server.item.dto.ItemDto;
+import ru.practicum.server.item.model.Item;
+import ru.practicum.server.item.repository.ItemRepository;
+import ru.practicum.server.item.service.ItemService;
+import ru.practicum.server.user.model.User;
+import ru.practicum.server.user.repository.UserRepository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class OptimisticLockingTests {
+
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private ItemService itemService;
+
+    @Test
+    @DisplayName("Запись устаревшей копии пользователя отклоняется, а не затирает чужое изменение")
+    void staleUserCopyIsRejected() {
+        long id = userRepository.save(User.builder().name("Анна").email("lock-anna@ex.com").build()).getId();
+        User first = userRepository.findById(id).orElseThrow();
+        User second = userRepository.findById(id).orElseThrow();
+
+        first.setName("Анна П.");
+        userRepository.save(first);
+        second.setEmail("lock-anna2@ex.com");
+
+        assertThatThrownBy(() -> userRepository.save(second))
+                .isInstanceOf(ObjectOptimisticLockingFailureException.class);
+        User stored = userRepository.findById(id).orElseThrow();
+        assertThat(stored.getName()).isEqualTo("Анна П.");
+        assertThat(stored.getEmail()).isEqualTo("lock-anna@ex.com");
+        assertThat(stored.getVersion()).isEqualTo(1L);
+    }
+
+    @Test
+    @DisplayName("updateItem увеличивает версию, которую клиент потом передает в If-Match")
+    void updateItemBumpsVersion() {
+        User owner = userRepository.save(User.builder().name("owner").email("lock-owner@ex.com").build());
+        Item item = itemRepository.save(Item.builder()
+                .name("Палатка").description("трехместная").available(true).owner(owner).build());
+        assertThat(item.getVersion()).isZero();
+
+        ItemDto updated = itemService.updateItem(owner.getId(), item.getId(),
+                ItemDto.builder().name("Палатка 3").build(), 0L);
+
+        assertThat(updated.getVersion()).isEqualTo(1L);
+        assertThat(itemRepository.findById(item.getId()).orElseThrow().getName()).isEqualTo("Палатка 3");
+    }
+}
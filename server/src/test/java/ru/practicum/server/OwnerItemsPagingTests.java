@@ -0,0 +1,46 @@
+package ru.practicum.server;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.server.item.dto.ItemDto;
+import ru.practicum.server.item.model.Item;
+import ru.practicum.server.item.repository.ItemRepository;
+import ru.practicum.server.item.service.ItemService;
+import ru.practicum.server.user.model.User;
+import ru.practicum.server.user.repository.UserRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class OwnerItemsPagingTests {
+
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    @DisplayName("getAllItems: from — смещение, с size и без него отсчет идет от одной и той же позиции")
+    void getAllItems_fromIsRawOffset() {
+        User owner = userRepository.save(User.builder().name("owner").email("offset-owner@ex.com").build());
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            ids.add(itemRepository.save(Item.builder()
+                    .name("Вещь " + i).description("для смещения").available(true).owner(owner).build()).getId());
+        }
+
+        assertThat(itemService.getAllItems(owner.getId(), 25, 10)).extracting(ItemDto::getId)
+                .containsExactlyElementsOf(ids.subList(25, 30));
+        assertThat(itemService.getAllItems(owner.getId(), 7, 3)).extracting(ItemDto::getId)
+                .containsExactlyElementsOf(ids.subList(7, 10));
+        assertThat(itemService.getAllItems(owner.getId(), 25, null)).extracting(ItemDto::getId)
+                .containsExactlyElementsOf(ids.subList(25, 30));
+    }
+}
@@ -0,0 +1,91 @@
+package ru.practicum.server;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import ru.practicum.server.item.event.ItemSavedEvent;
+import ru.practicum.server.item.model.Item;
+import ru.practicum.server.notification.service.NotificationHub;
+import ru.practicum.server.request.dto.ItemRequestMatchDto;
+import ru.practicum.server.request.model.ItemRequest;
+import ru.practicum.server.request.repository.ItemRequestRepository;
+import ru.practicum.server.request.service.RequestMatcher;
+import ru.practicum.server.user.model.User;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest(classes = RequestMatcher.class)
+class RequestMatcherTests {
+
+    @MockBean
+    private ItemRequestRepository itemRequestRepository;
+    @MockBean
+    private NotificationHub hub;
+
+    @Autowired
+    private RequestMatcher matcher;
+
+    private static User user(long id) {
+        return User.builder().id(id).name("u" + id).email("u" + id + "@ex.com").build();
+    }
+
+    private static ItemRequest request(long id, User requester, String description) {
+        return ItemRequest.builder().id(id).requester(requester).description(description).build();
+    }
+
+    private static Item item(long id, User owner, String name, String description) {
+        return Item.builder().id(id).owner(owner).name(name).description(description).available(true).build();
+    }
+
+    @Test
+    @DisplayName("match: находит чужие запросы по общим термам, учитывая словоформы, и сортирует по доле совпадения")
+    void match_scoresByTermOverlap() {
+        User alice = user(2L);
+        User owner = user(3L);
+        matcher.index(request(100L, alice, "Нужна дрель для бетона"));
+        matcher.index(request(101L, alice, "Ищу ударную дрель"));
+        matcher.index(request(102L, alice, "Лодка на выходные"));
+        matcher.index(request(103L, owner, "Дрель"));
+
+        List<ItemRequestMatchDto> matches = matcher.match(item(10L, owner, "Дрели", "Ударная, по бетону"));
+
+        assertThat(matches).extracting(ItemRequestMatchDto::getRequestId).containsExactly(101L, 100L);
+        assertThat(matches.get(0).getScore()).isEqualTo(2.0 / 3);
+        assertThat(matches.get(0).getItemId()).isEqualTo(10L);
+    }
+
+    @Test
+    @DisplayName("onItemSaved: уведомляет автора запроса один раз, а ответ с requestId убирает запрос из индекса")
+    void onItemSaved_notifiesOnceAndRemovesAnswered() {
+        User alice = user(2L);
+        User owner = user(3L);
+        ItemRequest drill = request(200L, alice, "дрель");
+        matcher.index(drill);
+
+        Item item = item(20L, owner, "Дрель", "аккумуляторная");
+        matcher.onItemSaved(new ItemSavedEvent(item, true));
+        matcher.onItemSaved(new ItemSavedEvent(item, false));
+
+        verify(hub, times(1)).publish(eq(2L), eq("request-match"), any(ItemRequestMatchDto.class));
+
+        Item answer = item(21L, owner, "Дрель", "сетевая");
+        answer.setItemRequest(drill);
+        matcher.onItemSaved(new ItemSavedEvent(answer, true));
+
+        assertThat(matcher.match(item(22L, owner, "Дрель", ""))).isEmpty();
+    }
+
+    @Test
+    @DisplayName("match: у вещи без описания нет терма «null», запрос про null с ней не совпадает")
+    void match_nullDescriptionIsNotATerm() {
+        matcher.index(request(300L, user(2L), "null"));
+
+        assertThat(matcher.match(item(30L, user(3L), "Тент", null))).isEmpty();
+    }
+}
@@ -0,0 +1,80 @@
+package ru.practicum.server;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.server.item.event.ItemSavedEvent;
+import ru.practicum.server.item.model.Item;
+import ru.practicum.server.item.service.TagFacets;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class TagFacetsTests {
+
+    private final TagFacets facets = new TagFacets(mock(JdbcTemplate.class));
+
+    private void save(long id, String... tags) {
+        Item item = Item.builder().id(id).name("item" + id).tags(Set.of(tags)).build();
+        facets.onItemSaved(new ItemSavedEvent(item, false));
+    }
+
+    private static BitSet bits(int... ids) {
+        BitSet result = new BitSet();
+        for (int id : ids) {
+            result.set(id);
+        }
+        return result;
+    }
+
+    @Test
+    @DisplayName("itemsWithAll пересекает битмапы тегов")
+    void itemsWithAllIntersects() {
+        save(1, "инструмент", "электро");
+        save(2, "инструмент");
+        save(3, "электро", "сад");
+
+        assertThat(facets.itemsWithAll(List.of("инструмент", "электро"))).isEqualTo(bits(1));
+        assertThat(facets.itemsWithAll(List.of("электро"))).isEqualTo(bits(1, 3));
+        assertThat(facets.itemsWithAll(List.of("электро", "нет-такого")).isEmpty()).isTrue();
+    }
+
+    @Test
+    @DisplayName("counts считает вещи выдачи по каждому тегу и пропускает теги вне выдачи")
+    void countsOnlyWithinResult() {
+        save(1, "инструмент", "электро");
+        save(2, "инструмент");
+        save(3, "сад");
+
+        assertThat(facets.counts(bits(1, 2))).containsExactly(
+                Map.entry("инструмент", 2),
+                Map.entry("электро", 1));
+    }
+
+    @Test
+    @DisplayName("Повторное сохранение вещи заменяет ее теги, remove убирает вещь из фасетов")
+    void resaveReplacesTags() {
+        save(1, "инструмент", "электро");
+        save(1, "сад");
+
+        assertThat(facets.itemsWithAll(List.of("электро")).isEmpty()).isTrue();
+        assertThat(facets.itemsWithAll(List.of("сад"))).isEqualTo(bits(1));
+
+        facets.remove(1);
+        assertThat(facets.counts(bits(1)).isEmpty()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Вещь с id вне int пропускается, а не роняет обработчик события")
+    void hugeIdIsSkipped() {
+        save(Integer.MAX_VALUE + 1L, "инструмент");
+        save(1, "инструмент");
+
+        assertThat(facets.itemsWithAll(List.of("инструмент"))).isEqualTo(bits(1));
+    }
+}
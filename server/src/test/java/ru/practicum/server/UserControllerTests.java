@@ -15,6 +15,7 @@ import ru.practicum.server.user.service.UserService;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
@@ -58,7 +59,7 @@ class UserControllerTests {
         UserDto patch = user(null, "New", null);
         UserDto resp = user(id, "New", "old@ex.com");
 
-        when(userService.updateUserById(eq(id), any(UserDto.class))).thenReturn(resp);
+        when(userService.updateUserById(eq(id), any(UserDto.class), isNull())).thenReturn(resp);
 
         mockMvc.perform(patch("/users/{id}", id)
                         .contentType(MediaType.APPLICATION_JSON)
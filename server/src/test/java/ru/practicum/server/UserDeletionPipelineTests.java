@@ -0,0 +1,248 @@
+package ru.practicum.server;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.server.booking.dto.BookingDto;
+import ru.practicum.server.booking.dto.BookingRequest;
+import ru.practicum.server.booking.model.Booking;
+import ru.practicum.server.booking.model.BookingStatus;
+import ru.practicum.server.booking.repository.BookingRepository;
+import ru.practicum.server.booking.service.AvailabilityIndex;
+import ru.practicum.server.booking.service.BookingService;
+import ru.practicum.server.exception.NotFoundException;
+import ru.practicum.server.item.dto.CommentDto;
+import ru.practicum.server.item.dto.ItemDto;
+import ru.practicum.server.item.model.Comment;
+import ru.practicum.server.item.model.Item;
+import ru.practicum.server.item.repository.CommentRepository;
+import ru.practicum.server.item.repository.ItemRepository;
+import ru.practicum.server.item.service.ItemService;
+import ru.practicum.server.item.service.ItemSuggestIndex;
+import ru.practicum.server.item.service.TagFacets;
+import ru.practicum.server.request.dto.ItemRequestDto;
+import ru.practicum.server.request.dto.ItemRequestMatchDto;
+import ru.practicum.server.request.dto.ItemRequestResponseDto;
+import ru.practicum.server.request.dto.ItemResponseData;
+import ru.practicum.server.request.model.ItemRequest;
+import ru.practicum.server.request.repository.ItemRequestRepository;
+import ru.practicum.server.request.service.ItemRequestFeed;
+import ru.practicum.server.request.service.ItemRequestService;
+import ru.practicum.server.request.service.RequestMatcher;
+import ru.practicum.server.user.dto.UserDto;
+import ru.practicum.server.user.model.User;
+import ru.practicum.server.user.repository.UserRepository;
+import ru.practicum.server.user.service.UserDeletionPipeline;
+import ru.practicum.server.user.service.UserService;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {
+        "shareit.users.deletion.interval=600000",
+        "shareit.users.deletion.batch-size=1",
+        "shareit.users.deletion.max-batches=1"
+})
+class UserDeletionPipelineTests {
+
+    @Autowired
+    private UserDeletionPipeline pipeline;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private CommentRepository commentRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private ItemRequestRepository itemRequestRepository;
+    @Autowired
+    private TagFacets tagFacets;
+    @Autowired
+    private ItemSuggestIndex suggestIndex;
+    @Autowired
+    private ItemRequestService itemRequestService;
+    @Autowired
+    private AvailabilityIndex availabilityIndex;
+    @Autowired
+    private ItemRequestFeed feed;
+    @Autowired
+    private RequestMatcher requestMatcher;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private long count(String sql, Object... args) {
+        return jdbcTemplate.queryForObject(sql, Long.class, args);
+    }
+
+    @Test
+    @DisplayName("Удаление сразу скрывает пользователя, а пайплайн пачками убирает его вещи, брони, "
+            + "комментарии и запросы, не трогая чужие вещи")
+    void deleteRemovesFootprintInBatches() {
+        User gone = userRepository.save(User.builder().name("Уходящий").email("pipeline-gone@ex.com").build());
+        User other = userRepository.save(User.builder().name("Остающийся").email("pipeline-other@ex.com").build());
+        ItemRequest request = itemRequestRepository.save(ItemRequest.builder()
+                .description("нужен теодолит").requester(gone).created(LocalDateTime.now()).build());
+
+        List<Long> goneItems = List.of(
+                itemService.addItem(gone.getId(), ItemDto.builder().name("Нивелир лазерный").description("точный")
+                        .available(true).tags(Set.of("pipeline-geo")).build()).getId(),
+                itemService.addItem(gone.getId(), ItemDto.builder().name("Рулетка").description("50 м")
+                        .available(true).build()).getId());
+        long kept = itemService.addItem(other.getId(), ItemDto.builder().name("Теодолит").description("оптический")
+                .available(true).requestId(request.getId()).build()).getId();
+
+        Item goneItem = itemRepository.findById(goneItems.get(0)).orElseThrow();
+        Item keptItem = itemRepository.findById(kept).orElseThrow();
+        LocalDateTime start = LocalDateTime.now().minusDays(3);
+        Booking onGone = bookingRepository.save(Booking.builder().item(goneItem).booker(other)
+                .status(BookingStatus.APPROVED).start(start).end(start.plusDays(1)).build());
+        Booking byGone = bookingRepository.save(Booking.builder().item(keptItem).booker(gone)
+                .status(BookingStatus.APPROVED).start(start).end(start.plusDays(1)).build());
+        Booking untouched = bookingRepository.save(Booking.builder().item(keptItem).booker(other)
+                .status(BookingStatus.APPROVED).start(start.plusDays(1)).end(start.plusDays(2)).build());
+        Comment onGoneItem = commentRepository.save(Comment.builder().text("хорошо").item(goneItem)
+                .author(other).authorName(other.getName()).created(LocalDateTime.now()).build());
+        Comment byGoneUser = commentRepository.save(Comment.builder().text("отлично").item(keptItem)
+                .author(gone).authorName(gone.getName()).created(LocalDateTime.now()).build());
+
+        userService.deleteUserById(gone.getId());
+
+        assertThatThrownBy(() -> userService.getUserById(gone.getId())).isInstanceOf(NotFoundException.class);
+        assertThat(userRepository.existsById(gone.getId())).isFalse();
+        UserDto reused = userService.create(UserDto.builder().name("Новый").email("pipeline-gone@ex.com").build());
+        assertThat(reused.getId()).isNotEqualTo(gone.getId());
+
+        for (int pass = 0; pass < 100 && pipeline.process() > 0; pass++) {
+            // каждый проход — не больше max-batches пачек по одной строке
+        }
+
+        assertThat(count("select count(*) from users where id = ?", gone.getId())).isZero();
+        assertThat(count("select count(*) from items where owner_id = ?", gone.getId())).isZero();
+        assertThat(count("select count(*) from item_tags where item_id = ?", goneItems.get(0))).isZero();
+        assertThat(count("select count(*) from item_requests where id = ?", request.getId())).isZero();
+        assertThat(commentRepository.existsById(onGoneItem.getId())).isFalse();
+        assertThat(commentRepository.existsById(byGoneUser.getId())).isFalse();
+        assertThat(bookingRepository.existsById(onGone.getId())).isFalse();
+        assertThat(bookingRepository.existsById(byGone.getId())).isFalse();
+        assertThat(bookingRepository.existsById(untouched.getId())).isTrue();
+
+        Item stillThere = itemRepository.findById(kept).orElseThrow();
+        assertThat(stillThere.getItemRequest()).isNull();
+        assertThat(tagFacets.itemsWithAll(List.of("pipeline-geo")).isEmpty()).isTrue();
+        assertThat(suggestIndex.suggest("нивелир", 10)).isEmpty();
+
+        assertThat(count("select count(*) from user_deletions where user_id = ? and stage = 'DONE' "
+                + "and finished_at is not null", gone.getId())).isEqualTo(1L);
+        assertThat(count("select deleted_rows from user_deletions where user_id = ?", gone.getId()))
+                .isEqualTo(8L);
+    }
+
+    @Test
+    @DisplayName("Бронь и комментарий, появившиеся на вещи после этапа BOOKINGS, удаляются этапом ITEMS, "
+            + "а новые брони и комментарии на вещи удаляемого владельца не принимаются")
+    void bookingCreatedBetweenStagesDoesNotBlockItems() {
+        User gone = userRepository.save(User.builder().name("Уходящий").email("pipeline-late@ex.com").build());
+        User booker = userRepository.save(User.builder().name("Арендатор").email("pipeline-booker@ex.com").build());
+        long itemId = itemService.addItem(gone.getId(), ItemDto.builder().name("Перфоратор").description("SDS")
+                .available(true).build()).getId();
+
+        userService.deleteUserById(gone.getId());
+
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        assertThatThrownBy(() -> bookingService.addBooking(BookingRequest.builder().itemId(itemId)
+                .start(start).end(start.plusDays(1)).build(), booker.getId()))
+                .isInstanceOf(NotFoundException.class);
+        assertThatThrownBy(() -> itemService.addComment(CommentDto.builder().text("поздно").build(),
+                itemId, booker.getId()))
+                .isInstanceOf(NotFoundException.class);
+
+        for (int pass = 0; pass < 100 && !"ITEMS".equals(stage(gone.getId())); pass++) {
+            pipeline.process();
+        }
+        assertThat(stage(gone.getId())).isEqualTo("ITEMS");
+
+        // Запись, проскочившая проверку владельца до пометки deleted_at и зафиксированная после этапа BOOKINGS.
+        Item item = itemRepository.findById(itemId).orElseThrow();
+        Booking late = bookingRepository.save(Booking.builder().item(item).booker(booker)
+                .status(BookingStatus.WAITING).start(start).end(start.plusDays(1)).build());
+        Comment lateComment = commentRepository.save(Comment.builder().text("поздно").item(item)
+                .author(booker).authorName(booker.getName()).created(LocalDateTime.now()).build());
+
+        for (int pass = 0; pass < 100 && pipeline.process() > 0; pass++) {
+            // дочищаем оставшиеся этапы
+        }
+
+        assertThat(stage(gone.getId())).isEqualTo("DONE");
+        assertThat(itemRepository.existsById(itemId)).isFalse();
+        assertThat(bookingRepository.existsById(late.getId())).isFalse();
+        assertThat(commentRepository.existsById(lateComment.getId())).isFalse();
+    }
+
+    @Test
+    @DisplayName("Удаленные пайплайном брони, вещи и запросы пропадают из календаря занятости, ленты запросов "
+            + "и индекса сопоставления")
+    void deletionEvictsInMemoryIndexes() {
+        User gone = userRepository.save(User.builder().name("Уходящий").email("pipeline-evict@ex.com").build());
+        User other = userRepository.save(User.builder().name("Сосед").email("pipeline-neighbour@ex.com").build());
+        long otherItem = itemService.addItem(other.getId(), ItemDto.builder().name("Бетономешалка")
+                .description("на 120 литров").available(true).build()).getId();
+        LocalDateTime start = LocalDateTime.now().plusDays(2);
+        BookingDto booking = bookingService.addBooking(BookingRequest.builder().itemId(otherItem)
+                .start(start).end(start.plusDays(1)).build(), gone.getId());
+        bookingService.respond(booking.getId(), true, other.getId());
+
+        long goneRequest = itemRequestService.create(gone.getId(),
+                new ItemRequestDto("нужен компрессор поршневой")).getId();
+        long otherRequest = itemRequestService.create(other.getId(),
+                new ItemRequestDto("нужна стремянка алюминиевая")).getId();
+        long answer = itemService.addItem(gone.getId(), ItemDto.builder().name("Стремянка")
+                .description("алюминиевая").available(true).requestId(otherRequest).build()).getId();
+        Item probe = Item.builder().id(Long.MAX_VALUE).name("Компрессор поршневой").description("масляный")
+                .available(true).owner(other).build();
+
+        LocalDate day = start.toLocalDate();
+        assertThat(availabilityIndex.isOccupied(otherItem, day, day)).isTrue();
+        assertThat(feedRequest(other.getId(), goneRequest)).isNotNull();
+        assertThat(feedRequest(gone.getId(), otherRequest).getItems()).extracting(ItemResponseData::getId)
+                .contains(answer);
+        assertThat(requestMatcher.match(probe)).extracting(ItemRequestMatchDto::getRequestId).contains(goneRequest);
+
+        userService.deleteUserById(gone.getId());
+        for (int pass = 0; pass < 100 && pipeline.process() > 0; pass++) {
+            // каждый проход — одна пачка по одной строке
+        }
+
+        assertThat(stage(gone.getId())).isEqualTo("DONE");
+        assertThat(availabilityIndex.isOccupied(otherItem, day, day)).isFalse();
+        assertThat(feedRequest(other.getId(), goneRequest)).isNull();
+        assertThat(feedRequest(gone.getId(), otherRequest).getItems()).isEmpty();
+        assertThat(requestMatcher.match(probe)).extracting(ItemRequestMatchDto::getRequestId)
+                .doesNotContain(goneRequest);
+    }
+
+    private ItemRequestResponseDto feedRequest(long userId, long requestId) {
+        return feed.page(userId, 0, 1000).orElseThrow().stream()
+                .filter(request -> request.getId() == requestId)
+                .findFirst()
+                .orElse(null);
+    }
+
+    private String stage(long userId) {
+        return jdbcTemplate.queryForObject("select stage from user_deletions where user_id = ?", String.class, userId);
+    }
+}
@@ -5,27 +5,35 @@ import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
 import ru.practicum.server.exception.AlreadyExists;
 import ru.practicum.server.exception.NotFoundException;
+import ru.practicum.server.exception.VersionConflict;
 import ru.practicum.server.user.dto.UserDto;
 import ru.practicum.server.user.mapper.UserMapper;
 import ru.practicum.server.user.model.User;
 import ru.practicum.server.user.repository.UserRepository;
+import ru.practicum.server.user.service.EmailIndex;
+import ru.practicum.server.user.service.UserDeletionPipeline;
 import ru.practicum.server.user.service.UserServiceImpl;
 
+import java.sql.SQLException;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 
 @SpringBootTest(classes = UserServiceImpl.class)
-@Import(UserMapper.class)
+@Import({UserMapper.class, EmailIndex.class})
 class UserServiceTests {
 
     @MockBean
     private UserRepository userRepository;
+    @MockBean
+    private UserDeletionPipeline deletionPipeline;
 
     private static User user(long id, String name, String email) {
         return User.builder().id(id).name(name).email(email).build();
@@ -38,10 +46,9 @@ class UserServiceTests {
         User existing = user(id, "Old Name", "old@example.com");
 
         when(userRepository.findById(id)).thenReturn(Optional.of(existing));
-        when(userRepository.findByEmail(null)).thenReturn(Optional.empty());
         when(userRepository.save(any(User.class))).thenAnswer(inv -> inv.getArgument(0));
 
-        UserServiceImpl service = new UserServiceImpl(new UserMapper(), userRepository);
+        UserServiceImpl service = new UserServiceImpl(new UserMapper(), userRepository, new EmailIndex(userRepository), deletionPipeline);
 
         UserDto patch = UserDto.builder().name("New Name").build();
         UserDto updated = service.updateUserById(id, patch);
@@ -51,7 +58,7 @@ class UserServiceTests {
         assertThat(updated.getEmail()).isEqualTo("old@example.com");
 
         verify(userRepository, times(1)).findById(id);
-        verify(userRepository, times(1)).findByEmail(null);
+        verify(userRepository, never()).existsByEmailIgnoreCaseAndIdNot(any(), any());
         verify(userRepository, times(1)).save(any(User.class));
     }
 
@@ -62,10 +69,11 @@ class UserServiceTests {
         User existing = user(id, "User", "old@example.com");
 
         when(userRepository.findById(id)).thenReturn(Optional.of(existing));
-        when(userRepository.findByEmail("new@example.com")).thenReturn(Optional.empty());
         when(userRepository.save(any(User.class))).thenAnswer(inv -> inv.getArgument(0));
 
-        UserServiceImpl service = new UserServiceImpl(new UserMapper(), userRepository);
+        EmailIndex emailIndex = new EmailIndex(userRepository);
+        emailIndex.put("old@example.com", id);
+        UserServiceImpl service = new UserServiceImpl(new UserMapper(), userRepository, emailIndex, deletionPipeline);
 
         UserDto patch = UserDto.builder().email("new@example.com").build();
         UserDto updated = service.updateUserById(id, patch);
@@ -73,8 +81,11 @@ class UserServiceTests {
         assertThat(updated.getEmail()).isEqualTo("new@example.com");
         assertThat(updated.getName()).isEqualTo("User");
 
-        verify(userRepository).findByEmail("new@example.com");
         verify(userRepository).save(any(User.class));
+        when(userRepository.existsByEmailIgnoreCaseAndIdNot("NEW@example.com", 50L)).thenReturn(true);
+        assertThat(emailIndex.isTaken("NEW@example.com", 50L)).isTrue();
+        assertThat(emailIndex.isTaken("new@example.com", id)).isFalse();
+        assertThat(emailIndex.isTaken("old@example.com", 50L)).isFalse();
     }
 
     @Test
@@ -82,12 +93,13 @@ class UserServiceTests {
     void update_email_conflict() {
         long id = 12L;
         User existing = user(id, "User", "old@example.com");
-        User someone = user(99L, "Other", "taken@example.com");
 
         when(userRepository.findById(id)).thenReturn(Optional.of(existing));
-        when(userRepository.findByEmail("taken@example.com")).thenReturn(Optional.of(someone));
+        when(userRepository.existsByEmailIgnoreCaseAndIdNot("taken@example.com", id)).thenReturn(true);
 
-        UserServiceImpl service = new UserServiceImpl(new UserMapper(), userRepository);
+        EmailIndex emailIndex = new EmailIndex(userRepository);
+        emailIndex.put("Taken@Example.com", 99L);
+        UserServiceImpl service = new UserServiceImpl(new UserMapper(), userRepository, emailIndex, deletionPipeline);
 
         UserDto patch = UserDto.builder().email("taken@example.com").build();
 
@@ -103,7 +115,7 @@ class UserServiceTests {
     void update_user_notFound() {
         when(userRepository.findById(777L)).thenReturn(Optional.empty());
 
-        UserServiceImpl service = new UserServiceImpl(new UserMapper(), userRepository);
+        UserServiceImpl service = new UserServiceImpl(new UserMapper(), userRepository, new EmailIndex(userRepository), deletionPipeline);
 
         UserDto patch = UserDto.builder().name("X").email("x@example.com").build();
 
@@ -121,10 +133,9 @@ class UserServiceTests {
         UserDto input = UserDto.builder().name("Alice").email("a@ex.com").build();
         User saved = user(100L, "Alice", "a@ex.com");
 
-        when(userRepository.findByEmail("a@ex.com")).thenReturn(Optional.empty());
         when(userRepository.save(any(User.class))).thenReturn(saved);
 
-        UserServiceImpl service = new UserServiceImpl(new UserMapper(), userRepository);
+        UserServiceImpl service = new UserServiceImpl(new UserMapper(), userRepository, new EmailIndex(userRepository), deletionPipeline);
 
         UserDto out = service.create(input);
 
@@ -132,19 +143,20 @@ class UserServiceTests {
         assertThat(out.getName()).isEqualTo("Alice");
         assertThat(out.getEmail()).isEqualTo("a@ex.com");
 
-        verify(userRepository).findByEmail("a@ex.com");
         verify(userRepository).save(any(User.class));
+        verify(userRepository, never()).findByEmail(any());
     }
 
     @Test
     @DisplayName("create: email уже занят — AlreadyExists, сохранения нет")
     void create_conflict() {
         UserDto input = UserDto.builder().name("Bob").email("b@ex.com").build();
-        User existing = user(1L, "Other", "b@ex.com");
 
-        when(userRepository.findByEmail("b@ex.com")).thenReturn(Optional.of(existing));
+        when(userRepository.existsByEmailIgnoreCaseAndIdNot("b@ex.com", 0L)).thenReturn(true);
 
-        UserServiceImpl service = new UserServiceImpl(new UserMapper(), userRepository);
+        EmailIndex emailIndex = new EmailIndex(userRepository);
+        emailIndex.put("b@ex.com", 1L);
+        UserServiceImpl service = new UserServiceImpl(new UserMapper(), userRepository, emailIndex, deletionPipeline);
 
         assertThatThrownBy(() -> service.create(input))
                 .isInstanceOf(AlreadyExists.class)
@@ -153,6 +165,19 @@ class UserServiceTests {
         verify(userRepository, never()).save(any(User.class));
     }
 
+    @Test
+    @DisplayName("create: гонка двух create с одним email — нарушение UQ_USER_EMAIL становится AlreadyExists")
+    void create_uniqueViolation() {
+        UserDto input = UserDto.builder().name("Bob").email("race@ex.com").build();
+        when(userRepository.save(any(User.class))).thenThrow(new DataIntegrityViolationException("insert",
+                new SQLException("Unique index or primary key violation: \"PUBLIC.UQ_USER_EMAIL_INDEX_4\"")));
+
+        UserServiceImpl service = new UserServiceImpl(new UserMapper(), userRepository, new EmailIndex(userRepository), deletionPipeline);
+
+        assertThatThrownBy(() -> service.create(input))
+                .isInstanceOf(AlreadyExists.class);
+    }
+
     // -------------------- ДОБАВЛЕНО: getUserById --------------------
 
     @Test
@@ -162,7 +187,7 @@ class UserServiceTests {
         User u = user(id, "Carl", "c@ex.com");
         when(userRepository.findById(id)).thenReturn(Optional.of(u));
 
-        UserServiceImpl service = new UserServiceImpl(new UserMapper(), userRepository);
+        UserServiceImpl service = new UserServiceImpl(new UserMapper(), userRepository, new EmailIndex(userRepository), deletionPipeline);
 
         UserDto out = service.getUserById(id);
 
@@ -178,7 +203,7 @@ class UserServiceTests {
     void getById_notFound() {
         when(userRepository.findById(404L)).thenReturn(Optional.empty());
 
-        UserServiceImpl service = new UserServiceImpl(new UserMapper(), userRepository);
+        UserServiceImpl service = new UserServiceImpl(new UserMapper(), userRepository, new EmailIndex(userRepository), deletionPipeline);
 
         assertThatThrownBy(() -> service.getUserById(404L))
                 .isInstanceOf(NotFoundException.class);
@@ -186,4 +211,33 @@ class UserServiceTests {
         // никаких save не должно быть
         verify(userRepository, never()).save(any(User.class));
     }
+
+    @Test
+    @DisplayName("updateUserById: устаревшая версия из If-Match — VersionConflict, без записи")
+    void update_staleVersion() {
+        long id = 10L;
+        User existing = user(id, "Old Name", "old@example.com");
+        existing.setVersion(5L);
+        when(userRepository.findById(id)).thenReturn(Optional.of(existing));
+
+        UserServiceImpl service = new UserServiceImpl(new UserMapper(), userRepository, new EmailIndex(userRepository), deletionPipeline);
+
+        assertThatThrownBy(() -> service.updateUserById(id, UserDto.builder().name("New").build(), 4L))
+                .isInstanceOf(VersionConflict.class);
+        verify(userRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("deleteUserById: пользователь только помечается удаленным, строки чистит пайплайн")
+    void delete_marksForPipeline() {
+        long id = 10L;
+        when(userRepository.findById(id)).thenReturn(Optional.of(user(id, "Name", "name@example.com")));
+        when(deletionPipeline.markDeleted(id)).thenReturn(true);
+
+        UserServiceImpl service = new UserServiceImpl(new UserMapper(), userRepository, new EmailIndex(userRepository), deletionPipeline);
+
+        assertThat(service.deleteUserById(id).getEmail()).isEqualTo("name@example.com");
+        verify(deletionPipeline).markDeleted(id);
+        verify(userRepository, never()).deleteById(anyLong());
+    }
 }